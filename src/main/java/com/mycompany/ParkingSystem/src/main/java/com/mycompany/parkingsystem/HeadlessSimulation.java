@@ -0,0 +1,242 @@
+package com.mycompany.parkingsystem;
+
+import com.mycompany.parkingsystem.model.ParkingSpace;
+import com.mycompany.parkingsystem.model.ParkingSpaceType;
+import com.mycompany.parkingsystem.model.Vehicle;
+import com.mycompany.parkingsystem.model.VehicleStateStore;
+import com.mycompany.parkingsystem.simulation.SimulationCheckpoint;
+import com.mycompany.parkingsystem.simulation.SimulationEngine;
+import com.mycompany.parkingsystem.simulation.SimulationRandom;
+import com.mycompany.parkingsystem.simulation.TrajectoryRecorder;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Runs the parking simulation without Swing, stepping as fast as the CPU
+ * allows for a fixed simulated duration or number of ticks, then prints a
+ * throughput summary.
+ *
+ * A run can start from a checkpoint with --load and leave one behind with
+ * --save; the checkpoint must come from a run with the same seed and vehicle
+ * count, which rebuild the same lot and fleet. --record writes every tick's
+ * vehicle poses to a trajectory file.
+ *
+ * Usage: HeadlessSimulation [--duration seconds | --ticks n] [--vehicles n]
+ *                           [--dt seconds] [--threads n] [--seed n]
+ *                           [--load file] [--save file] [--record file]
+ */
+public class HeadlessSimulation {
+    private static final int PARKING_LOT_WIDTH = 1000;
+    private static final int PARKING_LOT_HEIGHT = 800;
+    private static final double DEFAULT_TIMESTEP = 1.0 / 60;
+    private static final double DEFAULT_DURATION = 3600; // one simulated hour
+    private static final int DEFAULT_AI_VEHICLES = 5;
+    private static final long DEFAULT_SEED = 42;
+
+    private final List<ParkingSpace> parkingSpaces;
+    private final List<Vehicle> vehicles;
+    private final SimulationEngine simulationEngine;
+    private TrajectoryRecorder recorder;
+
+    public HeadlessSimulation(int aiVehicleCount, long seed) {
+        ParkingLotFactory lotFactory = new ParkingLotFactory(new SimulationRandom(seed));
+        parkingSpaces = lotFactory.createParkingSpaces();
+        vehicles = lotFactory.createVehicles(parkingSpaces, aiVehicleCount, false);
+
+        simulationEngine = new SimulationEngine(parkingSpaces, vehicles);
+        simulationEngine.setParkingLotDimensions(PARKING_LOT_WIDTH, PARKING_LOT_HEIGHT);
+    }
+
+    /**
+     * Advances the simulation by a fixed number of ticks.
+     * @return Wall-clock time spent, in nanoseconds
+     */
+    public long run(long ticks, double timestep) {
+        long start = System.nanoTime();
+        for (long i = 0; i < ticks; i++) {
+            simulationEngine.update(timestep);
+            if (recorder != null) {
+                try {
+                    recorder.recordTick(simulationEngine);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        }
+        return System.nanoTime() - start;
+    }
+
+    public SimulationEngine getSimulationEngine() {
+        return simulationEngine;
+    }
+
+    /**
+     * Records poses after every tick that {@link #run} advances, or stops
+     * recording when null.
+     */
+    public void setRecorder(TrajectoryRecorder recorder) {
+        this.recorder = recorder;
+    }
+
+    /**
+     * Hashes every vehicle's pose, so two runs can be compared for
+     * bit-for-bit reproducibility.
+     */
+    public long stateChecksum() {
+        VehicleStateStore store = simulationEngine.getStateStore();
+        long hash = 1125899906842597L;
+        for (int i = 0; i < store.size(); i++) {
+            hash = 31 * hash + Double.doubleToLongBits(store.getX(i));
+            hash = 31 * hash + Double.doubleToLongBits(store.getY(i));
+            hash = 31 * hash + Double.doubleToLongBits(store.getAngle(i));
+            hash = 31 * hash + Double.doubleToLongBits(store.getSpeed(i));
+        }
+        return hash;
+    }
+
+    public static void main(String[] args) {
+        System.setProperty("java.awt.headless", "true");
+
+        double timestep = DEFAULT_TIMESTEP;
+        double duration = DEFAULT_DURATION;
+        long ticks = -1;
+        int aiVehicles = DEFAULT_AI_VEHICLES;
+        int threads = 1;
+        long seed = DEFAULT_SEED;
+        Path loadFile = null;
+        Path saveFile = null;
+        Path recordFile = null;
+
+        for (int i = 0; i < args.length; i++) {
+            String option = args[i];
+            if (i + 1 >= args.length) {
+                usage("Missing value for " + option);
+                return;
+            }
+            String value = args[++i];
+            switch (option) {
+                case "--duration":
+                    duration = Double.parseDouble(value);
+                    break;
+                case "--ticks":
+                    ticks = Long.parseLong(value);
+                    break;
+                case "--vehicles":
+                    aiVehicles = Integer.parseInt(value);
+                    break;
+                case "--dt":
+                    timestep = Double.parseDouble(value);
+                    break;
+                case "--threads":
+                    threads = Integer.parseInt(value);
+                    break;
+                case "--seed":
+                    seed = Long.parseLong(value);
+                    break;
+                case "--load":
+                    loadFile = Path.of(value);
+                    break;
+                case "--save":
+                    saveFile = Path.of(value);
+                    break;
+                case "--record":
+                    recordFile = Path.of(value);
+                    break;
+                default:
+                    usage("Unknown option " + option);
+                    return;
+            }
+        }
+
+        if (timestep <= 0 || duration <= 0 || aiVehicles < 0 || threads < 1) {
+            usage("Timestep, duration and thread count must be positive");
+            return;
+        }
+        if (ticks < 0) {
+            ticks = (long) Math.ceil(duration / timestep);
+        }
+
+        HeadlessSimulation simulation = new HeadlessSimulation(aiVehicles, seed);
+        if (threads > 1) {
+            simulation.getSimulationEngine().setUpdatePool(new ForkJoinPool(threads));
+        }
+
+        System.out.println("Starting headless parking simulation...");
+        System.out.println("Parking spaces: " + simulation.parkingSpaces.size());
+        System.out.println("Vehicles: " + simulation.vehicles.size());
+        System.out.println("Seed: " + seed);
+
+        if (loadFile != null) {
+            try {
+                long start = System.nanoTime();
+                SimulationCheckpoint.restore(simulation.getSimulationEngine(), loadFile);
+                System.out.printf("Restored %s in %.3f ms%n", loadFile, (System.nanoTime() - start) / 1e6);
+            } catch (IOException e) {
+                System.err.println("Checkpoint restore failed: " + e.getMessage());
+                return;
+            }
+        }
+
+        // The recorder is closed on every path, so the file is cut to what was
+        // written and the recorder stops listening to the engine
+        long recordCount = 0;
+        long recordTicks = 0;
+        try (TrajectoryRecorder recorder = recordFile != null
+                 ? new TrajectoryRecorder(recordFile, simulation.simulationEngine, timestep) : null) {
+            simulation.setRecorder(recorder);
+            long elapsedNanos = simulation.run(ticks, timestep);
+            simulation.printSummary(ticks, timestep, elapsedNanos);
+
+            if (recorder != null) {
+                recordCount = recorder.getRecordCount();
+                recordTicks = recorder.getTickCount();
+            }
+        } catch (IOException | UncheckedIOException e) {
+            System.err.println("Recording failed: " + e.getMessage());
+            return;
+        } finally {
+            simulation.setRecorder(null);
+        }
+        if (recordFile != null) {
+            System.out.printf("Recorded %d poses over %d ticks to %s%n", recordCount, recordTicks, recordFile);
+        }
+
+        if (saveFile != null) {
+            try {
+                long start = System.nanoTime();
+                SimulationCheckpoint.save(simulation.getSimulationEngine(), saveFile);
+                System.out.printf("Saved %s in %.3f ms%n", saveFile, (System.nanoTime() - start) / 1e6);
+            } catch (IOException e) {
+                System.err.println("Checkpoint save failed: " + e.getMessage());
+            }
+        }
+    }
+
+    private void printSummary(long ticks, double timestep, long elapsedNanos) {
+        double wallSeconds = elapsedNanos / 1e9;
+        double simulatedSeconds = ticks * timestep;
+        long parkedVehicles = vehicles.stream().filter(Vehicle::isParked).count();
+        long occupiedSpaces = parkingSpaces.stream()
+            .filter(space -> space.getType() != ParkingSpaceType.OBSTACLE && space.isOccupied())
+            .count();
+
+        System.out.println("Simulation ended");
+        System.out.printf("Ticks: %d (dt=%.4f s)%n", ticks, timestep);
+        System.out.printf("Simulated time: %.1f s, wall time: %.3f s%n", simulatedSeconds, wallSeconds);
+        System.out.printf("Throughput: %.0f ticks/s, %.1fx real time%n",
+            ticks / wallSeconds, simulatedSeconds / wallSeconds);
+        System.out.printf("Parked vehicles: %d/%d, occupied spaces: %d%n",
+            parkedVehicles, vehicles.size(), occupiedSpaces);
+        System.out.printf("State checksum: %016x%n", stateChecksum());
+    }
+
+    private static void usage(String error) {
+        System.err.println(error);
+        System.err.println("Usage: HeadlessSimulation [--duration seconds | --ticks n] [--vehicles n]"
+            + " [--dt seconds] [--threads n] [--seed n] [--load file] [--save file] [--record file]");
+    }
+}
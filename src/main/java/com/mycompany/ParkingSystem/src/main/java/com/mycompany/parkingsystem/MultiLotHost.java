@@ -0,0 +1,213 @@
+package com.mycompany.parkingsystem;
+
+import com.mycompany.parkingsystem.simulation.SimulationRandom;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Runs many independent parking lots in one process.
+ *
+ * Every lot has its own layout, fleet, engine and seed. The host advances all
+ * of them in rounds on one shared work-stealing pool: each round, every lot
+ * runs its own tick budget as a separate task, so lots of different sizes
+ * balance across cores and all lots gain the same simulated time per round.
+ * The same pool is handed to each engine for its parallel vehicle updates.
+ *
+ * Usage: MultiLotHost [--lots n] [--vehicles n] [--duration seconds]
+ *                     [--dt seconds] [--budget ticks] [--threads n] [--seed n]
+ */
+public class MultiLotHost {
+    private static final int DEFAULT_LOTS = 16;
+    private static final int DEFAULT_AI_VEHICLES = 50;
+    private static final double DEFAULT_DURATION = 600; // simulated seconds per lot
+    private static final double DEFAULT_TIMESTEP = 1.0 / 60;
+    private static final int DEFAULT_TICK_BUDGET = 60; // ticks per lot per round
+    private static final long DEFAULT_SEED = 42;
+
+    private final ForkJoinPool pool;
+    private final double timestep;
+    private final List<Lot> lots = new ArrayList<>();
+
+    /**
+     * One hosted lot and its running totals.
+     */
+    private static final class Lot {
+        final String name;
+        final HeadlessSimulation simulation;
+        final int tickBudget;
+        long ticks = 0;
+        long busyNanos = 0;
+
+        Lot(String name, HeadlessSimulation simulation, int tickBudget) {
+            this.name = name;
+            this.simulation = simulation;
+            this.tickBudget = tickBudget;
+        }
+    }
+
+    /**
+     * @param pool Shared pool for both lot scheduling and per-lot vehicle updates
+     * @param timestep Simulated seconds per tick, the same for every lot
+     */
+    public MultiLotHost(ForkJoinPool pool, double timestep) {
+        if (timestep <= 0) {
+            throw new IllegalArgumentException("Timestep must be positive");
+        }
+        this.pool = pool;
+        this.timestep = timestep;
+    }
+
+    /**
+     * Adds a lot to the host.
+     * @param tickBudget Ticks the lot runs per round
+     */
+    public void addLot(String name, HeadlessSimulation simulation, int tickBudget) {
+        if (tickBudget < 1) {
+            throw new IllegalArgumentException("Tick budget must be positive");
+        }
+        simulation.getSimulationEngine().setUpdatePool(pool);
+        lots.add(new Lot(name, simulation, tickBudget));
+    }
+
+    /**
+     * Runs the given number of rounds.
+     * @return Wall-clock time spent, in nanoseconds
+     */
+    public long runRounds(long rounds) {
+        long start = System.nanoTime();
+        for (long r = 0; r < rounds; r++) {
+            pool.invoke(new RoundTask());
+        }
+        return System.nanoTime() - start;
+    }
+
+    /**
+     * Forks one task per lot and waits for all of them; idle workers steal
+     * lots from busy ones.
+     */
+    private class RoundTask extends RecursiveAction {
+        @Override
+        protected void compute() {
+            List<LotTask> tasks = new ArrayList<>(lots.size());
+            for (Lot lot : lots) {
+                tasks.add(new LotTask(lot));
+            }
+            invokeAll(tasks);
+        }
+    }
+
+    private class LotTask extends RecursiveAction {
+        private final Lot lot;
+
+        LotTask(Lot lot) {
+            this.lot = lot;
+        }
+
+        @Override
+        protected void compute() {
+            // Only this task touches the lot during a round
+            lot.busyNanos += lot.simulation.run(lot.tickBudget, timestep);
+            lot.ticks += lot.tickBudget;
+        }
+    }
+
+    public static void main(String[] args) {
+        System.setProperty("java.awt.headless", "true");
+
+        int lotCount = DEFAULT_LOTS;
+        int aiVehicles = DEFAULT_AI_VEHICLES;
+        double duration = DEFAULT_DURATION;
+        double timestep = DEFAULT_TIMESTEP;
+        int tickBudget = DEFAULT_TICK_BUDGET;
+        int threads = Runtime.getRuntime().availableProcessors();
+        long seed = DEFAULT_SEED;
+
+        for (int i = 0; i < args.length; i++) {
+            String option = args[i];
+            if (i + 1 >= args.length) {
+                usage("Missing value for " + option);
+                return;
+            }
+            String value = args[++i];
+            switch (option) {
+                case "--lots":
+                    lotCount = Integer.parseInt(value);
+                    break;
+                case "--vehicles":
+                    aiVehicles = Integer.parseInt(value);
+                    break;
+                case "--duration":
+                    duration = Double.parseDouble(value);
+                    break;
+                case "--dt":
+                    timestep = Double.parseDouble(value);
+                    break;
+                case "--budget":
+                    tickBudget = Integer.parseInt(value);
+                    break;
+                case "--threads":
+                    threads = Integer.parseInt(value);
+                    break;
+                case "--seed":
+                    seed = Long.parseLong(value);
+                    break;
+                default:
+                    usage("Unknown option " + option);
+                    return;
+            }
+        }
+
+        if (lotCount < 1 || aiVehicles < 0 || duration <= 0 || timestep <= 0
+                || tickBudget < 1 || threads < 1) {
+            usage("Counts, duration, timestep and budget must be positive");
+            return;
+        }
+
+        // Every lot gets its own seed derived from the run's root seed
+        SimulationRandom random = new SimulationRandom(seed);
+        MultiLotHost host = new MultiLotHost(new ForkJoinPool(threads), timestep);
+        for (int i = 0; i < lotCount; i++) {
+            long lotSeed = random.forSubsystem("lot-" + i).nextLong();
+            host.addLot("LOT-" + (i + 1), new HeadlessSimulation(aiVehicles, lotSeed), tickBudget);
+        }
+
+        long rounds = (long) Math.ceil(duration / (timestep * tickBudget));
+        System.out.println("Starting multi-lot host...");
+        System.out.printf("Lots: %d, vehicles per lot: %d, threads: %d, seed: %d%n",
+            lotCount, aiVehicles, threads, seed);
+
+        long elapsedNanos = host.runRounds(rounds);
+        host.printSummary(elapsedNanos);
+        host.pool.shutdown();
+    }
+
+    private void printSummary(long elapsedNanos) {
+        double wallSeconds = elapsedNanos / 1e9;
+        long totalTicks = 0;
+        long vehicleTicks = 0;
+
+        System.out.println("Lot        ticks   busy s   ticks/s  checksum");
+        for (Lot lot : lots) {
+            int vehicles = lot.simulation.getSimulationEngine().getVehicles().size();
+            totalTicks += lot.ticks;
+            vehicleTicks += lot.ticks * vehicles;
+            System.out.printf("%-8s %8d %8.3f %9.0f  %016x%n",
+                lot.name, lot.ticks, lot.busyNanos / 1e9,
+                lot.ticks / (lot.busyNanos / 1e9), lot.simulation.stateChecksum());
+        }
+
+        System.out.println("Simulation ended");
+        System.out.printf("Wall time: %.3f s%n", wallSeconds);
+        System.out.printf("Aggregate: %.0f ticks/s, %.0f vehicle-ticks/s, %.1fx real time summed over lots%n",
+            totalTicks / wallSeconds, vehicleTicks / wallSeconds, totalTicks * timestep / wallSeconds);
+    }
+
+    private static void usage(String error) {
+        System.err.println(error);
+        System.err.println("Usage: MultiLotHost [--lots n] [--vehicles n] [--duration seconds]"
+            + " [--dt seconds] [--budget ticks] [--threads n] [--seed n]");
+    }
+}
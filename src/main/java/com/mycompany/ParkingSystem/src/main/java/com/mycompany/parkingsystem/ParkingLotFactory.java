@@ -0,0 +1,165 @@
+package com.mycompany.parkingsystem;
+
+import com.mycompany.parkingsystem.model.ParkingSpace;
+import com.mycompany.parkingsystem.model.ParkingSpaceType;
+import com.mycompany.parkingsystem.model.Vehicle;
+import com.mycompany.parkingsystem.simulation.SimulationRandom;
+
+import java.awt.Color;
+import java.awt.geom.Point2D;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Builds the default parking lot layout and vehicle fleet. Has no Swing
+ * dependencies so it can be shared by the interactive and headless runners.
+ */
+public class ParkingLotFactory {
+    // Section constants
+    private static final double STANDARD_WIDTH = 2.5;
+    private static final double STANDARD_LENGTH = 5.0;
+    private static final double COMPACT_WIDTH = 2.0;
+    private static final double COMPACT_LENGTH = 4.0;
+    private static final double DISABLED_WIDTH = 3.5;
+    private static final double DISABLED_LENGTH = 5.0;
+
+    private final SimulationRandom random;
+
+    /**
+     * @param random Root of the run's randomness; the layout, the fleet and
+     *               each vehicle draw from their own derived streams
+     */
+    public ParkingLotFactory(SimulationRandom random) {
+        this.random = random;
+    }
+
+    /**
+     * Creates the parking spaces and obstacles of the default lot, with a
+     * random initial occupancy.
+     */
+    public List<ParkingSpace> createParkingSpaces() {
+        List<ParkingSpace> parkingSpaces = new ArrayList<>();
+        SplittableRandom rand = random.forSubsystem("lot");
+        int spaceCounter = 1; // For generating unique IDs
+
+        // Section 1: Standard perpendicular parking (right side)
+        spaceCounter = createParkingSection(parkingSpaces, rand, 100, 200, 8, 25,
+                                            STANDARD_WIDTH, STANDARD_LENGTH,
+                                            ParkingSpaceType.PERPENDICULAR, 90, spaceCounter);
+
+        // Section 2: Parallel parking (top)
+        spaceCounter = createParkingSection(parkingSpaces, rand, 100, 50, 5, 50,
+                                            STANDARD_WIDTH, STANDARD_LENGTH + 1.0, // Longer for parallel
+                                            ParkingSpaceType.PARALLEL, 0, spaceCounter);
+
+        // Section 3: Angled parking (left side)
+        spaceCounter = createParkingSection(parkingSpaces, rand, 100, 300, 6, 30,
+                                            STANDARD_WIDTH, STANDARD_LENGTH,
+                                            ParkingSpaceType.ANGLE, 45, spaceCounter);
+
+        // Section 4: Compact car parking (bottom)
+        spaceCounter = createParkingSection(parkingSpaces, rand, 100, 500, 10, 20,
+                                            COMPACT_WIDTH, COMPACT_LENGTH,
+                                            ParkingSpaceType.COMPACT, 90, spaceCounter);
+
+        // Section 5: Disabled parking spaces
+        for (int i = 0; i < 3; i++) {
+            ParkingSpace space = new ParkingSpace(
+                new Point2D.Double(400 + i * 35, 150),
+                DISABLED_WIDTH, DISABLED_LENGTH,
+                ParkingSpaceType.DISABLED,
+                "DIS-" + (spaceCounter++));
+            space.setOccupied(rand.nextDouble() > 0.7);
+            parkingSpaces.add(space);
+        }
+
+        // Add obstacles with proper IDs
+        parkingSpaces.add(new ParkingSpace(
+            new Point2D.Double(250, 250), 3.0, 3.0,
+            ParkingSpaceType.OBSTACLE,
+            "OBS-1"));
+        parkingSpaces.add(new ParkingSpace(
+            new Point2D.Double(600, 400), 4.0, 4.0,
+            ParkingSpaceType.OBSTACLE,
+            "OBS-2"));
+
+        return parkingSpaces;
+    }
+
+    private int createParkingSection(List<ParkingSpace> parkingSpaces, SplittableRandom rand,
+                                     double startX, double startY, int count, double spacing,
+                                     double width, double length, ParkingSpaceType type,
+                                     double angle, int startId) {
+        String prefix = type.name().substring(0, 3) + "-";
+
+        for (int i = 0; i < count; i++) {
+            ParkingSpace space = new ParkingSpace(
+                new Point2D.Double(startX + i * spacing, startY),
+                width, length,
+                type,
+                prefix + (startId + i));
+            space.setAngle(angle);
+            space.setOccupied(rand.nextDouble() > 0.5);
+            parkingSpaces.add(space);
+        }
+
+        return startId + count;
+    }
+
+    /**
+     * Creates the vehicle fleet.
+     * @param parkingSpaces Spaces used to pick initial parking targets
+     * @param aiVehicleCount Number of AI-controlled vehicles
+     * @param includeUserVehicle Whether to add a user-controlled vehicle first
+     */
+    public List<Vehicle> createVehicles(List<ParkingSpace> parkingSpaces, int aiVehicleCount,
+                                        boolean includeUserVehicle) {
+        List<Vehicle> vehicles = new ArrayList<>();
+        SplittableRandom rand = random.forSubsystem("fleet");
+        // A plain list: an index would stay attached to the spaces after this returns
+        List<ParkingSpace> freeSpaces = new ArrayList<>();
+        for (ParkingSpace space : parkingSpaces) {
+            if (!space.isOccupied() && space.getType() != ParkingSpaceType.OBSTACLE) {
+                freeSpaces.add(space);
+            }
+        }
+
+        // Add user-controlled vehicle
+        if (includeUserVehicle) {
+            Vehicle userVehicle = new Vehicle(new Point2D.Double(50, 150), 4.5, 1.8,
+                                              random.forVehicle(vehicles.size()));
+            userVehicle.setUserControlled(true);
+            userVehicle.setColor(new Color(94, 129, 172)); // Blue color for user vehicle
+            vehicles.add(userVehicle);
+        }
+
+        // Add AI-controlled vehicles with different types
+        for (int i = 0; i < aiVehicleCount; i++) {
+            double x = 200 + rand.nextInt(600);
+            double y = 100 + rand.nextInt(600);
+
+            // Random vehicle sizes
+            double vehicleLength = 4.0 + rand.nextDouble() * 1.5; // 4.0-5.5m
+            double vehicleWidth = 1.7 + rand.nextDouble() * 0.5;  // 1.7-2.2m
+
+            Vehicle aiVehicle = new Vehicle(new Point2D.Double(x, y), vehicleLength, vehicleWidth,
+                                            random.forVehicle(vehicles.size()));
+            aiVehicle.setColor(new Color(
+                150 + rand.nextInt(100), // R
+                50 + rand.nextInt(100),  // G
+                50 + rand.nextInt(100)   // B
+            ));
+
+            // Set different behaviors
+            if (rand.nextBoolean()) {
+                aiVehicle.setTargetParkingSpace(
+                    freeSpaces.isEmpty() ? null : freeSpaces.get(rand.nextInt(freeSpaces.size())));
+            }
+
+            vehicles.add(aiVehicle);
+        }
+
+        return vehicles;
+    }
+}
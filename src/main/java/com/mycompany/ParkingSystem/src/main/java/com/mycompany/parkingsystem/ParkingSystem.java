@@ -4,12 +4,21 @@ import com.mycompany.parkingsystem.model.Vehicle;
 import com.mycompany.parkingsystem.model.ParkingSpaceType;
 import com.mycompany.parkingsystem.algorithm.ParkingAlgorithm;
 import com.mycompany.parkingsystem.visualization.ParkingVisualization;
+import com.mycompany.parkingsystem.simulation.OccupancyEventChannel;
 import com.mycompany.parkingsystem.simulation.SimulationEngine;
+import com.mycompany.parkingsystem.simulation.SimulationRandom;
+import com.mycompany.parkingsystem.simulation.SimulationRunner;
+import com.mycompany.parkingsystem.simulation.SnapshotExchange;
+import com.mycompany.parkingsystem.simulation.TrajectoryPlayer;
 import com.mycompany.parkingsystem.controller.VehicleController;
 import com.mycompany.parkingsystem.controller.KeyboardController;
 import java.awt.Color;
+import java.awt.event.KeyAdapter;
+import java.awt.event.KeyEvent;
 
 import java.awt.geom.Point2D;
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.*;
 import javax.swing.JFrame;
 import javax.swing.SwingUtilities;
@@ -20,211 +29,126 @@ public class ParkingSystem {
     private static final long FRAME_TIME_MS = 1000 / SIMULATION_FPS;
     private static final int PARKING_LOT_WIDTH = 1000;
     private static final int PARKING_LOT_HEIGHT = 800;
+    private static final int AI_VEHICLE_COUNT = 5;
+    private static final double[] TIME_SCALES = {1, 10, 100}; // picked with keys 1-3
     
     // Main components
     private List<ParkingSpace> parkingSpaces;
     private List<Vehicle> vehicles;
     private SimulationEngine simulationEngine;
-    private ParkingVisualization visualization;
+    private final SnapshotExchange snapshots;
+    private final SimulationRunner simulationRunner;
     private JFrame visualizationFrame;
+    private final SimulationRandom random;
     
-    public ParkingSystem() {
+    /**
+     * @param seed Root seed; the same seed reproduces the same run
+     */
+    public ParkingSystem(long seed) {
+        random = new SimulationRandom(seed);
+        
         // Initialize components
-        initializeParkingLot();
-        initializeVehicles();
+        ParkingLotFactory lotFactory = new ParkingLotFactory(random);
+        parkingSpaces = lotFactory.createParkingSpaces();
+        vehicles = lotFactory.createVehicles(parkingSpaces, AI_VEHICLE_COUNT, true);
         
         // Create the simulation engine with collision detection
         simulationEngine = new SimulationEngine(parkingSpaces, vehicles);
         simulationEngine.setParkingLotDimensions(PARKING_LOT_WIDTH, PARKING_LOT_HEIGHT);
         
+        // Wire the keyboard controller before the simulation thread owns the engine
+        Vehicle userVehicle = vehicles.stream()
+            .filter(Vehicle::isUserControlled)
+            .findFirst()
+            .orElse(null);
+        KeyboardController keyboardController = userVehicle != null ? new KeyboardController(userVehicle) : null;
+        if (keyboardController != null) {
+            simulationEngine.setUserController(keyboardController);
+        }
+        
+        // The simulation thread publishes snapshots; the renderer only reads those,
+        // plus the occupancy events it subscribes to before the thread starts
+        snapshots = new SnapshotExchange();
+        OccupancyEventChannel.Subscription occupancyFeed = simulationEngine.getOccupancyEvents().subscribe();
+        simulationRunner = new SimulationRunner(simulationEngine, snapshots, 1.0 / SIMULATION_FPS);
+        
         // Create visualization
+        long renderSeed = random.forSubsystem("visualization").nextLong();
         SwingUtilities.invokeLater(() -> {
-            visualizationFrame = ParkingVisualization.createAndShowGUI(parkingSpaces, vehicles);
-            visualization = (ParkingVisualization)visualizationFrame.getContentPane().getComponent(0);
+            visualizationFrame = ParkingVisualization.createAndShowGUI(parkingSpaces, snapshots, occupancyFeed,
+                renderSeed);
             
-            // Add keyboard controller for user-controlled vehicle
-            Vehicle userVehicle = vehicles.stream()
-                .filter(Vehicle::isUserControlled)
-                .findFirst()
-                .orElse(null);
-                
-            if (userVehicle != null) {
-                KeyboardController keyboardController = new KeyboardController(userVehicle);
+            if (keyboardController != null) {
                 visualizationFrame.addKeyListener(keyboardController);
-                visualizationFrame.setFocusable(true);
-                visualizationFrame.requestFocus();
-                
-                // Add controller to simulation engine
-                simulationEngine.setUserController(keyboardController);
             }
-        });
-    }
-    
-    private void initializeParkingLot() {
-        parkingSpaces = new ArrayList<>();
-    Random rand = new Random();
-    int spaceCounter = 1; // For generating unique IDs
-    
-    // Section constants
-    final double STANDARD_WIDTH = 2.5;
-    final double STANDARD_LENGTH = 5.0;
-    final double COMPACT_WIDTH = 2.0;
-    final double COMPACT_LENGTH = 4.0;
-    final double DISABLED_WIDTH = 3.5;
-    final double DISABLED_LENGTH = 5.0;
-    
-    // Section 1: Standard perpendicular parking (right side)
-    spaceCounter = createParkingSection(100, 200, 8, 25, 
-                                      STANDARD_WIDTH, STANDARD_LENGTH, 
-                                      ParkingSpaceType.PERPENDICULAR, 90, spaceCounter);
-    
-    // Section 2: Parallel parking (top)
-    spaceCounter = createParkingSection(100, 50, 5, 50, 
-                                      STANDARD_WIDTH, STANDARD_LENGTH + 1.0, // Longer for parallel
-                                      ParkingSpaceType.PARALLEL, 0, spaceCounter);
-    
-    // Section 3: Angled parking (left side)
-    spaceCounter = createParkingSection(100, 300, 6, 30, 
-                                      STANDARD_WIDTH, STANDARD_LENGTH, 
-                                      ParkingSpaceType.ANGLE, 45, spaceCounter);
-    
-    // Section 4: Compact car parking (bottom)
-    spaceCounter = createParkingSection(100, 500, 10, 20, 
-                                      COMPACT_WIDTH, COMPACT_LENGTH, 
-                                      ParkingSpaceType.COMPACT, 90, spaceCounter);
-    
-    // Section 5: Disabled parking spaces
-    for (int i = 0; i < 3; i++) {
-        ParkingSpace space = new ParkingSpace(
-            new Point2D.Double(400 + i * 35, 150), 
-            DISABLED_WIDTH, DISABLED_LENGTH, 
-            ParkingSpaceType.DISABLED,
-            "DIS-" + (spaceCounter++));
-        space.setOccupied(rand.nextDouble() > 0.7);
-        parkingSpaces.add(space);
-    }
-    
-    // Add obstacles with proper IDs
-    parkingSpaces.add(new ParkingSpace(
-        new Point2D.Double(250, 250), 3.0, 3.0, 
-        ParkingSpaceType.OBSTACLE,
-        "OBS-1"));
-    parkingSpaces.add(new ParkingSpace(
-        new Point2D.Double(600, 400), 4.0, 4.0, 
-        ParkingSpaceType.OBSTACLE,
-        "OBS-2"));
-    }
-    
-   private int createParkingSection(double startX, double startY, int count, double spacing, 
-                              double width, double length, ParkingSpaceType type, 
-                              double angle, int startId) {
-    Random rand = new Random();
-    String prefix = type.name().substring(0, 3) + "-";
-    
-    for (int i = 0; i < count; i++) {
-        ParkingSpace space = new ParkingSpace(
-            new Point2D.Double(startX + i * spacing, startY), 
-            width, length, 
-            type,
-            prefix + (startId + i));
-        space.setAngle(angle);
-        space.setOccupied(rand.nextDouble() > 0.5);
-        parkingSpaces.add(space);
-    }
-    
-    return startId + count;
-}
-    
-    private void initializeVehicles() {
-        vehicles = new ArrayList<>();
-        Random rand = new Random();
-        
-        // Add user-controlled vehicle
-        Vehicle userVehicle = new Vehicle(new Point2D.Double(50, 150), 4.5, 1.8);
-        userVehicle.setUserControlled(true);
-        userVehicle.setColor(new Color(94, 129, 172)); // Blue color for user vehicle
-        vehicles.add(userVehicle);
-        
-        // Add AI-controlled vehicles with different types
-        for (int i = 0; i < 5; i++) {
-            double x = 200 + rand.nextInt(600);
-            double y = 100 + rand.nextInt(600);
-            
-            // Random vehicle sizes
-            double vehicleLength = 4.0 + rand.nextDouble() * 1.5; // 4.0-5.5m
-            double vehicleWidth = 1.7 + rand.nextDouble() * 0.5;  // 1.7-2.2m
-            
-            Vehicle aiVehicle = new Vehicle(new Point2D.Double(x, y), vehicleLength, vehicleWidth);
-            aiVehicle.setColor(new Color(
-                150 + rand.nextInt(100), // R
-                50 + rand.nextInt(100),  // G
-                50 + rand.nextInt(100)   // B
-            ));
             
-            // Set different behaviors
-            if (rand.nextBoolean()) {
-                aiVehicle.setTargetParkingSpace(findRandomAvailableSpace());
-            }
-            
-            vehicles.add(aiVehicle);
-        }
-    }
-    
-    private ParkingSpace findRandomAvailableSpace() {
-        List<ParkingSpace> available = parkingSpaces.stream()
-            .filter(space -> !space.isOccupied() && space.getType() != ParkingSpaceType.OBSTACLE)
-            .toList();
-            
-        if (available.isEmpty()) return null;
-        return available.get(new Random().nextInt(available.size()));
+            // Number keys fast-forward the simulation
+            visualizationFrame.addKeyListener(new KeyAdapter() {
+                @Override
+                public void keyPressed(KeyEvent e) {
+                    int preset = e.getKeyCode() - KeyEvent.VK_1;
+                    if (preset >= 0 && preset < TIME_SCALES.length) {
+                        simulationRunner.setTimeScale(TIME_SCALES[preset]);
+                    }
+                }
+            });
+            visualizationFrame.setFocusable(true);
+            visualizationFrame.requestFocus();
+        });
     }
     
     public void start() {
         System.out.println("Starting enhanced parking simulation...");
         System.out.println("Parking spaces: " + parkingSpaces.size());
         System.out.println("Vehicles: " + vehicles.size());
+        System.out.println("Seed: " + random.getSeed());
         
-        // Wait for visualization to initialize
-        while (visualization == null) {
-            try {
-                Thread.sleep(100);
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-            }
+        // Runs until the window is closed, which exits the JVM
+        simulationRunner.start();
+        try {
+            simulationRunner.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            simulationRunner.stop();
         }
         
-        // Main simulation loop with fixed timestep
-        long lastTime = System.nanoTime();
-        double deltaTime = 0;
-        double nsPerUpdate = 1000000000.0 / SIMULATION_FPS;
-        
-        while (visualizationFrame != null && visualizationFrame.isVisible()) {
-            long now = System.nanoTime();
-            deltaTime += (now - lastTime) / nsPerUpdate;
-            lastTime = now;
-            
-            while (deltaTime >= 1) {
-                // Update simulation with fixed timestep
-                simulationEngine.update(1.0 / SIMULATION_FPS);
-                deltaTime--;
-            }
-            
-            // Update visualization (independent of simulation rate)
-            visualization.updateSimulation(vehicles, parkingSpaces);
-            
-            // Sleep to prevent CPU overuse
-            try {
-                Thread.sleep(1);
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-            }
+        System.out.println("Simulation ended");
+    }
+    
+    /**
+     * Opens a trajectory recording in the replay viewer. The layout is rebuilt
+     * from the seed of the recorded run.
+     */
+    public static void replay(Path recording, long seed) throws IOException {
+        TrajectoryPlayer player = new TrajectoryPlayer(recording);
+        SimulationRandom random = new SimulationRandom(seed);
+        List<ParkingSpace> spaces = new ParkingLotFactory(random).createParkingSpaces();
+        if (spaces.size() != player.getSpaceCount()) {
+            player.close();
+            throw new IOException("Recording was made on a different lot; check the seed");
         }
         
-        System.out.println("Simulation ended");
+        System.out.println("Replaying " + recording);
+        System.out.printf("Vehicles: %d, duration: %.1f s%n", player.getVehicleCount(), player.getDuration());
+        long renderSeed = random.forSubsystem("visualization").nextLong();
+        SwingUtilities.invokeLater(() -> ParkingVisualization.createAndShowReplay(spaces, player, renderSeed));
     }
     
     public static void main(String[] args) {
-        ParkingSystem parkingSystem = new ParkingSystem();
+        // "--replay file [seed]" views a recording made with HeadlessSimulation --record
+        if (args.length > 1 && args[0].equals("--replay")) {
+            long seed = args.length > 2 ? Long.parseLong(args[2]) : 42;
+            try {
+                replay(Path.of(args[1]), seed);
+            } catch (IOException e) {
+                System.err.println("Cannot replay: " + e.getMessage());
+            }
+            return;
+        }
+        
+        // Optional first argument fixes the seed so a run can be reproduced
+        long seed = args.length > 0 ? Long.parseLong(args[0]) : System.currentTimeMillis();
+        ParkingSystem parkingSystem = new ParkingSystem(seed);
         parkingSystem.start();
     }
 }
\ No newline at end of file
@@ -0,0 +1,201 @@
+package com.mycompany.parkingsystem.algorithm;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Minimum-cost assignment of bidders to objects with the auction algorithm,
+ * over a sparse list of allowed (bidder, object, cost) candidates.
+ *
+ * Every bidder also has a private way out at a fixed cost, so the problem is
+ * always feasible: a bidder ends up with an object, or with nothing when
+ * every object it could take is worth more to the others than the way out.
+ * No object is ever given to two bidders.
+ *
+ * The solver runs Jacobi rounds: every unassigned bidder bids on its best
+ * object at the current prices, raising the price by how much better that
+ * object is than its second choice plus epsilon, then each object goes to
+ * its highest bid and the outbid owner bids again next round. Bids within a
+ * round only read prices, so they can be computed in parallel; resolving
+ * them is serial and in bidder order, so the result is the same for any pool.
+ * The total cost is within {@code bidders * epsilon} of the optimum.
+ */
+public class AuctionAssignment {
+    /** Assignment of a bidder that takes its way out. */
+    public static final int UNASSIGNED = -1;
+
+    private static final int PARALLEL_BATCH_SIZE = 256; // bidders per fork/join leaf task
+
+    private final int[] candidateStart;
+    private final int[] candidateObject;
+    private final double[] candidateCost;
+    private final int bidderCount;
+    private final int objectCount;
+    private final double unassignedCost;
+    private final double epsilon;
+
+    /**
+     * @param candidateStart Bidder i's candidates are at positions
+     *     {@code candidateStart[i]} to {@code candidateStart[i + 1]} - 1
+     * @param candidateObject Object of each candidate, in [0, objectCount)
+     * @param candidateCost Cost of each candidate
+     * @param unassignedCost Cost of a bidder getting no object
+     * @param epsilon Smallest price step, larger is faster but less exact
+     */
+    public AuctionAssignment(int[] candidateStart, int[] candidateObject, double[] candidateCost,
+                             int objectCount, double unassignedCost, double epsilon) {
+        if (candidateStart.length == 0 || candidateObject.length != candidateCost.length) {
+            throw new IllegalArgumentException("Candidate arrays don't match");
+        }
+        if (!(epsilon > 0) || !Double.isFinite(unassignedCost)) {
+            throw new IllegalArgumentException("Epsilon must be positive and the unassigned cost finite");
+        }
+        this.candidateStart = candidateStart;
+        this.candidateObject = candidateObject;
+        this.candidateCost = candidateCost;
+        this.bidderCount = candidateStart.length - 1;
+        this.objectCount = objectCount;
+        this.unassignedCost = unassignedCost;
+        this.epsilon = epsilon;
+    }
+
+    /**
+     * Solves the assignment.
+     * @param pool Pool for computing bids of large rounds, or null to stay serial
+     * @return Object of every bidder, or {@link #UNASSIGNED}
+     */
+    public int[] solve(ForkJoinPool pool) {
+        double[] price = new double[objectCount];
+        int[] owner = new int[objectCount];
+        Arrays.fill(owner, -1);
+        int[] assignment = new int[bidderCount];
+        Arrays.fill(assignment, UNASSIGNED);
+
+        // Highest bid per object in the current round
+        double[] bestBid = new double[objectCount];
+        int[] bestBidder = new int[objectCount];
+        Arrays.fill(bestBidder, -1);
+
+        int[] pending = new int[bidderCount];
+        for (int i = 0; i < bidderCount; i++) {
+            pending[i] = i;
+        }
+        int pendingCount = bidderCount;
+        int[] next = new int[bidderCount];
+        int[] bidObject = new int[bidderCount];
+        double[] bidPrice = new double[bidderCount];
+        int[] contested = new int[bidderCount];
+
+        while (pendingCount > 0) {
+            if (pool != null && pendingCount > PARALLEL_BATCH_SIZE) {
+                pool.invoke(new BidTask(pending, 0, pendingCount, price, bidObject, bidPrice));
+            } else {
+                computeBids(pending, 0, pendingCount, price, bidObject, bidPrice);
+            }
+
+            // Keep the highest bid on each object; ties go to the earlier bidder
+            int nextCount = 0;
+            int contestedCount = 0;
+            for (int k = 0; k < pendingCount; k++) {
+                int bidder = pending[k];
+                int object = bidObject[k];
+                if (object == UNASSIGNED) continue; // takes its way out for good
+                if (bestBidder[object] < 0) {
+                    contested[contestedCount++] = object;
+                    bestBidder[object] = bidder;
+                    bestBid[object] = bidPrice[k];
+                } else if (bidPrice[k] > bestBid[object]) {
+                    next[nextCount++] = bestBidder[object];
+                    bestBidder[object] = bidder;
+                    bestBid[object] = bidPrice[k];
+                } else {
+                    next[nextCount++] = bidder;
+                }
+            }
+
+            for (int c = 0; c < contestedCount; c++) {
+                int object = contested[c];
+                int previous = owner[object];
+                if (previous >= 0) {
+                    assignment[previous] = UNASSIGNED;
+                    next[nextCount++] = previous;
+                }
+                owner[object] = bestBidder[object];
+                assignment[bestBidder[object]] = object;
+                price[object] = bestBid[object];
+                bestBidder[object] = -1;
+            }
+
+            int[] swap = pending;
+            pending = next;
+            next = swap;
+            pendingCount = nextCount;
+        }
+        return assignment;
+    }
+
+    /**
+     * Computes the bid of each pending bidder at positions [from, to):
+     * its best object by cost plus price, or {@link #UNASSIGNED} if the way
+     * out is best, and the price it offers.
+     */
+    private void computeBids(int[] pending, int from, int to, double[] price,
+                             int[] bidObject, double[] bidPrice) {
+        for (int k = from; k < to; k++) {
+            int bidder = pending[k];
+            // Lowest and second lowest cost plus price, starting from the way out
+            int best = UNASSIGNED;
+            double bestValue = unassignedCost;
+            double secondValue = Double.POSITIVE_INFINITY;
+            for (int c = candidateStart[bidder]; c < candidateStart[bidder + 1]; c++) {
+                int object = candidateObject[c];
+                double value = candidateCost[c] + price[object];
+                if (value < bestValue) {
+                    secondValue = bestValue;
+                    bestValue = value;
+                    best = object;
+                } else if (value < secondValue) {
+                    secondValue = value;
+                }
+            }
+            bidObject[k] = best;
+            if (best != UNASSIGNED) {
+                bidPrice[k] = price[best] + (secondValue - bestValue) + epsilon;
+            }
+        }
+    }
+
+    /**
+     * Splits a round's pending bidders into ranges for the fork/join pool.
+     */
+    private class BidTask extends RecursiveAction {
+        private final int[] pending;
+        private final int from;
+        private final int to;
+        private final double[] price;
+        private final int[] bidObject;
+        private final double[] bidPrice;
+
+        BidTask(int[] pending, int from, int to, double[] price, int[] bidObject, double[] bidPrice) {
+            this.pending = pending;
+            this.from = from;
+            this.to = to;
+            this.price = price;
+            this.bidObject = bidObject;
+            this.bidPrice = bidPrice;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= PARALLEL_BATCH_SIZE) {
+                computeBids(pending, from, to, price, bidObject, bidPrice);
+                return;
+            }
+
+            int middle = (from + to) >>> 1;
+            invokeAll(new BidTask(pending, from, middle, price, bidObject, bidPrice),
+                      new BidTask(pending, middle, to, price, bidObject, bidPrice));
+        }
+    }
+}
@@ -0,0 +1,315 @@
+package com.mycompany.parkingsystem.algorithm;
+
+import java.util.Arrays;
+
+/**
+ * Signed Euclidean distance field over an {@link OccupancyGrid}.
+ *
+ * Every free cell keeps the nearest occupied cell and every occupied cell
+ * the nearest free one. They come from the exact linear-time transform of
+ * Felzenszwalb and Huttenlocher: nearest cells along each row first, then a
+ * lower envelope of parabolas down each column. Only cells within
+ * {@code maxDistance} are kept, which bounds how far a change can reach, so
+ * when grid cells flip only the cells within that distance of them are
+ * transformed again, the next time the field is read. Work is done in tiles
+ * whose input is the tile grown by the same distance.
+ *
+ * {@link #clearance} is O(1) and is what the planner and the collision
+ * check read instead of searching the grid. {@link #isClear} answers their
+ * actual question, whether a circle fits, from the point's own cell alone
+ * unless the circle's edge falls within a cell or so of an obstacle.
+ * Not thread-safe.
+ */
+public class DistanceField implements HybridAStarPlanner.ClearanceMap {
+    private static final int NONE = -1;
+    private static final int TILE = 64; // cells per side of one transform window
+
+    private final OccupancyGrid grid;
+    private final double maxDistance;
+    private final double clearanceCap;
+    private final int columns;
+    private final int rows;
+    private final int reach; // maxDistance in whole cells
+    private final int[] nearest; // cell of the other kind nearest to each cell, NONE past maxDistance
+
+    // Cell boxes (min column, min row, max column, max row) that flipped since the last refresh
+    private final int[] dirtyBoxes = new int[4 * 64];
+    private int dirtyCount = 0;
+
+    // Scratch for one window: nearest column along each row, then one column's envelope
+    private final int[] rowNearest;
+    private final int[] squared;
+    private final int[] envelope;
+    private final double[] boundaries;
+
+    /**
+     * Builds the field for the grid's current cells and follows its changes
+     * from then on.
+     * @param maxDistance Distance in meters past which cells only record
+     *     that nothing is nearer, at least one cell diagonal
+     */
+    public DistanceField(OccupancyGrid grid, double maxDistance) {
+        double resolution = grid.getResolution();
+        if (!(maxDistance >= resolution * Math.sqrt(2))) {
+            throw new IllegalArgumentException("Maximum distance must cover at least one cell diagonal");
+        }
+        this.grid = grid;
+        this.maxDistance = maxDistance;
+        this.clearanceCap = maxDistance - resolution * Math.sqrt(2);
+        this.columns = grid.getColumns();
+        this.rows = grid.getRows();
+        this.reach = (int) Math.ceil(maxDistance / resolution);
+        this.nearest = new int[columns * rows];
+
+        int span = TILE + 2 * reach;
+        this.rowNearest = new int[span * span];
+        this.squared = new int[span];
+        this.envelope = new int[span];
+        this.boundaries = new double[span + 1];
+
+        transform(0, 0, columns - 1, rows - 1);
+        grid.addChangeListener(this::markDirty);
+    }
+
+    public OccupancyGrid getGrid() {
+        return grid;
+    }
+
+    public double getMaxDistance() {
+        return maxDistance;
+    }
+
+    /**
+     * Returns the distance between the centers of a cell and the nearest
+     * cell of the other kind, negative inside obstacles and capped at
+     * the maximum distance either way. Cells outside the grid read 0.
+     */
+    public double getSignedDistance(int column, int row) {
+        if (!grid.isInside(column, row)) return 0;
+        if (dirtyCount > 0) refresh();
+        int cell = row * columns + column;
+        double sign = grid.isOccupied(column, row) ? -1 : 1;
+        int other = nearest[cell];
+        if (other == NONE) return sign * maxDistance;
+        double dx = other % columns - column;
+        double dy = other / columns - row;
+        return sign * Math.min(maxDistance, Math.sqrt(dx * dx + dy * dy) * grid.getResolution());
+    }
+
+    /**
+     * Returns the distance from (x, y) to the nearest occupied cell's square,
+     * capped at the maximum distance less one cell diagonal. Inside obstacles
+     * it is the negated distance to the nearest free cell's square. The
+     * nearest cells of the point's own cell and the eight around it are
+     * checked, since the one nearest to a cell's center need not be the one
+     * nearest to every point in it. Points outside the grid read 0.
+     */
+    @Override
+    public double clearance(double x, double y) {
+        int column = grid.column(x);
+        int row = grid.row(y);
+        if (!grid.isInside(column, row)) return 0;
+        if (dirtyCount > 0) refresh();
+        boolean occupied = grid.isOccupied(column, row);
+        if (!occupied && nearest[row * columns + column] == NONE) {
+            return clearanceCap; // nothing within the maximum distance of the center, so of any point past the cap
+        }
+        double squared = clearanceCap * clearanceCap;
+        for (int r = Math.max(0, row - 1); r <= Math.min(rows - 1, row + 1); r++) {
+            for (int c = Math.max(0, column - 1); c <= Math.min(columns - 1, column + 1); c++) {
+                int cell = r * columns + c;
+                int other = grid.isOccupied(c, r) != occupied ? cell : nearest[cell];
+                if (other == NONE) continue;
+                double candidate = squareDistanceSquared(x, y, other);
+                if (candidate < squared) squared = candidate;
+            }
+        }
+        double distance = Math.sqrt(squared);
+        return occupied ? -distance : distance;
+    }
+
+    /**
+     * Returns whether {@link #clearance} at (x, y) is at least the radius.
+     * The own cell's nearest obstacle cell settles it when that cell's
+     * square is inside the radius, or when its center is far enough that no
+     * obstacle square can reach within the radius of the point; only the
+     * band in between reads the eight cells around, and stops at the first
+     * one inside the radius.
+     */
+    @Override
+    public boolean isClear(double x, double y, double radius) {
+        if (radius > clearanceCap) return false;
+        int column = grid.column(x);
+        int row = grid.row(y);
+        if (!grid.isInside(column, row) || grid.isOccupied(column, row)) return clearance(x, y) >= radius;
+        if (dirtyCount > 0) refresh();
+        int other = nearest[row * columns + column];
+        if (other == NONE) return true;
+        double radiusSquared = radius * radius;
+        if (squareDistanceSquared(x, y, other) < radiusSquared) return false;
+
+        // Every obstacle cell's center is at least as far from this cell's
+        // center as that one, so its square is at least that far less the
+        // point's offset from the center and half a cell diagonal
+        double resolution = grid.getResolution();
+        int otherRow = other / columns;
+        double dx = (other - otherRow * columns - column) * resolution;
+        double dy = (otherRow - row) * resolution;
+        double offsetX = x - (column + 0.5) * resolution;
+        double offsetY = y - (row + 0.5) * resolution;
+        double bound = Math.sqrt(dx * dx + dy * dy) - Math.sqrt(offsetX * offsetX + offsetY * offsetY)
+            - resolution * Math.sqrt(0.5);
+        if (bound >= radius) return true;
+
+        for (int r = Math.max(0, row - 1); r <= Math.min(rows - 1, row + 1); r++) {
+            for (int c = Math.max(0, column - 1); c <= Math.min(columns - 1, column + 1); c++) {
+                int cell = r * columns + c;
+                int obstacle = grid.isOccupied(c, r) ? cell : nearest[cell];
+                if (obstacle != NONE && squareDistanceSquared(x, y, obstacle) < radiusSquared) return false;
+            }
+        }
+        return true;
+    }
+
+    // Squared distance from a point to a cell's square, zero inside it
+    private double squareDistanceSquared(double x, double y, int cell) {
+        double resolution = grid.getResolution();
+        int row = cell / columns;
+        double minX = (cell - row * columns) * resolution;
+        double minY = row * resolution;
+        double dx = x < minX ? minX - x : x > minX + resolution ? x - minX - resolution : 0;
+        double dy = y < minY ? minY - y : y > minY + resolution ? y - minY - resolution : 0;
+        return dx * dx + dy * dy;
+    }
+
+    /**
+     * Transforms the cells around every change since the last refresh.
+     * Called by the reads.
+     */
+    public void refresh() {
+        for (int b = 0; b < dirtyCount * 4; b += 4) {
+            transform(Math.max(0, dirtyBoxes[b] - reach), Math.max(0, dirtyBoxes[b + 1] - reach),
+                      Math.min(columns - 1, dirtyBoxes[b + 2] + reach), Math.min(rows - 1, dirtyBoxes[b + 3] + reach));
+        }
+        dirtyCount = 0;
+    }
+
+    private void markDirty(int minColumn, int minRow, int maxColumn, int maxRow) {
+        if (dirtyCount * 4 == dirtyBoxes.length) {
+            // Nobody has read the field for a while; catch up so the list stays bounded
+            refresh();
+        }
+        int b = dirtyCount++ * 4;
+        dirtyBoxes[b] = minColumn;
+        dirtyBoxes[b + 1] = minRow;
+        dirtyBoxes[b + 2] = maxColumn;
+        dirtyBoxes[b + 3] = maxRow;
+    }
+
+    // Recomputes the nearest cells of a box, one tile at a time
+    private void transform(int minColumn, int minRow, int maxColumn, int maxRow) {
+        for (int tileRow = minRow; tileRow <= maxRow; tileRow += TILE) {
+            for (int tileColumn = minColumn; tileColumn <= maxColumn; tileColumn += TILE) {
+                transformTile(tileColumn, tileRow,
+                              Math.min(maxColumn, tileColumn + TILE - 1), Math.min(maxRow, tileRow + TILE - 1));
+            }
+        }
+    }
+
+    /**
+     * Runs the transform over the tile grown by the reach, which holds every
+     * cell within the maximum distance of the tile, and writes the tile.
+     * Free cells take the pass towards occupied cells and occupied cells the
+     * pass towards free ones.
+     */
+    private void transformTile(int minColumn, int minRow, int maxColumn, int maxRow) {
+        int fromColumn = Math.max(0, minColumn - reach);
+        int fromRow = Math.max(0, minRow - reach);
+        int toColumn = Math.min(columns - 1, maxColumn + reach);
+        int toRow = Math.min(rows - 1, maxRow + reach);
+
+        boolean anyOccupied = false;
+        boolean anyFree = false;
+        for (int row = fromRow; row <= toRow && !(anyOccupied && anyFree); row++) {
+            for (int column = fromColumn; column <= toColumn; column++) {
+                if (grid.isOccupied(column, row)) {
+                    anyOccupied = true;
+                } else {
+                    anyFree = true;
+                }
+            }
+        }
+        if (!anyOccupied || !anyFree) {
+            // Nothing of the other kind is in reach of any cell
+            for (int row = minRow; row <= maxRow; row++) {
+                Arrays.fill(nearest, row * columns + minColumn, row * columns + maxColumn + 1, NONE);
+            }
+            return;
+        }
+        transformPass(true, fromColumn, fromRow, toColumn, toRow, minColumn, minRow, maxColumn, maxRow);
+        transformPass(false, fromColumn, fromRow, toColumn, toRow, minColumn, minRow, maxColumn, maxRow);
+    }
+
+    private void transformPass(boolean towardsOccupied, int fromColumn, int fromRow, int toColumn, int toRow,
+                               int minColumn, int minRow, int maxColumn, int maxRow) {
+        int width = toColumn - fromColumn + 1;
+        int height = toRow - fromRow + 1;
+
+        // Nearest source column along each row, from a sweep each way
+        for (int t = 0; t < height; t++) {
+            int row = fromRow + t;
+            int base = t * width;
+            int last = NONE;
+            for (int column = fromColumn; column <= toColumn; column++) {
+                if (grid.isOccupied(column, row) == towardsOccupied) last = column;
+                rowNearest[base + column - fromColumn] = last;
+            }
+            last = NONE;
+            for (int column = toColumn; column >= fromColumn; column--) {
+                if (grid.isOccupied(column, row) == towardsOccupied) last = column;
+                int current = rowNearest[base + column - fromColumn];
+                if (last != NONE && (current == NONE || last - column < column - current)) {
+                    rowNearest[base + column - fromColumn] = last;
+                }
+            }
+        }
+
+        // Lower envelope of the parabolas (row - t)^2 + squared[t] down each column
+        double reachSquared = (maxDistance / grid.getResolution()) * (maxDistance / grid.getResolution());
+        for (int column = minColumn; column <= maxColumn; column++) {
+            int offset = column - fromColumn;
+            int k = -1;
+            for (int t = 0; t < height; t++) {
+                int source = rowNearest[t * width + offset];
+                if (source == NONE) continue;
+                squared[t] = (source - column) * (source - column);
+                double s = 0;
+                while (k >= 0) {
+                    int v = envelope[k];
+                    s = ((squared[t] + t * t) - (squared[v] + v * v)) / (2.0 * (t - v));
+                    if (s > boundaries[k]) break;
+                    k--;
+                }
+                k++;
+                envelope[k] = t;
+                boundaries[k] = k == 0 ? Double.NEGATIVE_INFINITY : s;
+            }
+
+            int j = 0;
+            for (int row = minRow; row <= maxRow; row++) {
+                int cell = row * columns + column;
+                if (grid.isOccupied(column, row) == towardsOccupied) continue;
+                if (k < 0) {
+                    nearest[cell] = NONE;
+                    continue;
+                }
+                int t = row - fromRow;
+                while (j < k && boundaries[j + 1] < t) j++;
+                int v = envelope[j];
+                int source = rowNearest[v * width + offset];
+                double distanceSquared = (double) (v - t) * (v - t) + squared[v];
+                nearest[cell] = distanceSquared <= reachSquared ? (fromRow + v) * columns + source : NONE;
+            }
+        }
+    }
+}
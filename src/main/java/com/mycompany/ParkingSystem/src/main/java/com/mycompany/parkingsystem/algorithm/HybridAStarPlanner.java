@@ -0,0 +1,608 @@
+package com.mycompany.parkingsystem.algorithm;
+
+import com.mycompany.parkingsystem.model.Vehicle;
+
+import java.util.Arrays;
+
+/**
+ * Hybrid A* path planner over continuous (x, y, heading) poses for
+ * car-like vehicles.
+ *
+ * The search expands each pose with a fixed set of motion primitives:
+ * short arcs driven forward or in reverse at a few steering angles, using
+ * the same bicycle model as {@link Vehicle} (turning radius is the wheelbase
+ * over the sine of the steering angle). Primitives are computed once per
+ * vehicle size in the vehicle's own frame, so expanding a pose only rotates
+ * and translates them. Poses are binned into cells of {@value #CELL_SIZE} m
+ * and {@value #HEADING_BINS} headings; each cell keeps only the cheapest
+ * pose that reached it, but that pose keeps its exact position, so paths are
+ * drivable rather than snapped to the grid.
+ *
+ * The vehicle is covered by {@value #COVERING_CIRCLES} circles along its
+ * axis, and a pose is free when the {@link ClearanceMap} reports enough room
+ * around each one. More circles mean a radius closer to the half-width,
+ * which is what lets a car into a gap barely longer than itself, beside a
+ * curb.
+ * Costs are path length, with extra cost for reversing, steering and
+ * changing direction. The heuristic is the length of the shortest
+ * Reeds-Shepp curve to the goal, which ignores obstacles, weighted to favor
+ * fast answers over the shortest path. Every popped pose within
+ * {@value #ANALYTIC_RANGE} m of curve length tries that curve as the rest of
+ * the path and the search ends at the first one that is clear, so paths end
+ * exactly on the goal. A pose within a small tolerance of the goal also ends
+ * the search, with the path closed onto the exact goal pose.
+ *
+ * Nodes, the open queue and the closed set live in arrays allocated up
+ * front and reused by every plan, so planning allocates nothing once the
+ * output path has grown to size. A planner is not thread-safe.
+ */
+public class HybridAStarPlanner {
+
+    /**
+     * Free space around the planner's obstacles.
+     */
+    @FunctionalInterface
+    public interface ClearanceMap {
+        /**
+         * Returns the distance from (x, y) to the nearest obstacle. Values
+         * may be capped at anything above the vehicle's covering radius.
+         */
+        double clearance(double x, double y);
+
+        /**
+         * Returns whether the clearance at (x, y) is at least the radius.
+         * Maps that can often tell without the exact distance override it.
+         */
+        default boolean isClear(double x, double y, double radius) {
+            return clearance(x, y) >= radius;
+        }
+    }
+
+    private static final double CELL_SIZE = 0.5; // meters
+    private static final int HEADING_BINS = 72; // 5 degrees each
+    private static final double STEP_LENGTH = 0.8; // meters driven per primitive
+    private static final int STEP_SAMPLES = 4; // collision checks per primitive
+    private static final double[] STEERING_FRACTIONS = {-1, -0.5, 0, 0.5, 1};
+    private static final double REVERSE_COST = 1.5; // multiplier on reversed distance
+    private static final double STEERING_COST = 0.05; // per meter at full lock
+    private static final double STEERING_CHANGE_COST = 0.1; // per full lock of steering change
+    private static final double DIRECTION_CHANGE_COST = 2.0; // meters
+    private static final double HEURISTIC_WEIGHT = 4.0; // trades path length for fewer expansions
+    private static final double ANALYTIC_RANGE = 12.0; // meters of curve length
+    private static final int CURVE_CACHE_CAPACITY = 1 << 14;
+    private static final double SEARCH_MARGIN = 15.0; // meters around start and goal
+    private static final double POSITION_TOLERANCE = 0.5; // meters
+    private static final double HEADING_TOLERANCE = Math.toRadians(6);
+    private static final int PRIMITIVES = STEERING_FRACTIONS.length * 2;
+    static final int COVERING_CIRCLES = 5; // odd, so one sits on the center
+
+    // Motion primitives in the vehicle frame, forward ones first
+    private final double[] primitiveX = new double[PRIMITIVES * STEP_SAMPLES];
+    private final double[] primitiveY = new double[PRIMITIVES * STEP_SAMPLES];
+    private final double[] primitiveHeading = new double[PRIMITIVES * STEP_SAMPLES];
+    private final double[] primitiveCos = new double[PRIMITIVES * STEP_SAMPLES];
+    private final double[] primitiveSin = new double[PRIMITIVES * STEP_SAMPLES];
+    private final double[] primitiveCost = new double[PRIMITIVES];
+    private double vehicleLength = Double.NaN;
+    private double vehicleWidth = Double.NaN;
+    private double circleSpacing; // distance between neighbouring circle centers
+    private double circleRadius;
+    private double minTurningRadius;
+
+    // Node pool
+    private final int capacity;
+    private final double[] nodeX;
+    private final double[] nodeY;
+    private final double[] nodeHeading;
+    private final double[] nodeCost;
+    private final int[] nodeParent;
+    private final byte[] nodePrimitive;
+    private final byte[] nodeSamples; // samples of the primitive driven, fewer if it stopped at the goal
+    private int nodeCount;
+
+    // Open queue: binary heap of node indices ordered by cost plus heuristic
+    private final int[] heap;
+    private final double[] heapKey;
+    private int heapSize;
+
+    // Closed set: open-addressed map from cell to its best node, cleared by bumping the generation
+    private final long[] cellKey;
+    private final int[] cellNode;
+    private final int[] cellGeneration;
+    private final boolean[] nodeClosed;
+    private final int cellMask;
+    private int generation = 0;
+
+    // Search window and goal of the current plan
+    private double minX;
+    private double minY;
+    private double maxX;
+    private double maxY;
+    private double goalX;
+    private double goalY;
+    private double goalHeading;
+
+    private final int[] chain;
+    private final ReedsSheppSolver reedsShepp = new ReedsSheppSolver(CURVE_CACHE_CAPACITY);
+    private final ReedsSheppSolver.Curve curve = new ReedsSheppSolver.Curve();
+    private final double[] curvePose = new double[3];
+
+    /**
+     * @param maxNodes Most poses one plan may create before it gives up
+     */
+    public HybridAStarPlanner(int maxNodes) {
+        if (maxNodes < 1) {
+            throw new IllegalArgumentException("Node limit must be positive");
+        }
+        this.capacity = maxNodes;
+        this.nodeX = new double[maxNodes];
+        this.nodeY = new double[maxNodes];
+        this.nodeHeading = new double[maxNodes];
+        this.nodeCost = new double[maxNodes];
+        this.nodeParent = new int[maxNodes];
+        this.nodePrimitive = new byte[maxNodes];
+        this.nodeSamples = new byte[maxNodes];
+        this.nodeClosed = new boolean[maxNodes];
+        this.heap = new int[maxNodes];
+        this.heapKey = new double[maxNodes];
+        this.chain = new int[maxNodes];
+
+        int cells = Integer.highestOneBit(maxNodes) << 2;
+        this.cellMask = cells - 1;
+        this.cellKey = new long[cells];
+        this.cellNode = new int[cells];
+        this.cellGeneration = new int[cells];
+    }
+
+    /**
+     * Plans a path between two poses for a vehicle of the given size.
+     * Headings are in degrees, like {@link Vehicle#getAngle()}. The start pose
+     * is not checked for collisions, so a vehicle touching an obstacle can
+     * still drive away from it.
+     * @param out Receives the path, ending exactly on the goal pose
+     * @return False if no path was found within the node limit
+     */
+    public boolean plan(double length, double width,
+                        double startX, double startY, double startHeading,
+                        double goalX, double goalY, double goalHeading,
+                        ClearanceMap map, Path out) {
+        setVehicleSize(length, width);
+        this.goalX = goalX;
+        this.goalY = goalY;
+        this.goalHeading = normalize(Math.toRadians(goalHeading));
+        minX = Math.min(startX, goalX) - SEARCH_MARGIN;
+        minY = Math.min(startY, goalY) - SEARCH_MARGIN;
+        maxX = Math.max(startX, goalX) + SEARCH_MARGIN;
+        maxY = Math.max(startY, goalY) + SEARCH_MARGIN;
+        out.clear();
+
+        if (!isFree(goalX, goalY, Math.cos(this.goalHeading), Math.sin(this.goalHeading), map)) {
+            return false;
+        }
+
+        nodeCount = 0;
+        heapSize = 0;
+        if (++generation == 0) {
+            Arrays.fill(cellGeneration, 0);
+            generation = 1;
+        }
+        int start = addNode(startX, startY, normalize(Math.toRadians(startHeading)), 0, -1, -1, 0);
+        claimCell(start);
+        push(start);
+
+        while (heapSize > 0) {
+            int node = pop();
+            if (nodeClosed[node]) continue;
+            nodeClosed[node] = true;
+
+            if (reachesGoal(nodeX[node], nodeY[node], nodeHeading[node])) {
+                writePath(node, out);
+                // Close the last few centimeters onto the exact goal pose
+                out.add(goalX, goalY, this.goalHeading, out.size() > 1 && out.isReverse(out.size() - 1));
+                return true;
+            }
+            if (connectsToGoal(node, map)) {
+                writePath(node, out);
+                writeCurve(out);
+                return true;
+            }
+            if (!expand(node, map)) {
+                return false; // out of nodes
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Adds every primitive from a node that stays in the window and clear
+     * of obstacles.
+     * @return False if the node pool ran out
+     */
+    private boolean expand(int node, ClearanceMap map) {
+        double x = nodeX[node];
+        double y = nodeY[node];
+        double heading = nodeHeading[node];
+        double cos = Math.cos(heading);
+        double sin = Math.sin(heading);
+        int previous = nodePrimitive[node];
+
+        for (int p = 0; p < PRIMITIVES; p++) {
+            // Check every sample along the arc; stop early at one that reaches the goal
+            int first = p * STEP_SAMPLES;
+            int last = first + STEP_SAMPLES - 1;
+            boolean free = true;
+            for (int s = first; s <= last && free; s++) {
+                double sx = x + primitiveX[s] * cos - primitiveY[s] * sin;
+                double sy = y + primitiveX[s] * sin + primitiveY[s] * cos;
+                if (sx < minX || sy < minY || sx > maxX || sy > maxY) {
+                    free = false;
+                } else {
+                    double sampleCos = cos * primitiveCos[s] - sin * primitiveSin[s];
+                    double sampleSin = sin * primitiveCos[s] + cos * primitiveSin[s];
+                    free = isFree(sx, sy, sampleCos, sampleSin, map);
+                    if (free && s < last && reachesGoal(sx, sy, heading + primitiveHeading[s])) {
+                        last = s;
+                    }
+                }
+            }
+            if (!free) continue;
+
+            int samples = last - first + 1;
+            double nx = x + primitiveX[last] * cos - primitiveY[last] * sin;
+            double ny = y + primitiveX[last] * sin + primitiveY[last] * cos;
+            double nh = normalize(heading + primitiveHeading[last]);
+            double cost = nodeCost[node] + primitiveCost[p] * samples / STEP_SAMPLES
+                + transitionCost(previous, p);
+
+            long key = cellOf(nx, ny, nh);
+            int slot = findCell(key);
+            if (cellGeneration[slot] == generation) {
+                int existing = cellNode[slot];
+                if (nodeClosed[existing] || nodeCost[existing] <= cost) continue;
+                nodeClosed[existing] = true; // superseded by the cheaper pose below
+            }
+            if (nodeCount == capacity) return false;
+            int child = addNode(nx, ny, nh, cost, node, p, samples);
+            cellKey[slot] = key;
+            cellNode[slot] = child;
+            cellGeneration[slot] = generation;
+            push(child);
+        }
+        return true;
+    }
+
+    private double transitionCost(int previous, int primitive) {
+        if (previous < 0) return 0;
+        int steeringCount = STEERING_FRACTIONS.length;
+        double cost = Math.abs(STEERING_FRACTIONS[previous % steeringCount]
+            - STEERING_FRACTIONS[primitive % steeringCount]) * STEERING_CHANGE_COST;
+        if ((previous < steeringCount) != (primitive < steeringCount)) {
+            cost += DIRECTION_CHANGE_COST;
+        }
+        return cost;
+    }
+
+    private boolean isFree(double x, double y, double cos, double sin, ClearanceMap map) {
+        // Ends first, since they are the ones that touch the curb and the neighbours
+        double dx = cos * circleSpacing;
+        double dy = sin * circleSpacing;
+        for (int k = COVERING_CIRCLES / 2; k >= 0; k--) {
+            if (!map.isClear(x + dx * k, y + dy * k, circleRadius)
+                    || !map.isClear(x - dx * k, y - dy * k, circleRadius)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Solves the curve from a node to the goal into {@link #curve} and
+     * checks it against the map. When the shortest curve is blocked, the
+     * shortest clear one of the other families within range is taken
+     * instead: backing into a tight space is rarely the shortest way there.
+     */
+    private boolean connectsToGoal(int node, ClearanceMap map) {
+        double x = nodeX[node];
+        double y = nodeY[node];
+        double heading = nodeHeading[node];
+        double length = reedsShepp.solve(x, y, heading, goalX, goalY, goalHeading, minTurningRadius, curve);
+        if (length > ANALYTIC_RANGE) return false;
+        if (isClear(curve, map)) return true;
+
+        int best = -1;
+        double bestLength = ANALYTIC_RANGE;
+        for (int family = 0; family < ReedsSheppSolver.FAMILY_COUNT; family++) {
+            double familyLength = reedsShepp.solveFamily(family, x, y, heading, goalX, goalY, goalHeading,
+                                                         minTurningRadius, curve);
+            if (familyLength <= bestLength && familyLength > length && isClear(curve, map)) {
+                best = family;
+                bestLength = familyLength;
+            }
+        }
+        if (best < 0) return false;
+        reedsShepp.solveFamily(best, x, y, heading, goalX, goalY, goalHeading, minTurningRadius, curve);
+        return true;
+    }
+
+    /**
+     * Checks a curve against the map, sampled as densely as the primitives,
+     * from the goal end back: a curve that fails mostly fails in the tight
+     * spot at its end.
+     */
+    private boolean isClear(ReedsSheppSolver.Curve curve, ClearanceMap map) {
+        double spacing = STEP_LENGTH / STEP_SAMPLES;
+        for (int k = (int) Math.ceil(curve.getLength() / spacing) - 1; k > 0; k--) {
+            curve.poseAt(k * spacing, curvePose);
+            double x = curvePose[0];
+            double y = curvePose[1];
+            if (x < minX || y < minY || x > maxX || y > maxY
+                    || !isFree(x, y, Math.cos(curvePose[2]), Math.sin(curvePose[2]), map)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Appends the samples of the connecting curve, ending on the goal pose
+    private void writeCurve(Path out) {
+        double length = curve.getLength();
+        double spacing = STEP_LENGTH / STEP_SAMPLES;
+        for (double s = spacing; s < length; s += spacing) {
+            boolean reverse = curve.poseAt(s, curvePose);
+            out.add(curvePose[0], curvePose[1], curvePose[2], reverse);
+        }
+        boolean reverse = curve.poseAt(length, curvePose);
+        out.add(goalX, goalY, goalHeading, reverse);
+    }
+
+    private boolean reachesGoal(double x, double y, double heading) {
+        return Math.hypot(x - goalX, y - goalY) <= POSITION_TOLERANCE
+            && Math.abs(normalize(heading - goalHeading)) <= HEADING_TOLERANCE;
+    }
+
+    private double heuristic(int node) {
+        return reedsShepp.solve(nodeX[node], nodeY[node], nodeHeading[node],
+                                goalX, goalY, goalHeading, minTurningRadius, curve);
+    }
+
+    /**
+     * Returns the distance between neighbouring covering circles, each of
+     * which covers an equal slice of the body's length.
+     */
+    static double circleSpacing(double length) {
+        return length / COVERING_CIRCLES;
+    }
+
+    /**
+     * Returns the radius that lets each covering circle reach the corners of
+     * its slice of the body.
+     */
+    static double circleRadius(double length, double width) {
+        return Math.hypot(length / (2 * COVERING_CIRCLES), width / 2);
+    }
+
+    /**
+     * Rebuilds the primitives and covering circles when the vehicle size
+     * changes.
+     */
+    private void setVehicleSize(double length, double width) {
+        if (!(length > 0) || !(width > 0)) {
+            throw new IllegalArgumentException("Vehicle dimensions must be positive");
+        }
+        if (length == vehicleLength && width == vehicleWidth) return;
+        vehicleLength = length;
+        vehicleWidth = width;
+
+        circleSpacing = circleSpacing(length);
+        circleRadius = circleRadius(length, width);
+
+        double wheelbase = length * Vehicle.WHEELBASE_RATIO;
+        double maxSteering = Math.toRadians(Vehicle.MAX_STEERING_ANGLE);
+        minTurningRadius = Vehicle.minTurningRadius(length);
+
+        int steeringCount = STEERING_FRACTIONS.length;
+        for (int p = 0; p < PRIMITIVES; p++) {
+            double fraction = STEERING_FRACTIONS[p % steeringCount];
+            double direction = p < steeringCount ? 1 : -1;
+            double curvature = Math.sin(maxSteering * Math.abs(fraction)) / wheelbase * Math.signum(fraction);
+            for (int k = 1; k <= STEP_SAMPLES; k++) {
+                int s = p * STEP_SAMPLES + k - 1;
+                double distance = direction * STEP_LENGTH * k / STEP_SAMPLES;
+                double turn = curvature * distance;
+                primitiveHeading[s] = turn;
+                primitiveCos[s] = Math.cos(turn);
+                primitiveSin[s] = Math.sin(turn);
+                if (curvature == 0) {
+                    primitiveX[s] = distance;
+                    primitiveY[s] = 0;
+                } else {
+                    primitiveX[s] = Math.sin(turn) / curvature;
+                    primitiveY[s] = (1 - Math.cos(turn)) / curvature;
+                }
+            }
+            primitiveCost[p] = STEP_LENGTH * (direction > 0 ? 1 : REVERSE_COST)
+                + STEP_LENGTH * Math.abs(fraction) * STEERING_COST;
+        }
+    }
+
+    private void writePath(int goalNode, Path out) {
+        int length = 0;
+        for (int node = goalNode; node >= 0; node = nodeParent[node]) {
+            chain[length++] = node;
+        }
+
+        int start = chain[length - 1];
+        out.add(nodeX[start], nodeY[start], nodeHeading[start], false);
+        for (int k = length - 2; k >= 0; k--) {
+            int node = chain[k];
+            int parent = nodeParent[node];
+            int p = nodePrimitive[node];
+            boolean reverse = p >= STEERING_FRACTIONS.length;
+            double cos = Math.cos(nodeHeading[parent]);
+            double sin = Math.sin(nodeHeading[parent]);
+            for (int s = p * STEP_SAMPLES; s < p * STEP_SAMPLES + nodeSamples[node]; s++) {
+                out.add(nodeX[parent] + primitiveX[s] * cos - primitiveY[s] * sin,
+                        nodeY[parent] + primitiveX[s] * sin + primitiveY[s] * cos,
+                        normalize(nodeHeading[parent] + primitiveHeading[s]), reverse);
+            }
+        }
+    }
+
+    private long cellOf(double x, double y, double heading) {
+        long cx = (long) ((x - minX) / CELL_SIZE);
+        long cy = (long) ((y - minY) / CELL_SIZE);
+        long ch = Math.floorMod((long) Math.floor(heading / (2 * Math.PI) * HEADING_BINS + 0.5), HEADING_BINS);
+        return (cx << 40) | (cy << 16) | ch;
+    }
+
+    /**
+     * Returns the slot holding the key in the current generation, or the
+     * empty slot where it would go.
+     */
+    private int findCell(long key) {
+        int slot = (int) (key * 0x9E3779B97F4A7C15L >>> 40) & cellMask;
+        while (cellGeneration[slot] == generation && cellKey[slot] != key) {
+            slot = (slot + 1) & cellMask;
+        }
+        return slot;
+    }
+
+    private void claimCell(int node) {
+        long key = cellOf(nodeX[node], nodeY[node], nodeHeading[node]);
+        int slot = findCell(key);
+        cellKey[slot] = key;
+        cellNode[slot] = node;
+        cellGeneration[slot] = generation;
+    }
+
+    private int addNode(double x, double y, double heading, double cost, int parent, int primitive,
+                        int samples) {
+        int node = nodeCount++;
+        nodeX[node] = x;
+        nodeY[node] = y;
+        nodeHeading[node] = heading;
+        nodeCost[node] = cost;
+        nodeParent[node] = parent;
+        nodePrimitive[node] = (byte) primitive;
+        nodeSamples[node] = (byte) samples;
+        nodeClosed[node] = false;
+        return node;
+    }
+
+    private void push(int node) {
+        double key = nodeCost[node] + HEURISTIC_WEIGHT * heuristic(node);
+        int i = heapSize++;
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (heapKey[parent] <= key) break;
+            heap[i] = heap[parent];
+            heapKey[i] = heapKey[parent];
+            i = parent;
+        }
+        heap[i] = node;
+        heapKey[i] = key;
+    }
+
+    private int pop() {
+        int top = heap[0];
+        int node = heap[--heapSize];
+        double key = heapKey[heapSize];
+        int i = 0;
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= heapSize) break;
+            if (child + 1 < heapSize && heapKey[child + 1] < heapKey[child]) child++;
+            if (heapKey[child] >= key) break;
+            heap[i] = heap[child];
+            heapKey[i] = heapKey[child];
+            i = child;
+        }
+        heap[i] = node;
+        heapKey[i] = key;
+        return top;
+    }
+
+    /** Wraps an angle in radians to [-pi, pi). */
+    private static double normalize(double angle) {
+        return angle - 2 * Math.PI * Math.floor((angle + Math.PI) / (2 * Math.PI));
+    }
+
+    /**
+     * A planned path as poses about {@value #STEP_LENGTH} / {@value #STEP_SAMPLES}
+     * m apart. Headings are in degrees; a pose is marked reverse when the
+     * vehicle backs into it. Reused between plans to avoid allocation.
+     */
+    public static final class Path {
+        private double[] x = new double[64];
+        private double[] y = new double[64];
+        private double[] heading = new double[64];
+        private boolean[] reverse = new boolean[64];
+        private int size;
+
+        public int size() {
+            return size;
+        }
+
+        public double getX(int i) {
+            return x[i];
+        }
+
+        public double getY(int i) {
+            return y[i];
+        }
+
+        public double getHeading(int i) {
+            return heading[i];
+        }
+
+        public boolean isReverse(int i) {
+            return reverse[i];
+        }
+
+        /** Returns the number of times the path switches between forward and reverse. */
+        public int getDirectionChanges() {
+            int changes = 0;
+            for (int i = 2; i < size; i++) {
+                if (reverse[i] != reverse[i - 1]) changes++;
+            }
+            return changes;
+        }
+
+        void clear() {
+            size = 0;
+        }
+
+        void add(double px, double py, double headingRadians, boolean backwards) {
+            addDegrees(px, py, (Math.toDegrees(headingRadians) % 360 + 360) % 360, backwards);
+        }
+
+        void addDegrees(double px, double py, double headingDegrees, boolean backwards) {
+            if (size == x.length) {
+                grow(size * 2);
+            }
+            x[size] = px;
+            y[size] = py;
+            heading[size] = headingDegrees;
+            reverse[size] = backwards;
+            size++;
+        }
+
+        void copyFrom(Path other) {
+            if (x.length < other.size) {
+                grow(other.size);
+            }
+            System.arraycopy(other.x, 0, x, 0, other.size);
+            System.arraycopy(other.y, 0, y, 0, other.size);
+            System.arraycopy(other.heading, 0, heading, 0, other.size);
+            System.arraycopy(other.reverse, 0, reverse, 0, other.size);
+            size = other.size;
+        }
+
+        private void grow(int capacity) {
+            x = Arrays.copyOf(x, capacity);
+            y = Arrays.copyOf(y, capacity);
+            heading = Arrays.copyOf(heading, capacity);
+            reverse = Arrays.copyOf(reverse, capacity);
+        }
+    }
+}
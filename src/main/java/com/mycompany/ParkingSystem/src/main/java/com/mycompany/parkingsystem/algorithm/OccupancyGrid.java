@@ -0,0 +1,383 @@
+package com.mycompany.parkingsystem.algorithm;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Rasterized occupancy of the lot, with an inflated cost map on top.
+ *
+ * The grid covers [0, width] x [0, height] in square cells of a fixed
+ * resolution. Obstacles are stamped in as axis-aligned boxes or as the four
+ * corners of a rotated box; every cell a shape overlaps counts it, so shapes
+ * can overlap and be removed again in any order. A cell is occupied while its
+ * count is above zero.
+ *
+ * Each cell also has a cost: {@link #LETHAL} when occupied, falling from
+ * {@link #INSCRIBED} next to an obstacle down to 1 at the inflation radius,
+ * and {@link #FREE} beyond it. Costs are only updated around cells whose
+ * occupancy flipped, the next time a cost or clearance is read: an added
+ * shape raises the costs within the inflation radius of its cells, and a
+ * removed one clears the costs it could have set and re-inflates them from
+ * the occupied cells nearby. Reads are O(1) per cell, apart from
+ * {@link #clearance} near obstacles. Not thread-safe.
+ */
+public class OccupancyGrid {
+    public static final int FREE = 0;
+    public static final int INSCRIBED = 253;
+    public static final int LETHAL = 254;
+
+    /**
+     * Receives the cell range of every stamp that flipped a cell's
+     * occupancy, right after the stamp.
+     */
+    @FunctionalInterface
+    public interface ChangeListener {
+        void cellsChanged(int minColumn, int minRow, int maxColumn, int maxRow);
+    }
+
+    private final double resolution;
+    private final double inflationRadius;
+    private final double clearanceCap;
+    private final int columns;
+    private final int rows;
+    private final short[] coverage; // shapes overlapping each cell
+    private final byte[] cost;
+
+    // Neighbour offsets within the inflation radius, nearest first, and the cost each one implies
+    private final int[] kernelDx;
+    private final int[] kernelDy;
+    private final int[] kernelCost;
+    private final double[] kernelDistance;
+
+    // Cell boxes (min column, min row, max column, max row, 1 if cells were
+    // freed) whose occupancy flipped since the last refresh
+    private final int[] dirtyBoxes = new int[5 * 64];
+    private int dirtyCount = 0;
+    private final int reach; // kernel radius in cells
+    private final List<ChangeListener> listeners = new ArrayList<>();
+
+    // Cell range of the shape being stamped whose occupancy flipped
+    private int flipMinColumn;
+    private int flipMinRow;
+    private int flipMaxColumn;
+    private int flipMaxRow;
+
+    /**
+     * @param width Extent of the lot along x in meters
+     * @param height Extent of the lot along y in meters
+     * @param resolution Cell size in meters
+     * @param inflationRadius Distance in meters over which costs fall to zero,
+     *     at least the cell diagonal
+     */
+    public OccupancyGrid(double width, double height, double resolution, double inflationRadius) {
+        if (!(width > 0) || !(height > 0) || !(resolution > 0)) {
+            throw new IllegalArgumentException("Grid extent and resolution must be positive");
+        }
+        if (!(inflationRadius >= resolution * Math.sqrt(2))) {
+            throw new IllegalArgumentException("Inflation radius must cover at least one cell diagonal");
+        }
+        this.resolution = resolution;
+        this.inflationRadius = inflationRadius;
+        this.clearanceCap = inflationRadius - resolution * Math.sqrt(2);
+        this.columns = (int) Math.ceil(width / resolution);
+        this.rows = (int) Math.ceil(height / resolution);
+        this.coverage = new short[columns * rows];
+        this.cost = new byte[columns * rows];
+
+        // Every offset whose center is within the radius, sorted by distance
+        int reach = (int) Math.floor(inflationRadius / resolution);
+        this.reach = reach;
+        int side = 2 * reach + 1;
+        long[] packed = new long[side * side];
+        int count = 0;
+        for (int dy = -reach; dy <= reach; dy++) {
+            for (int dx = -reach; dx <= reach; dx++) {
+                int squared = dx * dx + dy * dy;
+                if (squared * resolution * resolution <= inflationRadius * inflationRadius) {
+                    packed[count++] = ((long) squared << 32) | ((dy + reach) << 16) | (dx + reach);
+                }
+            }
+        }
+        Arrays.sort(packed, 0, count);
+        this.kernelDx = new int[count];
+        this.kernelDy = new int[count];
+        this.kernelCost = new int[count];
+        this.kernelDistance = new double[count];
+        for (int k = 0; k < count; k++) {
+            kernelDx[k] = (int) (packed[k] & 0xFFFF) - reach;
+            kernelDy[k] = (int) ((packed[k] >>> 16) & 0xFFFF) - reach;
+            double distance = Math.sqrt((double) (packed[k] >>> 32)) * resolution;
+            kernelDistance[k] = distance;
+            kernelCost[k] = distance == 0 ? LETHAL
+                : Math.max(1, (int) Math.round(INSCRIBED * (1 - distance / inflationRadius)));
+        }
+    }
+
+    public int getColumns() {
+        return columns;
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    public double getResolution() {
+        return resolution;
+    }
+
+    public double getInflationRadius() {
+        return inflationRadius;
+    }
+
+    public void addChangeListener(ChangeListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeChangeListener(ChangeListener listener) {
+        listeners.remove(listener);
+    }
+
+    /** Returns the column holding x, which may be outside the grid. */
+    public int column(double x) {
+        return (int) Math.floor(x / resolution);
+    }
+
+    /** Returns the row holding y, which may be outside the grid. */
+    public int row(double y) {
+        return (int) Math.floor(y / resolution);
+    }
+
+    public boolean isInside(int column, int row) {
+        return column >= 0 && row >= 0 && column < columns && row < rows;
+    }
+
+    /** Cells outside the grid count as occupied. */
+    public boolean isOccupied(int column, int row) {
+        return !isInside(column, row) || coverage[row * columns + column] > 0;
+    }
+
+    /** Cells outside the grid cost {@link #LETHAL}. */
+    public int getCost(int column, int row) {
+        if (!isInside(column, row)) return LETHAL;
+        if (dirtyCount > 0) refresh();
+        return cost[row * columns + column] & 0xFF;
+    }
+
+    public int getCostAt(double x, double y) {
+        return getCost(column(x), row(y));
+    }
+
+    /**
+     * Returns the distance from (x, y) to the nearest occupied cell, capped
+     * at the inflation radius less one cell diagonal. Points in cells with no
+     * inflated cost get the cap without a search.
+     */
+    public double clearance(double x, double y) {
+        int column = column(x);
+        int row = row(y);
+        if (!isInside(column, row)) return 0;
+        int c = getCost(column, row);
+        if (c == FREE) return clearanceCap;
+        if (c == LETHAL) return 0;
+
+        // Any occupied cell closer than the cap has its center inside the kernel
+        double nearest = clearanceCap;
+        for (int k = 0; k < kernelDx.length && kernelDistance[k] - resolution * Math.sqrt(2) < nearest; k++) {
+            int cx = column + kernelDx[k];
+            int cy = row + kernelDy[k];
+            if (!isInside(cx, cy) || coverage[cy * columns + cx] == 0) continue;
+            double dx = Math.max(0, Math.max(cx * resolution - x, x - (cx + 1) * resolution));
+            double dy = Math.max(0, Math.max(cy * resolution - y, y - (cy + 1) * resolution));
+            nearest = Math.min(nearest, Math.sqrt(dx * dx + dy * dy));
+        }
+        return nearest;
+    }
+
+    /** Stamps every cell overlapping an axis-aligned box. */
+    public void addBox(double minX, double minY, double maxX, double maxY) {
+        stampBox(minX, minY, maxX, maxY, 1);
+    }
+
+    /** Removes a box added with the same bounds. */
+    public void removeBox(double minX, double minY, double maxX, double maxY) {
+        stampBox(minX, minY, maxX, maxY, -1);
+    }
+
+    /**
+     * Stamps every cell overlapping a rotated box.
+     * @param corners Four corners in order around the box as x0, y0, ..., x3,
+     *     y3, like {@code Vehicle.writeCornerPoints}
+     */
+    public void addFootprint(double[] corners, int offset) {
+        stampFootprint(corners, offset, 1);
+    }
+
+    /** Removes a footprint added with the same corners. */
+    public void removeFootprint(double[] corners, int offset) {
+        stampFootprint(corners, offset, -1);
+    }
+
+    /**
+     * Recomputes the costs around every cell whose occupancy changed since
+     * the last refresh. Called by the cost and clearance reads.
+     */
+    public void refresh() {
+        for (int b = 0; b < dirtyCount * 5; b += 5) {
+            int minColumn = dirtyBoxes[b];
+            int minRow = dirtyBoxes[b + 1];
+            int maxColumn = dirtyBoxes[b + 2];
+            int maxRow = dirtyBoxes[b + 3];
+            if (dirtyBoxes[b + 4] == 0) {
+                // Added cells can only raise costs around themselves
+                inflate(minColumn, minRow, maxColumn, maxRow, minColumn - reach, minRow - reach,
+                        maxColumn + reach, maxRow + reach);
+                continue;
+            }
+            // Freed cells may have set any cost within reach; clear those and
+            // re-inflate them from every occupied cell that can reach them
+            int clearMinColumn = Math.max(0, minColumn - reach);
+            int clearMinRow = Math.max(0, minRow - reach);
+            int clearMaxColumn = Math.min(columns - 1, maxColumn + reach);
+            int clearMaxRow = Math.min(rows - 1, maxRow + reach);
+            for (int row = clearMinRow; row <= clearMaxRow; row++) {
+                Arrays.fill(cost, row * columns + clearMinColumn, row * columns + clearMaxColumn + 1, (byte) FREE);
+            }
+            inflate(clearMinColumn - reach, clearMinRow - reach, clearMaxColumn + reach, clearMaxRow + reach,
+                    clearMinColumn, clearMinRow, clearMaxColumn, clearMaxRow);
+        }
+        dirtyCount = 0;
+    }
+
+    /**
+     * Raises the cost of cells in the target box to what each occupied cell
+     * of the source box implies for them.
+     */
+    private void inflate(int minColumn, int minRow, int maxColumn, int maxRow,
+                         int targetMinColumn, int targetMinRow, int targetMaxColumn, int targetMaxRow) {
+        minColumn = Math.max(0, minColumn);
+        minRow = Math.max(0, minRow);
+        maxColumn = Math.min(columns - 1, maxColumn);
+        maxRow = Math.min(rows - 1, maxRow);
+        targetMinColumn = Math.max(0, targetMinColumn);
+        targetMinRow = Math.max(0, targetMinRow);
+        targetMaxColumn = Math.min(columns - 1, targetMaxColumn);
+        targetMaxRow = Math.min(rows - 1, targetMaxRow);
+        for (int row = minRow; row <= maxRow; row++) {
+            for (int column = minColumn; column <= maxColumn; column++) {
+                if (coverage[row * columns + column] == 0) continue;
+                for (int k = 0; k < kernelDx.length; k++) {
+                    int cx = column + kernelDx[k];
+                    int cy = row + kernelDy[k];
+                    if (cx < targetMinColumn || cy < targetMinRow || cx > targetMaxColumn || cy > targetMaxRow) {
+                        continue;
+                    }
+                    int cell = cy * columns + cx;
+                    if ((cost[cell] & 0xFF) < kernelCost[k]) {
+                        cost[cell] = (byte) kernelCost[k];
+                    }
+                }
+            }
+        }
+    }
+
+    private void stampBox(double minX, double minY, double maxX, double maxY, int delta) {
+        int minColumn = Math.max(0, column(minX));
+        int minRow = Math.max(0, row(minY));
+        int maxColumn = Math.min(columns - 1, (int) Math.ceil(maxX / resolution) - 1);
+        int maxRow = Math.min(rows - 1, (int) Math.ceil(maxY / resolution) - 1);
+        beginStamp();
+        for (int row = minRow; row <= maxRow; row++) {
+            for (int column = minColumn; column <= maxColumn; column++) {
+                stampCell(column, row, delta);
+            }
+        }
+        endStamp(delta < 0);
+    }
+
+    private void stampFootprint(double[] corners, int offset, int delta) {
+        double minX = corners[offset], maxX = minX;
+        double minY = corners[offset + 1], maxY = minY;
+        for (int c = 2; c < 8; c += 2) {
+            minX = Math.min(minX, corners[offset + c]);
+            maxX = Math.max(maxX, corners[offset + c]);
+            minY = Math.min(minY, corners[offset + c + 1]);
+            maxY = Math.max(maxY, corners[offset + c + 1]);
+        }
+        // Edges are walked so that the inside is on the left
+        double area = 0;
+        for (int c = 0; c < 8; c += 2) {
+            int next = (c + 2) % 8;
+            area += corners[offset + c] * corners[offset + next + 1]
+                - corners[offset + next] * corners[offset + c + 1];
+        }
+        double orientation = area >= 0 ? 1 : -1;
+        double halfDiagonal = resolution * Math.sqrt(2) / 2;
+
+        int minColumn = Math.max(0, column(minX));
+        int minRow = Math.max(0, row(minY));
+        int maxColumn = Math.min(columns - 1, column(maxX));
+        int maxRow = Math.min(rows - 1, row(maxY));
+        beginStamp();
+        for (int row = minRow; row <= maxRow; row++) {
+            double y = (row + 0.5) * resolution;
+            for (int column = minColumn; column <= maxColumn; column++) {
+                double x = (column + 0.5) * resolution;
+                // A cell overlaps if its center is within half a diagonal of every edge's inside
+                boolean overlaps = true;
+                for (int c = 0; c < 8 && overlaps; c += 2) {
+                    int next = (c + 2) % 8;
+                    double ex = corners[offset + next] - corners[offset + c];
+                    double ey = corners[offset + next + 1] - corners[offset + c + 1];
+                    double outside = orientation * (ey * (x - corners[offset + c]) - ex * (y - corners[offset + c + 1]));
+                    overlaps = outside <= halfDiagonal * Math.sqrt(ex * ex + ey * ey);
+                }
+                if (overlaps) {
+                    stampCell(column, row, delta);
+                }
+            }
+        }
+        endStamp(delta < 0);
+    }
+
+    private void beginStamp() {
+        flipMinColumn = Integer.MAX_VALUE;
+        flipMinRow = Integer.MAX_VALUE;
+        flipMaxColumn = -1;
+        flipMaxRow = -1;
+    }
+
+    private void stampCell(int column, int row, int delta) {
+        int cell = row * columns + column;
+        int before = coverage[cell];
+        int after = before + delta;
+        if (after < 0 || after > Short.MAX_VALUE) {
+            throw new IllegalStateException("Removed a shape that was never added");
+        }
+        coverage[cell] = (short) after;
+        if ((before == 0) != (after == 0)) {
+            flipMinColumn = Math.min(flipMinColumn, column);
+            flipMinRow = Math.min(flipMinRow, row);
+            flipMaxColumn = Math.max(flipMaxColumn, column);
+            flipMaxRow = Math.max(flipMaxRow, row);
+        }
+    }
+
+    // Queues the flipped cells of the last stamp for a cost refresh
+    private void endStamp(boolean freed) {
+        if (flipMaxColumn < 0) return;
+        if (dirtyCount * 5 == dirtyBoxes.length) {
+            // Nobody has read the costs for a while; catch up so the list stays bounded
+            refresh();
+        }
+        int b = dirtyCount++ * 5;
+        dirtyBoxes[b] = flipMinColumn;
+        dirtyBoxes[b + 1] = flipMinRow;
+        dirtyBoxes[b + 2] = flipMaxColumn;
+        dirtyBoxes[b + 3] = flipMaxRow;
+        dirtyBoxes[b + 4] = freed ? 1 : 0;
+        for (ChangeListener listener : listeners) {
+            listener.cellsChanged(flipMinColumn, flipMinRow, flipMaxColumn, flipMaxRow);
+        }
+    }
+}
@@ -1,49 +1,217 @@
 package com.mycompany.parkingsystem.algorithm;
+import com.mycompany.parkingsystem.model.ParkingOccupancyIndex;
 import com.mycompany.parkingsystem.model.ParkingSpace;
 import com.mycompany.parkingsystem.model.ParkingSpaceType;
 import com.mycompany.parkingsystem.model.Vehicle;
 import java.awt.geom.Point2D;
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.DoubleSupplier;
 import static javax.swing.plaf.synth.SynthConstants.DISABLED;
 import static javax.swing.text.html.HTML.Attribute.COMPACT;
 
 public class ParkingAlgorithm {
     private List<ParkingSpace> parkingSpaces;
+    private final ParkingOccupancyIndex occupancyIndex;
+    private final ParkingSpaceTree spaceTree;
+    private final ParkingSpaceTree.Query waveQuery; // search queue for serial batch assignment
+    private final DoubleSupplier clock; // simulated time, for reservation expiry
+    private Vehicle queryVehicle; // vehicle whose space search is running
+    private double queryTime;
+    private final ParkingSpaceTree.SlotFilter freeSuitableSpace =
+        slot -> isFreeAndSuitable(queryVehicle, slot, queryTime);
     private final double SAFE_DISTANCE = 0.5; // Safe distance in meters
-    private final double PARKING_PRECISION = 0.1; // Precision threshold for parking
-    private final double MIN_TURNING_RADIUS = 5.0; // Minimum turning radius in meters
+    private final int MAX_ASSIGNMENT_CANDIDATES = 64; // Nearest spaces offered to each vehicle of a wave
+    private final double ASSIGNMENT_EPSILON = 0.01; // Score tolerance per vehicle for batch assignment
+    private final int PARALLEL_BATCH_SIZE = 64; // Vehicles per fork/join candidate search task
+    private final int MAX_PLANNER_NODES = 2000; // Poses one parking plan may explore, a few milliseconds of work
+    private final double PLANNER_SEARCH_RADIUS = 15.0; // Obstacle margin around start and goal in meters
+    private final HybridAStarPlanner planner = new HybridAStarPlanner(MAX_PLANNER_NODES);
+    private final HybridAStarPlanner.Path plannedPath = new HybridAStarPlanner.Path();
+    private final HybridAStarPlanner.ClearanceMap obstacleClearance = this::clearance;
+    private double[] obstacleBoxes = new double[64]; // minX, minY, maxX, maxY of each box near the plan
+    private int obstacleCount;
+    private HybridAStarPlanner.ClearanceMap fieldClearance; // replaces the box scan when set
     
     public ParkingAlgorithm(List<ParkingSpace> parkingSpaces) {
+        this(parkingSpaces, () -> 0); // time stands still, so reservations never expire
+    }
+    
+    // Spaces reserved by another vehicle are skipped until the reservation
+    // expires on the given clock
+    public ParkingAlgorithm(List<ParkingSpace> parkingSpaces, DoubleSupplier clock) {
         this.parkingSpaces = parkingSpaces;
+        this.clock = clock;
+        this.occupancyIndex = new ParkingOccupancyIndex(parkingSpaces);
+        
+        // Obstacles can't be parked in, so they stay out of the tree
+        this.spaceTree = new ParkingSpaceTree(parkingSpaces, this::getSpaceWeight);
+        this.waveQuery = spaceTree.newQuery();
+    }
+    
+    public ParkingOccupancyIndex getOccupancyIndex() {
+        return occupancyIndex;
+    }
+    
+    // Lets planning and collision checks read clearance from a distance field
+    // kept current by the caller instead of scanning the spaces. Reserved
+    // spaces aren't in the field, so the target stays open; null goes back
+    // to the scan.
+    public void setDistanceField(DistanceField distanceField) {
+        this.fieldClearance = distanceField;
     }
 
     // Enhanced parking space finder with multiple criteria
+    // Spaces are scored by distance times (1 + 0.3 * difficulty), so closer and
+    // easier spaces win; the tree visits them best first and stops at the first
+    // free, suitable one
     public ParkingSpace findOptimalParkingSpace(Vehicle vehicle) {
-        return parkingSpaces.stream()
-            .filter(space -> !space.isOccupied())
-            .filter(space -> isSpaceSuitable(vehicle, space))
-            .min(Comparator.comparingDouble(space -> {
-                // Combined score based on distance and difficulty
-                double distanceScore = Point2D.distance(
-                    vehicle.getPosition().x, vehicle.getPosition().y,
-                    space.getLocation().x, space.getLocation().y);
-                
-                double difficultyScore = getParkingDifficulty(space.getType());
-                
-                // Prefer closer and easier spaces
-                return distanceScore * (1 + difficultyScore * 0.3);
-            }))
-            .orElseGet(() -> findFallbackSpace(vehicle));
+        queryVehicle = vehicle;
+        queryTime = clock.getAsDouble();
+        int slot = spaceTree.nearest(vehicle.getX(), vehicle.getY(), freeSuitableSpace);
+        queryVehicle = null;
+        if (slot < 0) {
+            slot = findFallbackSlot(vehicle, null, queryTime);
+        }
+        return slot >= 0 ? parkingSpaces.get(slot) : null;
+    }
+    
+    // Batch version of findOptimalParkingSpace for a wave of vehicles. Instead
+    // of each vehicle greedily taking its own best space, the spaces are
+    // auctioned so the total score is minimal and no two vehicles get the same
+    // one. Each vehicle bids on its nearest suitable spaces that are free or
+    // reserved by itself, one per vehicle in the wave (up to a cap); some
+    // optimal assignment only uses those, since a vehicle sent further could
+    // always swap to one of its nearer spaces left free. A vehicle with no suitable space gets a fallback
+    // space as in findOptimalParkingSpace, and one outbid for all of its spaces
+    // gets null. The pool, if any, searches candidates and computes bids in
+    // parallel; the result doesn't depend on it.
+    public ParkingSpace[] assignParkingSpaces(List<Vehicle> vehicles, ForkJoinPool pool) {
+        int count = vehicles.size();
+        int k = Math.max(1, Math.min(count, MAX_ASSIGNMENT_CANDIDATES));
+        int[] candidates = new int[count * k];
+        int[] found = new int[count];
+        double now = clock.getAsDouble();
+        if (pool != null && count > PARALLEL_BATCH_SIZE) {
+            pool.invoke(new CandidateSearchTask(vehicles, 0, count, k, now, candidates, found));
+        } else {
+            findCandidates(waveQuery, vehicles, 0, count, k, now, candidates, found);
+        }
+        
+        // Pack the candidates and their scores for the auction
+        int[] start = new int[count + 1];
+        for (int i = 0; i < count; i++) {
+            start[i + 1] = start[i] + found[i];
+        }
+        int[] object = new int[start[count]];
+        double[] cost = new double[start[count]];
+        double maxCost = 0;
+        for (int i = 0; i < count; i++) {
+            Vehicle vehicle = vehicles.get(i);
+            for (int c = 0; c < found[i]; c++) {
+                int slot = candidates[i * k + c];
+                ParkingSpace space = parkingSpaces.get(slot);
+                object[start[i] + c] = slot;
+                Point2D.Double location = space.getLocation();
+                cost[start[i] + c] = Point2D.distance(vehicle.getX(), vehicle.getY(), location.x, location.y)
+                    * getSpaceWeight(space.getType());
+                maxCost = Math.max(maxCost, cost[start[i] + c]);
+            }
+        }
+        
+        // Leaving a vehicle out costs more than sending it to any offered space
+        int[] assignment = new AuctionAssignment(start, object, cost, parkingSpaces.size(),
+            maxCost + 1, ASSIGNMENT_EPSILON).solve(pool);
+        
+        ParkingSpace[] result = new ParkingSpace[count];
+        boolean[] taken = new boolean[parkingSpaces.size()];
+        for (int i = 0; i < count; i++) {
+            if (assignment[i] != AuctionAssignment.UNASSIGNED) {
+                result[i] = parkingSpaces.get(assignment[i]);
+                taken[assignment[i]] = true;
+            }
+        }
+        for (int i = 0; i < count; i++) {
+            if (found[i] == 0) {
+                int slot = findFallbackSlot(vehicles.get(i), taken, now);
+                if (slot >= 0) {
+                    result[i] = parkingSpaces.get(slot);
+                    taken[slot] = true;
+                }
+            }
+        }
+        return result;
+    }
+    
+    // Finds the k best free, suitable spaces for each vehicle in [from, to)
+    private void findCandidates(ParkingSpaceTree.Query query, List<Vehicle> vehicles, int from, int to,
+                                int k, double now, int[] candidates, int[] found) {
+        int[] out = new int[k];
+        for (int i = from; i < to; i++) {
+            Vehicle vehicle = vehicles.get(i);
+            found[i] = query.nearest(vehicle.getX(), vehicle.getY(), k,
+                slot -> isFreeAndSuitable(vehicle, slot, now), out);
+            System.arraycopy(out, 0, candidates, i * k, found[i]);
+        }
+    }
+    
+    // Splits a wave into vehicle ranges, each searched with its own tree query
+    private class CandidateSearchTask extends RecursiveAction {
+        private final List<Vehicle> vehicles;
+        private final int from;
+        private final int to;
+        private final int k;
+        private final double now;
+        private final int[] candidates;
+        private final int[] found;
+        
+        CandidateSearchTask(List<Vehicle> vehicles, int from, int to, int k, double now,
+                            int[] candidates, int[] found) {
+            this.vehicles = vehicles;
+            this.from = from;
+            this.to = to;
+            this.k = k;
+            this.now = now;
+            this.candidates = candidates;
+            this.found = found;
+        }
+        
+        @Override
+        protected void compute() {
+            if (to - from <= PARALLEL_BATCH_SIZE) {
+                findCandidates(spaceTree.newQuery(), vehicles, from, to, k, now, candidates, found);
+                return;
+            }
+            
+            int middle = (from + to) >>> 1;
+            invokeAll(new CandidateSearchTask(vehicles, from, middle, k, now, candidates, found),
+                      new CandidateSearchTask(vehicles, middle, to, k, now, candidates, found));
+        }
+    }
+    
+    private boolean isFreeAndSuitable(Vehicle vehicle, int slot, double now) {
+        ParkingSpace space = parkingSpaces.get(slot);
+        return space.isAvailableTo(vehicle, now) && isSpaceSuitable(vehicle, space);
+    }
+
+    // Find a fallback space when no ideal space is available, skipping taken slots
+    private int findFallbackSlot(Vehicle vehicle, boolean[] taken, double now) {
+        for (int slot = occupancyIndex.nextFreeSlot(0); slot >= 0; slot = occupancyIndex.nextFreeSlot(slot + 1)) {
+            if (taken != null && taken[slot]) continue;
+            ParkingSpace space = occupancyIndex.getSpace(slot);
+            if (space.isAvailableTo(vehicle, now) &&
+                space.getWidth() >= vehicle.getWidth() && 
+                space.getLength() >= vehicle.getLength()) {
+                return slot;
+            }
+        }
+        return -1;
     }
 
-    // Find a fallback space when no ideal space is available
-    private ParkingSpace findFallbackSpace(Vehicle vehicle) {
-        return parkingSpaces.stream()
-            .filter(space -> !space.isOccupied())
-            .filter(space -> space.getWidth() >= vehicle.getWidth() && 
-                           space.getLength() >= vehicle.getLength())
-            .findFirst()
-            .orElse(null);
+    // Score multiplier per distance; obstacles can't be parked in, so they stay out of the tree
+    private double getSpaceWeight(ParkingSpaceType type) {
+        return type == ParkingSpaceType.OBSTACLE ? Double.NaN : 1 + getParkingDifficulty(type) * 0.3;
     }
 
     // Parking difficulty score (0=easy, 1=hard)
@@ -92,327 +260,115 @@ public class ParkingAlgorithm {
                space.getLength() >= requiredLength;
     }
 
-    // Enhanced parking procedure with path planning
-    public boolean parkVehicle(Vehicle vehicle, ParkingSpace space) {
-        if (space == null) return false;
-        
-        System.out.printf("Initiating parking maneuver for %s space at (%.2f,%.2f)%n",
-            space.getType(), space.getLocation().x, space.getLocation().y);
-        
-        try {
-            switch (space.getType()) {
-                case PARALLEL:
-                    return executeParallelPark(vehicle, space);
-                case PERPENDICULAR:
-                    return executePerpendicularPark(vehicle, space);
-                case ANGLE:
-                    return executeAnglePark(vehicle, space);
-                case COMPACT:
-                    return executeCompactPark(vehicle, space);
-                default:
-                    return executeStandardPark(vehicle, space);
-            }
-        } catch (Exception e) {
-            System.err.println("Parking failed: " + e.getMessage());
-            return false;
-        }
-    }
-    
-    // Advanced parallel parking algorithm
-    private boolean executeParallelPark(Vehicle vehicle, ParkingSpace space) {
-        System.out.println("Executing advanced parallel parking maneuver");
-        
-        // Step 1: Initial positioning alongside the space
-        Point2D.Double startPos = new Point2D.Double(
-            space.getLocation().x + space.getLength() * 0.7,
-            space.getLocation().y - vehicle.getWidth() - SAFE_DISTANCE);
-        
-        if (!moveVehicleTo(vehicle, startPos, 90, 0.3)) {
-            System.out.println("Failed to reach initial position");
-            return false;
-        }
-        
-        // Step 2: Begin reverse maneuver with steering
-        double reverseDistance = space.getLength() * 0.6;
-        if (!reverseWithSteering(vehicle, -30, reverseDistance, 0.15)) {
-            System.out.println("Failed first reverse maneuver");
-            return false;
-        }
-        
-        // Step 3: Counter-steer to straighten vehicle
-        reverseDistance = space.getLength() * 0.4;
-        if (!reverseWithSteering(vehicle, 30, reverseDistance, 0.15)) {
-            System.out.println("Failed counter-steering maneuver");
-            return false;
-        }
-        
-        // Step 4: Final adjustments
-        if (!centerInSpace(vehicle, space)) {
-            System.out.println("Failed final positioning");
-            return false;
-        }
-        
-        space.setOccupied(true);
-        System.out.println("Parallel parking completed successfully");
-        return true;
-    }
-    
-    // Enhanced perpendicular parking with turning radius consideration
-    private boolean executePerpendicularPark(Vehicle vehicle, ParkingSpace space) {
-        System.out.println("Executing perpendicular parking with turning radius");
-        
-        // Calculate approach path considering turning radius
-        double approachDistance = Math.max(
-            vehicle.getLength() * 1.5,
-            MIN_TURNING_RADIUS * 0.8);
-        
-        Point2D.Double approachPos = new Point2D.Double(
-            space.getLocation().x,
-            space.getLocation().y - approachDistance);
-        
-        if (!moveVehicleTo(vehicle, approachPos, 0, 0.3)) {
-            System.out.println("Failed to reach approach position");
-            return false;
-        }
-        
-        // Execute turn into space
-        double entryDistance = space.getLength() * 0.8;
-        if (!driveWithSteering(vehicle, 0, entryDistance, 0.2)) {
-            System.out.println("Failed entry maneuver");
-            return false;
+    // Plans a path into the space with Hybrid A* and returns the maneuver that
+    // drives it, or null if there is no path. The vehicle ends centered in the
+    // space, facing along it in whichever direction is closer to its current
+    // heading. Nothing moves until the maneuver is advanced.
+    public ParkingManeuver beginParking(Vehicle vehicle, ParkingSpace space) {
+        if (space == null) return null;
+        
+        Point2D.Double goal = space.getCenter();
+        double goalAngle = Math.abs(normalizeAngle(vehicle.getAngle())) <= 90 ? 0 : 180;
+        if (!planner.plan(vehicle.getLength(), vehicle.getWidth(),
+                          vehicle.getX(), vehicle.getY(), vehicle.getAngle(),
+                          goal.x, goal.y, goalAngle, clearanceAround(vehicle, space), plannedPath)) {
+            return null;
         }
         
-        if (!centerInSpace(vehicle, space)) {
-            System.out.println("Failed final positioning");
-            return false;
-        }
-        
-        space.setOccupied(true);
-        System.out.println("Perpendicular parking completed successfully");
-        return true;
+        // The vehicle keeps its speed until the maneuver drives it next tick
+        return new ParkingManeuver(vehicle, space, plannedPath);
     }
     
-    // Realistic angle parking implementation
-    private boolean executeAnglePark(Vehicle vehicle, ParkingSpace space) {
-        System.out.println("Executing angled parking maneuver");
-        
-        double angle = 45; // Standard parking angle
-        double approachDistance = vehicle.getLength() * 2.0;
-        
-        Point2D.Double approachPos = new Point2D.Double(
-            space.getLocation().x - Math.cos(Math.toRadians(angle)) * approachDistance,
-            space.getLocation().y - Math.sin(Math.toRadians(angle)) * approachDistance);
-        
-        if (!moveVehicleTo(vehicle, approachPos, 0, 0.3)) {
-            System.out.println("Failed to reach approach position");
-            return false;
-        }
-        
-        // Turn to align with parking angle
-        if (!rotateVehicle(vehicle, angle, 0.1)) {
-            System.out.println("Failed to align with parking angle");
-            return false;
-        }
-        
-        // Drive into space
-        double entryDistance = space.getLength() * 0.9;
-        if (!driveWithSteering(vehicle, 0, entryDistance, 0.2)) {
-            System.out.println("Failed to enter parking space");
-            return false;
-        }
-        
-        if (!centerInSpace(vehicle, space)) {
-            System.out.println("Failed final positioning");
-            return false;
-        }
-        
-        space.setOccupied(true);
-        System.out.println("Angled parking completed successfully");
-        return true;
-    }
-    
-    // Compact space parking with precise movements
-    private boolean executeCompactPark(Vehicle vehicle, ParkingSpace space) {
-        System.out.println("Executing compact space parking");
-        
-        // Need extra precision for compact spaces
-        double approachDistance = vehicle.getLength() * 1.2;
-        Point2D.Double approachPos = new Point2D.Double(
-            space.getLocation().x,
-            space.getLocation().y - approachDistance);
-        
-        if (!moveVehicleTo(vehicle, approachPos, 0, 0.2)) {
-            System.out.println("Failed to reach approach position");
-            return false;
-        }
-        
-        // Slow, precise entry
-        double entryDistance = space.getLength() * 0.7;
-        if (!driveWithSteering(vehicle, 0, entryDistance, 0.1)) {
-            System.out.println("Failed precise entry");
-            return false;
-        }
-        
-        if (!centerInSpace(vehicle, space, 0.05)) {
-            System.out.println("Failed precise positioning");
-            return false;
+    // Drives a maneuver for one tick. The plan was checked at its poses, so
+    // every pose passed this tick is checked again in case something moved
+    // into the way; at the end of the path the vehicle takes the space.
+    public ParkingManeuver.Status advanceManeuver(ParkingManeuver maneuver, double deltaTime) {
+        if (maneuver.getStatus() != ParkingManeuver.Status.DRIVING) return maneuver.getStatus();
+        
+        Vehicle vehicle = maneuver.getVehicle();
+        HybridAStarPlanner.Path path = maneuver.getPath();
+        int from = maneuver.getPoseIndex();
+        maneuver.drive(deltaTime);
+        if (maneuver.getPoseIndex() > from) {
+            HybridAStarPlanner.ClearanceMap clearance = clearanceAround(vehicle, maneuver.getSpace());
+            for (int i = from + 1; i <= maneuver.getPoseIndex(); i++) {
+                if (checkCollision(vehicle, path.getX(i), path.getY(i), path.getHeading(i), clearance)) {
+                    return maneuver.finish(ParkingManeuver.Status.FAILED);
+                }
+            }
         }
         
-        space.setOccupied(true);
-        System.out.println("Compact parking completed successfully");
-        return true;
+        if (!maneuver.isAtEnd()) return ParkingManeuver.Status.DRIVING;
+        return maneuver.finish(occupySpace(vehicle, maneuver.getSpace())
+            ? ParkingManeuver.Status.PARKED : ParkingManeuver.Status.FAILED);
     }
     
-    // Standard parking procedure
-    private boolean executeStandardPark(Vehicle vehicle, ParkingSpace space) {
-        System.out.println("Executing standard parking procedure");
-        
-        if (!moveVehicleTo(vehicle, space.getLocation(), 0, 0.3)) {
-            System.out.println("Failed to reach parking position");
-            return false;
-        }
-        
-        space.setOccupied(true);
-        System.out.println("Standard parking completed");
-        return true;
+    // Clearance from the distance field when there is one, otherwise from the
+    // boxes around the vehicle and the space
+    private HybridAStarPlanner.ClearanceMap clearanceAround(Vehicle vehicle, ParkingSpace space) {
+        if (fieldClearance != null) return fieldClearance;
+        Point2D.Double goal = space.getCenter();
+        collectObstacles(space, vehicle.getX(), vehicle.getY(), goal.x, goal.y);
+        return obstacleClearance;
     }
     
-    // Enhanced vehicle movement with collision checking
-    private boolean moveVehicleTo(Vehicle vehicle, Point2D.Double target, 
-                                double targetAngle, double precision) {
-        // Simulated movement with multiple steps
-        int maxSteps = 100;
-        double stepSize = 0.05;
-        
-        for (int i = 0; i < maxSteps; i++) {
-            double dx = target.x - vehicle.getPosition().x;
-            double dy = target.y - vehicle.getPosition().y;
-            double distance = Math.sqrt(dx*dx + dy*dy);
-            
-            if (distance < precision && 
-                Math.abs(normalizeAngle(vehicle.getAngle() - targetAngle)) < 5) {
-                return true;
+    // Gathers the boxes of occupied spaces and obstacles near the planner's
+    // search area, leaving out the target itself
+    private void collectObstacles(ParkingSpace target, double startX, double startY,
+                                  double goalX, double goalY) {
+        double minX = Math.min(startX, goalX) - PLANNER_SEARCH_RADIUS;
+        double minY = Math.min(startY, goalY) - PLANNER_SEARCH_RADIUS;
+        double maxX = Math.max(startX, goalX) + PLANNER_SEARCH_RADIUS;
+        double maxY = Math.max(startY, goalY) + PLANNER_SEARCH_RADIUS;
+        obstacleCount = 0;
+        for (ParkingSpace space : parkingSpaces) {
+            if (space == target) continue;
+            if (!space.isOccupied() && space.getType() != ParkingSpaceType.OBSTACLE) continue;
+            Point2D.Double location = space.getLocation();
+            if (location.x > maxX || location.y > maxY
+                    || location.x + space.getLength() < minX || location.y + space.getWidth() < minY) {
+                continue;
             }
-            
-            // Simple movement model (would be replaced with proper kinematics)
-            double angleToTarget = Math.toDegrees(Math.atan2(dy, dx));
-            double angleDiff = normalizeAngle(angleToTarget - vehicle.getAngle());
-            
-            // Adjust steering based on angle difference
-            double steer = Math.max(-30, Math.min(30, angleDiff * 0.5));
-            
-            // Move vehicle
-            vehicle.move(steer, stepSize * (distance > 1.0 ? 1.0 : 0.3));
-            
-            // Check for collisions (simplified)
-            if (checkCollision(vehicle)) {
-                System.out.println("Collision detected during movement");
-                return false;
+            if (obstacleCount * 4 == obstacleBoxes.length) {
+                obstacleBoxes = Arrays.copyOf(obstacleBoxes, obstacleBoxes.length * 2);
             }
+            int k = obstacleCount++ * 4;
+            obstacleBoxes[k] = location.x;
+            obstacleBoxes[k + 1] = location.y;
+            obstacleBoxes[k + 2] = location.x + space.getLength();
+            obstacleBoxes[k + 3] = location.y + space.getWidth();
         }
-        
-        return false;
     }
     
-    // Helper method to reverse with steering
-    private boolean reverseWithSteering(Vehicle vehicle, double steerAngle, 
-                                      double distance, double stepSize) {
-        int steps = (int)(distance / stepSize);
-        
-        for (int i = 0; i < steps; i++) {
-            vehicle.move(steerAngle, -stepSize);
-            
-            if (checkCollision(vehicle)) {
-                System.out.println("Collision detected while reversing");
-                return false;
-            }
+    // Distance from a point to the nearest collected box
+    private double clearance(double x, double y) {
+        double nearest = PLANNER_SEARCH_RADIUS;
+        for (int k = 0; k < obstacleCount * 4; k += 4) {
+            double dx = Math.max(0, Math.max(obstacleBoxes[k] - x, x - obstacleBoxes[k + 2]));
+            double dy = Math.max(0, Math.max(obstacleBoxes[k + 1] - y, y - obstacleBoxes[k + 3]));
+            nearest = Math.min(nearest, Math.sqrt(dx * dx + dy * dy));
         }
-        
-        return true;
-    }
-    
-    // Helper method to drive forward with steering
-    private boolean driveWithSteering(Vehicle vehicle, double steerAngle, 
-                                    double distance, double stepSize) {
-        int steps = (int)(distance / stepSize);
-        
-        for (int i = 0; i < steps; i++) {
-            vehicle.move(steerAngle, stepSize);
-            
-            if (checkCollision(vehicle)) {
-                System.out.println("Collision detected while driving");
-                return false;
-            }
-        }
-        
-        return true;
+        return nearest;
     }
     
-    // Helper method to rotate vehicle
-    private boolean rotateVehicle(Vehicle vehicle, double targetAngle, double precision) {
-        int maxSteps = 50;
-        double stepSize = 2.0; // degrees per step
-        
-        for (int i = 0; i < maxSteps; i++) {
-            double angleDiff = normalizeAngle(targetAngle - vehicle.getAngle());
-            
-            if (Math.abs(angleDiff) < precision) {
-                return true;
-            }
-            
-            double rotation = Math.max(-stepSize, Math.min(stepSize, angleDiff * 0.3));
-            vehicle.rotate(rotation);
-            
-            if (checkCollision(vehicle)) {
-                System.out.println("Collision detected while rotating");
-                return false;
-            }
+    // Covers the vehicle at the given pose with circles along its axis,
+    // as the planner does, and reports a collision when any of them lacks room
+    private boolean checkCollision(Vehicle vehicle, double x, double y, double heading,
+                                   HybridAStarPlanner.ClearanceMap clearance) {
+        double length = vehicle.getLength();
+        double radius = HybridAStarPlanner.circleRadius(length, vehicle.getWidth());
+        double angle = Math.toRadians(heading);
+        double dx = Math.cos(angle) * HybridAStarPlanner.circleSpacing(length);
+        double dy = Math.sin(angle) * HybridAStarPlanner.circleSpacing(length);
+        for (int k = -HybridAStarPlanner.COVERING_CIRCLES / 2; k <= HybridAStarPlanner.COVERING_CIRCLES / 2; k++) {
+            if (!clearance.isClear(x + dx * k, y + dy * k, radius)) return true;
         }
-        
         return false;
     }
     
-    // Enhanced centering in space with precision parameter
-    private boolean centerInSpace(Vehicle vehicle, ParkingSpace space, double precision) {
-        Point2D.Double targetPos;
-        double targetAngle;
-        
-        switch (space.getType()) {
-            case PARALLEL:
-                targetPos = new Point2D.Double(
-                    space.getLocation().x + space.getLength()/2,
-                    space.getLocation().y + vehicle.getWidth()/2);
-                targetAngle = 90;
-                break;
-            case PERPENDICULAR:
-                targetPos = new Point2D.Double(
-                    space.getLocation().x + vehicle.getWidth()/2,
-                    space.getLocation().y + space.getLength()/2);
-                targetAngle = 0;
-                break;
-            case ANGLE:
-                targetPos = new Point2D.Double(
-                    space.getLocation().x + space.getLength() * 0.4,
-                    space.getLocation().y + space.getWidth() * 0.4);
-                targetAngle = 45;
-                break;
-            default:
-                targetPos = space.getLocation();
-                targetAngle = 0;
-        }
-        
-        return moveVehicleTo(vehicle, targetPos, targetAngle, precision);
-    }
-    
-    private boolean centerInSpace(Vehicle vehicle, ParkingSpace space) {
-        return centerInSpace(vehicle, space, PARKING_PRECISION);
-    }
-    
-    // Basic collision detection
-    private boolean checkCollision(Vehicle vehicle) {
-        // Simplified collision check - would be implemented with proper geometry
-        // in a real simulation
-        return false;
+    // Takes the space at the end of a maneuver, unless another vehicle got it first
+    private boolean occupySpace(Vehicle vehicle, ParkingSpace space) {
+        return space.confirmReservation(vehicle, clock.getAsDouble());
     }
     
     // Helper method to normalize angles to [-180,180] range
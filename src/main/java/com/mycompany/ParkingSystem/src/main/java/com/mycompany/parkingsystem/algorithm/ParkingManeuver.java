@@ -0,0 +1,179 @@
+package com.mycompany.parkingsystem.algorithm;
+
+import com.mycompany.parkingsystem.model.ParkingSpace;
+import com.mycompany.parkingsystem.model.Vehicle;
+
+import java.nio.ByteBuffer;
+
+/**
+ * A parking maneuver in progress: a planned path that its vehicle drives a
+ * tick at a time.
+ *
+ * Each {@link ParkingAlgorithm#advanceManeuver} moves the vehicle along the
+ * path by the distance it covers in that tick, at {@value #FORWARD_SPEED} m/s
+ * forward and {@value #REVERSE_SPEED} m/s in reverse, and ends the tick early
+ * at every change of direction. The maneuver keeps its own copy of the path,
+ * so any number of vehicles can be parking at once. Nothing happens between
+ * calls, and a maneuver can be saved and restored with its progress.
+ */
+public class ParkingManeuver {
+
+    public enum Status {
+        DRIVING,
+        PARKED,
+        FAILED
+    }
+
+    static final double FORWARD_SPEED = 1.5; // m/s, walking pace
+    static final double REVERSE_SPEED = 1.0; // m/s
+
+    private final Vehicle vehicle;
+    private final ParkingSpace space;
+    private final HybridAStarPlanner.Path path = new HybridAStarPlanner.Path();
+    private int pose = 0; // last path pose the vehicle passed
+    private double along = 0; // meters driven past it
+    private Status status = Status.DRIVING;
+
+    ParkingManeuver(Vehicle vehicle, ParkingSpace space, HybridAStarPlanner.Path plan) {
+        this.vehicle = vehicle;
+        this.space = space;
+        this.path.copyFrom(plan);
+    }
+
+    public Vehicle getVehicle() {
+        return vehicle;
+    }
+
+    public ParkingSpace getSpace() {
+        return space;
+    }
+
+    public HybridAStarPlanner.Path getPath() {
+        return path;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    /** Returns the index of the last path pose the vehicle passed. */
+    public int getPoseIndex() {
+        return pose;
+    }
+
+    /** Returns the seconds of driving left, not counting stops at direction changes. */
+    public double getRemainingTime() {
+        double time = -along / speed(pose + 1);
+        for (int i = pose + 1; i < path.size(); i++) {
+            time += segmentLength(i - 1) / speed(i);
+        }
+        return Math.max(0, time);
+    }
+
+    boolean isAtEnd() {
+        return pose >= path.size() - 1;
+    }
+
+    Status finish(Status status) {
+        this.status = status;
+        return status;
+    }
+
+    /**
+     * Drives the vehicle for up to deltaTime seconds, stopping at the end of
+     * the path or at a change of direction, and moves it along the path.
+     */
+    void drive(double deltaTime) {
+        int last = path.size() - 1;
+        double remaining = deltaTime;
+        double speed = 0; // signed speed of the segment driven last, zero when standing
+        while (pose < last && remaining > 0) {
+            double segmentSpeed = speed(pose + 1);
+            speed = path.isReverse(pose + 1) ? -segmentSpeed : segmentSpeed;
+            double left = segmentLength(pose) - along;
+            if (left > remaining * segmentSpeed) {
+                along += remaining * segmentSpeed;
+                break;
+            }
+            remaining -= left / segmentSpeed;
+            pose++;
+            along = 0;
+            if (pose < last && path.isReverse(pose + 1) != path.isReverse(pose)) {
+                speed = 0; // shifting gear takes the rest of the tick
+                break;
+            }
+        }
+        if (pose >= last) speed = 0;
+        place(speed);
+    }
+
+    // Moves the vehicle to its progress along the current segment. This is
+    // driving, not a jump, so the tick's swept collision check sees it.
+    private void place(double speed) {
+        int next = Math.min(pose + 1, path.size() - 1);
+        double length = segmentLength(pose);
+        double fraction = length > 0 ? along / length : 0;
+        double x = path.getX(pose) + (path.getX(next) - path.getX(pose)) * fraction;
+        double y = path.getY(pose) + (path.getY(next) - path.getY(pose)) * fraction;
+        double turn = path.getHeading(next) - path.getHeading(pose);
+        turn = ((turn + 180) % 360 + 360) % 360 - 180;
+        double heading = path.getHeading(pose) + turn * fraction;
+        vehicle.followPath(x, y, (heading % 360 + 360) % 360, speed);
+    }
+
+    // Length of the segment from a pose to the next, zero past the end
+    private double segmentLength(int from) {
+        if (from + 1 >= path.size()) return 0;
+        return Math.hypot(path.getX(from + 1) - path.getX(from), path.getY(from + 1) - path.getY(from));
+    }
+
+    // Speed on the segment that ends at a pose
+    private double speed(int to) {
+        return to < path.size() && path.isReverse(to) ? REVERSE_SPEED : FORWARD_SPEED;
+    }
+
+    /**
+     * Returns the number of bytes {@link #writeState} needs.
+     */
+    public int stateSizeBytes() {
+        return 2 * Integer.BYTES + Double.BYTES + path.size() * (3 * Double.BYTES + 1);
+    }
+
+    /**
+     * Writes the path and the progress along it.
+     */
+    public void writeState(ByteBuffer out) {
+        out.putInt(path.size());
+        for (int i = 0; i < path.size(); i++) {
+            out.putDouble(path.getX(i));
+            out.putDouble(path.getY(i));
+            out.putDouble(path.getHeading(i));
+            out.put((byte) (path.isReverse(i) ? 1 : 0));
+        }
+        out.putInt(pose);
+        out.putDouble(along);
+    }
+
+    /**
+     * Reads a maneuver written by {@link #writeState} for the given vehicle
+     * and space. The vehicle is not moved until the next advance.
+     */
+    public static ParkingManeuver readState(ByteBuffer in, Vehicle vehicle, ParkingSpace space) {
+        int size = in.getInt();
+        if (size < 1) {
+            throw new IllegalArgumentException("Saved maneuver has no path");
+        }
+        HybridAStarPlanner.Path path = new HybridAStarPlanner.Path();
+        for (int i = 0; i < size; i++) {
+            path.addDegrees(in.getDouble(), in.getDouble(), in.getDouble(), in.get() != 0);
+        }
+        ParkingManeuver maneuver = new ParkingManeuver(vehicle, space, path);
+        int pose = in.getInt();
+        if (pose < 0 || pose >= size) {
+            throw new IllegalArgumentException("Saved maneuver progress is off its path");
+        }
+        maneuver.pose = pose;
+        maneuver.along = in.getDouble();
+        return maneuver;
+    }
+}
@@ -0,0 +1,390 @@
+package com.mycompany.parkingsystem.algorithm;
+
+import com.mycompany.parkingsystem.model.ParkingSpace;
+import com.mycompany.parkingsystem.model.ParkingSpaceType;
+
+import java.awt.geom.Point2D;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Static R-tree over parking space locations, bulk loaded with
+ * Sort-Tile-Recursive packing, for nearest-space queries.
+ *
+ * Each space has a weight and its score from a query point is the distance
+ * to its location times that weight. {@link #nearest} does a best-first
+ * search ordered by score: nodes are keyed by the distance to their box
+ * times the smallest weight inside, which never exceeds the score of any
+ * space below them, so spaces come out in increasing score and the search
+ * stops as soon as it has accepted enough of them. Ties are broken by list
+ * position, so results match a linear scan over the list exactly.
+ *
+ * The layout never changes after construction; occupancy and suitability are
+ * checked through a {@link SlotFilter} at query time. All storage, including
+ * the search queue, is allocated up front, so a query allocates nothing. The
+ * tree's own {@link #nearest} methods share one queue and must not run
+ * concurrently; other threads each take their own {@link Query}.
+ */
+public class ParkingSpaceTree {
+
+    /**
+     * Decides whether the space at a list position may be returned.
+     */
+    @FunctionalInterface
+    public interface SlotFilter {
+        boolean accept(int slot);
+    }
+
+    /**
+     * Gives the score multiplier for a type, at least 0. Types mapped to NaN
+     * are left out of the tree.
+     */
+    @FunctionalInterface
+    public interface TypeWeight {
+        double weight(ParkingSpaceType type);
+    }
+
+    private static final int NODE_CAPACITY = 16;
+
+    // Entries, in packed order
+    private final double[] itemX;
+    private final double[] itemY;
+    private final double[] itemWeight;
+    private final int[] itemSlot;
+
+    // Nodes, leaves first and the root last; children are contiguous
+    private final double[] nodeMinX;
+    private final double[] nodeMinY;
+    private final double[] nodeMaxX;
+    private final double[] nodeMaxY;
+    private final double[] nodeMinWeight;
+    private final int[] nodeFirst; // first child node, or first item for leaves
+    private final int[] nodeCount;
+    private final int leafCount;
+    private final int root;
+
+    private final Query query;
+
+    /**
+     * @param spaces Spaces to index; results are positions in this list
+     * @param weights Score multiplier per space type
+     */
+    public ParkingSpaceTree(List<ParkingSpace> spaces, TypeWeight weights) {
+        int[] order = new int[spaces.size()];
+        int n = 0;
+        for (int slot = 0; slot < spaces.size(); slot++) {
+            if (!Double.isNaN(weights.weight(spaces.get(slot).getType()))) {
+                order[n++] = slot;
+            }
+        }
+
+        double[] x = new double[spaces.size()];
+        double[] y = new double[spaces.size()];
+        for (int k = 0; k < n; k++) {
+            Point2D.Double location = spaces.get(order[k]).getLocation();
+            x[order[k]] = location.x;
+            y[order[k]] = location.y;
+        }
+        int[] packed = strOrder(Arrays.copyOf(order, n), x, y);
+
+        itemX = new double[n];
+        itemY = new double[n];
+        itemWeight = new double[n];
+        itemSlot = new int[n];
+        for (int k = 0; k < n; k++) {
+            int slot = packed[k];
+            itemX[k] = x[slot];
+            itemY[k] = y[slot];
+            itemWeight[k] = weights.weight(spaces.get(slot).getType());
+            itemSlot[k] = slot;
+        }
+
+        // Size the node arrays for every level, then pack level by level
+        int nodes = 0;
+        for (int level = Math.max(1, ceilDiv(n, NODE_CAPACITY)); ; level = ceilDiv(level, NODE_CAPACITY)) {
+            nodes += level;
+            if (level == 1) break;
+        }
+        nodeMinX = new double[nodes];
+        nodeMinY = new double[nodes];
+        nodeMaxX = new double[nodes];
+        nodeMaxY = new double[nodes];
+        nodeMinWeight = new double[nodes];
+        nodeFirst = new int[nodes];
+        nodeCount = new int[nodes];
+
+        int built = 0;
+        for (int first = 0; first < n || built == 0; first += NODE_CAPACITY) {
+            int count = Math.min(NODE_CAPACITY, n - first);
+            initNode(built, first, count);
+            for (int k = first; k < first + count; k++) {
+                extend(built, itemX[k], itemY[k], itemX[k], itemY[k], itemWeight[k]);
+            }
+            built++;
+        }
+        leafCount = built;
+
+        int levelStart = 0;
+        int levelSize = leafCount;
+        while (levelSize > 1) {
+            int[] children = new int[levelSize];
+            for (int k = 0; k < levelSize; k++) {
+                children[k] = levelStart + k;
+            }
+            double[] cx = new double[nodes];
+            double[] cy = new double[nodes];
+            for (int child : children) {
+                cx[child] = (nodeMinX[child] + nodeMaxX[child]) / 2;
+                cy[child] = (nodeMinY[child] + nodeMaxY[child]) / 2;
+            }
+            children = strOrder(children, cx, cy);
+
+            // Children of one parent must be contiguous, so copy them into place
+            int nextStart = levelStart + levelSize;
+            int parent = nextStart;
+            reorderLevel(levelStart, children);
+            for (int first = 0; first < levelSize; first += NODE_CAPACITY) {
+                int count = Math.min(NODE_CAPACITY, levelSize - first);
+                initNode(parent, levelStart + first, count);
+                for (int c = levelStart + first; c < levelStart + first + count; c++) {
+                    extend(parent, nodeMinX[c], nodeMinY[c], nodeMaxX[c], nodeMaxY[c], nodeMinWeight[c]);
+                }
+                parent++;
+            }
+            levelStart = nextStart;
+            levelSize = parent - nextStart;
+        }
+        root = levelStart;
+        query = new Query();
+    }
+
+    public int size() {
+        return itemSlot.length;
+    }
+
+    /**
+     * Returns the list position of the accepted space with the lowest score
+     * from (x, y), or -1 if the filter accepts none.
+     */
+    public int nearest(double x, double y, SlotFilter filter) {
+        return query.nearest(x, y, filter);
+    }
+
+    /**
+     * Finds up to k accepted spaces with the lowest scores from (x, y).
+     * @param out Receives list positions in increasing score order
+     * @return Number of spaces found
+     */
+    public int nearest(double x, double y, int k, SlotFilter filter, int[] out) {
+        return query.nearest(x, y, k, filter, out);
+    }
+
+    /**
+     * Returns a new search queue over this tree, for a thread that queries it
+     * alongside others.
+     */
+    public Query newQuery() {
+        return new Query();
+    }
+
+    private double boxDistance(int node, double x, double y) {
+        double dx = Math.max(0, Math.max(nodeMinX[node] - x, x - nodeMaxX[node]));
+        double dy = Math.max(0, Math.max(nodeMinY[node] - y, y - nodeMaxY[node]));
+        return Math.sqrt(dx * dx + dy * dy);
+    }
+
+    private void initNode(int node, int first, int count) {
+        nodeMinX[node] = Double.POSITIVE_INFINITY;
+        nodeMinY[node] = Double.POSITIVE_INFINITY;
+        nodeMaxX[node] = Double.NEGATIVE_INFINITY;
+        nodeMaxY[node] = Double.NEGATIVE_INFINITY;
+        nodeMinWeight[node] = Double.POSITIVE_INFINITY;
+        nodeFirst[node] = first;
+        nodeCount[node] = count;
+    }
+
+    private void extend(int node, double x0, double y0, double x1, double y1, double weight) {
+        nodeMinX[node] = Math.min(nodeMinX[node], x0);
+        nodeMinY[node] = Math.min(nodeMinY[node], y0);
+        nodeMaxX[node] = Math.max(nodeMaxX[node], x1);
+        nodeMaxY[node] = Math.max(nodeMaxY[node], y1);
+        nodeMinWeight[node] = Math.min(nodeMinWeight[node], weight);
+    }
+
+    /**
+     * Rearranges the nodes of one level into packed order. Their parents
+     * don't exist yet, so nothing else refers to their positions.
+     */
+    private void reorderLevel(int levelStart, int[] packed) {
+        int size = packed.length;
+        for (double[] field : new double[][] {nodeMinX, nodeMinY, nodeMaxX, nodeMaxY, nodeMinWeight}) {
+            double[] copy = Arrays.copyOfRange(field, levelStart, levelStart + size);
+            for (int k = 0; k < size; k++) {
+                field[levelStart + k] = copy[packed[k] - levelStart];
+            }
+        }
+        for (int[] field : new int[][] {nodeFirst, nodeCount}) {
+            int[] copy = Arrays.copyOfRange(field, levelStart, levelStart + size);
+            for (int k = 0; k < size; k++) {
+                field[levelStart + k] = copy[packed[k] - levelStart];
+            }
+        }
+    }
+
+    /**
+     * Sort-Tile-Recursive order: sort by x, cut into vertical slices of
+     * whole nodes, then sort each slice by y.
+     */
+    private static int[] strOrder(int[] ids, double[] x, double[] y) {
+        int n = ids.length;
+        Integer[] boxed = new Integer[n];
+        for (int k = 0; k < n; k++) {
+            boxed[k] = ids[k];
+        }
+        Arrays.sort(boxed, Comparator.comparingDouble((Integer id) -> x[id]).thenComparingInt(id -> id));
+
+        int nodes = ceilDiv(n, NODE_CAPACITY);
+        int slices = (int) Math.ceil(Math.sqrt(nodes));
+        int sliceSize = slices * NODE_CAPACITY;
+        for (int start = 0; start < n; start += sliceSize) {
+            Arrays.sort(boxed, start, Math.min(n, start + sliceSize),
+                Comparator.comparingDouble((Integer id) -> y[id]).thenComparingInt(id -> id));
+        }
+
+        int[] result = new int[n];
+        for (int k = 0; k < n; k++) {
+            result[k] = boxed[k];
+        }
+        return result;
+    }
+
+    private static int ceilDiv(int a, int b) {
+        return (a + b - 1) / b;
+    }
+
+    /**
+     * Best-first search state. Each query object serves one thread at a time.
+     */
+    public final class Query {
+        // Binary heap of (key, entry); entry >= 0 is a node, ~i is item i
+        private final double[] heapKey = new double[nodeFirst.length + itemSlot.length];
+        private final int[] heapEntry = new int[nodeFirst.length + itemSlot.length];
+        private int heapSize;
+        private final int[] single = new int[1];
+        private double[] topKeys = new double[1];
+
+        private Query() {
+        }
+
+        /** See {@link ParkingSpaceTree#nearest(double, double, SlotFilter)}. */
+        public int nearest(double x, double y, SlotFilter filter) {
+            return nearest(x, y, 1, filter, single) == 1 ? single[0] : -1;
+        }
+
+        /** See {@link ParkingSpaceTree#nearest(double, double, int, SlotFilter, int[])}. */
+        public int nearest(double x, double y, int k, SlotFilter filter, int[] out) {
+            if (k > out.length) {
+                throw new IllegalArgumentException("Output array is shorter than k");
+            }
+            if (topKeys.length < k) {
+                topKeys = new double[k];
+            }
+            int found = 0;
+            int queued = 0; // accepted spaces pushed so far, their lowest k keys in topKeys
+            double bound = Double.POSITIVE_INFINITY; // k-th lowest queued key
+            heapSize = 0;
+            if (itemSlot.length > 0 && k > 0) {
+                push(boxDistance(root, x, y) * nodeMinWeight[root], root);
+            }
+
+            while (heapSize > 0 && found < k) {
+                int entry = heapEntry[0];
+                pop();
+
+                if (entry < 0) {
+                    out[found++] = itemSlot[~entry];
+                } else if (entry < leafCount) {
+                    // Filter before queueing, so rejected spaces never touch the heap
+                    for (int i = nodeFirst[entry], end = i + nodeCount[entry]; i < end; i++) {
+                        double key = Point2D.distance(x, y, itemX[i], itemY[i]) * itemWeight[i];
+                        if (key > bound || !filter.accept(itemSlot[i])) continue;
+                        push(key, ~i);
+                        queued = insertTopKey(key, queued, k);
+                        if (queued == k) {
+                            bound = topKeys[k - 1];
+                        }
+                    }
+                } else {
+                    for (int c = nodeFirst[entry], end = c + nodeCount[entry]; c < end; c++) {
+                        double key = boxDistance(c, x, y) * nodeMinWeight[c];
+                        if (key <= bound) {
+                            push(key, c);
+                        }
+                    }
+                }
+            }
+            return found;
+        }
+
+        /**
+         * Adds a key to the sorted list of the k lowest queued keys.
+         * @return New number of keys in the list
+         */
+        private int insertTopKey(double key, int count, int k) {
+            int i = Math.min(count, k - 1);
+            if (count == k && key >= topKeys[i]) return count;
+            while (i > 0 && topKeys[i - 1] > key) {
+                topKeys[i] = topKeys[i - 1];
+                i--;
+            }
+            topKeys[i] = key;
+            return Math.min(count + 1, k);
+        }
+
+        private boolean before(int a, int b) {
+            if (heapKey[a] != heapKey[b]) return heapKey[a] < heapKey[b];
+            int ea = heapEntry[a];
+            int eb = heapEntry[b];
+            // Expand nodes before reporting equal-score spaces, then go by list position
+            if ((ea >= 0) != (eb >= 0)) return ea >= 0;
+            return ea >= 0 || itemSlot[~ea] < itemSlot[~eb];
+        }
+
+        private void push(double key, int entry) {
+            int i = heapSize++;
+            heapKey[i] = key;
+            heapEntry[i] = entry;
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (!before(i, parent)) break;
+                swap(i, parent);
+                i = parent;
+            }
+        }
+
+        private void pop() {
+            heapSize--;
+            heapKey[0] = heapKey[heapSize];
+            heapEntry[0] = heapEntry[heapSize];
+            int i = 0;
+            while (true) {
+                int left = 2 * i + 1;
+                if (left >= heapSize) break;
+                int child = left + 1 < heapSize && before(left + 1, left) ? left + 1 : left;
+                if (!before(child, i)) break;
+                swap(i, child);
+                i = child;
+            }
+        }
+
+        private void swap(int a, int b) {
+            double key = heapKey[a];
+            heapKey[a] = heapKey[b];
+            heapKey[b] = key;
+            int entry = heapEntry[a];
+            heapEntry[a] = heapEntry[b];
+            heapEntry[b] = entry;
+        }
+    }
+}
@@ -0,0 +1,550 @@
+package com.mycompany.parkingsystem.algorithm;
+
+import java.util.Arrays;
+
+/**
+ * Shortest paths for a car that drives forward and in reverse with a
+ * bounded turning radius and no obstacles (Reeds and Shepp, 1990).
+ *
+ * Every shortest path is a chain of at most five arcs at full lock and
+ * straight segments, from a small set of families. The solver evaluates each
+ * family in closed form on the goal pose relative to the start, scaled to a
+ * unit turning radius, and keeps the shortest. Families are derived from
+ * eight base formulas by mirroring the goal in time (driving the path in
+ * reverse), across the x axis (swapping left and right turns) and by
+ * running the path backwards, which gives 44 candidates.
+ *
+ * Solving all of them is cheap but not free, and planners ask about the same
+ * relative poses over and over, so the winning family is remembered in an
+ * LRU cache keyed by the relative pose quantized to
+ * {@value #POSITION_QUANTUM} turning radii and {@value #HEADING_BINS}
+ * headings. A cache hit re-evaluates only that family at the exact pose, so
+ * curves always end exactly on the goal; near a boundary between families
+ * the cached one may be slightly longer than the true shortest. A solver is
+ * not thread-safe.
+ */
+public class ReedsSheppSolver {
+    /** Segment kinds, named for the direction of travel when driving forward. */
+    public static final byte LEFT = 0;
+    public static final byte STRAIGHT = 1;
+    public static final byte RIGHT = 2;
+
+    private static final double HALF_PI = Math.PI / 2;
+    private static final double ZERO = 1e-9; // tolerance on segment signs
+    private static final double POSITION_QUANTUM = 0.1; // turning radii
+    private static final int HEADING_BINS = 180;
+    private static final int MAX_SEGMENTS = 5;
+
+    // Mirror flags of a family; the base formula is family >> 3
+    private static final int TIMEFLIP = 1;
+    private static final int REFLECT = 2;
+    private static final int BACKWARDS = 4;
+    private static final int FORMULAS = 8;
+    private static final int FAMILIES = FORMULAS * 8;
+    /** Family numbers run from 0 up to this, for {@link #solveFamily}. */
+    public static final int FAMILY_COUNT = FAMILIES;
+    private static final int NO_FAMILY = -1;
+
+    // Segment kinds of each base formula
+    private static final byte[][] FORMULA_SEGMENTS = {
+        {LEFT, STRAIGHT, LEFT},              // CSC: L+ S+ L+
+        {LEFT, STRAIGHT, RIGHT},             // CSC: L+ S+ R+
+        {LEFT, RIGHT, LEFT},                 // CCC: L+ R- L
+        {LEFT, RIGHT, LEFT, RIGHT},          // CCCC: L+ R+ L- R-
+        {LEFT, RIGHT, LEFT, RIGHT},          // CCCC: L+ R- L- R+
+        {LEFT, RIGHT, STRAIGHT, LEFT},       // CCSC: L+ R-(pi/2) S- L-
+        {LEFT, RIGHT, STRAIGHT, RIGHT},      // CCSC: L+ R-(pi/2) S- R-
+        {LEFT, RIGHT, STRAIGHT, LEFT, RIGHT} // CCSCC: L+ R-(pi/2) S- L-(pi/2) R+
+    };
+    // Only the formulas that aren't symmetric under running backwards get that mirror
+    private static final boolean[] FORMULA_BACKWARDS = {false, false, true, false, false, true, true, false};
+
+    // Scratch for one family's segment lengths, in turning radii
+    private final double[] lengths = new double[MAX_SEGMENTS];
+
+    // LRU cache from quantized relative pose to the shortest family there
+    private final int capacity;
+    private final long[] entryKey;
+    private final byte[] entryFamily;
+    private final int[] entryChain; // next entry in the same bucket
+    private final int[] entryOlder;
+    private final int[] entryNewer;
+    private final int[] bucketHead;
+    private final int bucketMask;
+    private int entryCount = 0;
+    private int newest = -1;
+    private int oldest = -1;
+    private long hits = 0;
+    private long misses = 0;
+
+    /**
+     * @param cacheCapacity Most relative poses remembered, or 0 for no cache
+     */
+    public ReedsSheppSolver(int cacheCapacity) {
+        if (cacheCapacity < 0) {
+            throw new IllegalArgumentException("Cache capacity cannot be negative");
+        }
+        this.capacity = cacheCapacity;
+        this.entryKey = new long[cacheCapacity];
+        this.entryFamily = new byte[cacheCapacity];
+        this.entryChain = new int[cacheCapacity];
+        this.entryOlder = new int[cacheCapacity];
+        this.entryNewer = new int[cacheCapacity];
+        int buckets = Integer.highestOneBit(Math.max(1, cacheCapacity)) << 1;
+        this.bucketHead = new int[buckets];
+        this.bucketMask = buckets - 1;
+        Arrays.fill(bucketHead, -1);
+    }
+
+    /**
+     * Finds the shortest curve between two poses. Headings are in radians.
+     * @param out Receives the curve, positioned at the start pose
+     * @return Length of the curve in meters
+     */
+    public double solve(double startX, double startY, double startHeading,
+                        double goalX, double goalY, double goalHeading,
+                        double turningRadius, Curve out) {
+        if (!(turningRadius > 0)) {
+            throw new IllegalArgumentException("Turning radius must be positive");
+        }
+        // Goal in the start's frame, in turning radii
+        double dx = goalX - startX;
+        double dy = goalY - startY;
+        double cos = Math.cos(startHeading);
+        double sin = Math.sin(startHeading);
+        double x = (cos * dx + sin * dy) / turningRadius;
+        double y = (-sin * dx + cos * dy) / turningRadius;
+        double phi = mod2pi(goalHeading - startHeading);
+
+        out.startX = startX;
+        out.startY = startY;
+        out.startHeading = startHeading;
+        out.radius = turningRadius;
+        int family = cachedFamily(x, y, phi);
+        if (family == NO_FAMILY || !evaluate(family, x, y, phi, out)) {
+            family = solveAll(x, y, phi, out);
+            remember(x, y, phi, family);
+        }
+        return out.getLength();
+    }
+
+    /**
+     * Finds the curve of one family between two poses, shortest or not, for
+     * callers that need a curve other than the shortest when that one is
+     * blocked. Skips the cache. Headings are in radians.
+     * @param family From 0 up to {@link #FAMILY_COUNT}
+     * @param out Receives the curve, positioned at the start pose
+     * @return Length of the curve in meters, or infinity if the family has
+     *     no curve between these poses
+     */
+    public double solveFamily(int family, double startX, double startY, double startHeading,
+                              double goalX, double goalY, double goalHeading,
+                              double turningRadius, Curve out) {
+        if (!(turningRadius > 0)) {
+            throw new IllegalArgumentException("Turning radius must be positive");
+        }
+        if (family < 0 || family >= FAMILIES) {
+            throw new IllegalArgumentException("No such curve family: " + family);
+        }
+        if ((family & BACKWARDS) != 0 && !FORMULA_BACKWARDS[family >> 3]) {
+            return Double.POSITIVE_INFINITY; // same curves as the family without the mirror
+        }
+        double dx = goalX - startX;
+        double dy = goalY - startY;
+        double cos = Math.cos(startHeading);
+        double sin = Math.sin(startHeading);
+        double x = (cos * dx + sin * dy) / turningRadius;
+        double y = (-sin * dx + cos * dy) / turningRadius;
+        double phi = mod2pi(goalHeading - startHeading);
+
+        out.startX = startX;
+        out.startY = startY;
+        out.startHeading = startHeading;
+        out.radius = turningRadius;
+        return evaluate(family, x, y, phi, out) ? out.getLength() : Double.POSITIVE_INFINITY;
+    }
+
+    public long getCacheHits() {
+        return hits;
+    }
+
+    public long getCacheMisses() {
+        return misses;
+    }
+
+    // Tries every family and leaves the shortest in out
+    private int solveAll(double x, double y, double phi, Curve out) {
+        int best = NO_FAMILY;
+        double bestLength = Double.POSITIVE_INFINITY;
+        double sin = Math.sin(phi);
+        double cos = Math.cos(phi);
+        for (int family = 0; family < FAMILIES; family++) {
+            if ((family & BACKWARDS) != 0 && !FORMULA_BACKWARDS[family >> 3]) continue;
+            int segments = baseLengths(family, x, y, phi, sin, cos);
+            if (segments == 0) continue;
+            double length = 0;
+            for (int i = 0; i < segments; i++) {
+                length += Math.abs(lengths[i]);
+            }
+            if (length < bestLength) {
+                bestLength = length;
+                best = family;
+            }
+        }
+        // Every relative pose has a CSC or CCC path, so something always wins
+        evaluate(best, x, y, phi, out);
+        return best;
+    }
+
+    // Writes one family's curve to out, or returns false if it doesn't apply here
+    private boolean evaluate(int family, double x, double y, double phi, Curve out) {
+        int segments = baseLengths(family, x, y, phi, Math.sin(phi), Math.cos(phi));
+        if (segments == 0) return false;
+
+        byte[] kinds = FORMULA_SEGMENTS[family >> 3];
+        boolean backwards = (family & BACKWARDS) != 0;
+        boolean timeflip = (family & TIMEFLIP) != 0;
+        boolean reflect = (family & REFLECT) != 0;
+        double total = 0;
+        for (int i = 0; i < segments; i++) {
+            int from = backwards ? segments - 1 - i : i;
+            byte kind = kinds[from];
+            if (reflect && kind != STRAIGHT) {
+                kind = kind == LEFT ? RIGHT : LEFT;
+            }
+            double length = timeflip ? -lengths[from] : lengths[from];
+            out.kinds[i] = kind;
+            out.lengths[i] = length * out.radius;
+            total += Math.abs(length) * out.radius;
+        }
+        out.segmentCount = segments;
+        out.length = total;
+        return true;
+    }
+
+    /**
+     * Fills {@link #lengths} with the base formula's segment lengths for the
+     * family's mirrored pose.
+     * @return Number of segments, or 0 if the family has no path here
+     */
+    private int baseLengths(int family, double x, double y, double phi, double sin, double cos) {
+        if ((family & BACKWARDS) != 0) {
+            double backX = x * cos + y * sin;
+            double backY = x * sin - y * cos;
+            x = backX;
+            y = backY;
+        }
+        if ((family & TIMEFLIP) != 0) {
+            x = -x;
+            phi = -phi;
+            sin = -sin;
+        }
+        if ((family & REFLECT) != 0) {
+            y = -y;
+            phi = -phi;
+            sin = -sin;
+        }
+
+        switch (family >> 3) {
+            case 0: return lpSpLp(x, y, phi, sin, cos) ? 3 : 0;
+            case 1: return lpSpRp(x, y, phi, sin, cos) ? 3 : 0;
+            case 2: return lpRmL(x, y, phi, sin, cos) ? 3 : 0;
+            case 3: return lpRupLumRm(x, y, phi, sin, cos) ? 4 : 0;
+            case 4: return lpRumLumRp(x, y, phi, sin, cos) ? 4 : 0;
+            case 5: return lpRmSmLm(x, y, phi, sin, cos) ? 4 : 0;
+            case 6: return lpRmSmRm(x, y, phi, sin, cos) ? 4 : 0;
+            default: return lpRmSLmRp(x, y, phi, sin, cos) ? 5 : 0;
+        }
+    }
+
+    // Base formulas, numbered as in section 8 of the paper; each leaves
+    // signed segment lengths in turning radii
+
+    private boolean lpSpLp(double x, double y, double phi, double sin, double cos) { // 8.1
+        double xi = x - sin;
+        double eta = y - 1 + cos;
+        double u = Math.hypot(xi, eta);
+        double t = Math.atan2(eta, xi);
+        if (t < -ZERO) return false;
+        double v = mod2pi(phi - t);
+        if (v < -ZERO) return false;
+        return setLengths(t, u, v);
+    }
+
+    private boolean lpSpRp(double x, double y, double phi, double sin, double cos) { // 8.2
+        double xi = x + sin;
+        double eta = y - 1 - cos;
+        double rho = xi * xi + eta * eta;
+        if (rho < 4) return false;
+        double u = Math.sqrt(rho - 4);
+        double t = mod2pi(Math.atan2(eta, xi) + Math.atan2(2, u));
+        double v = mod2pi(t - phi);
+        if (t < -ZERO || v < -ZERO) return false;
+        return setLengths(t, u, v);
+    }
+
+    private boolean lpRmL(double x, double y, double phi, double sin, double cos) { // 8.3, with the paper's typo fixed
+        double xi = x - sin;
+        double eta = y - 1 + cos;
+        double rho = Math.hypot(xi, eta);
+        if (rho > 4) return false;
+        double u = -2 * Math.asin(rho / 4);
+        double t = mod2pi(Math.atan2(eta, xi) + u / 2 + Math.PI);
+        double v = mod2pi(phi - t + u);
+        if (t < -ZERO || u > ZERO) return false;
+        return setLengths(t, u, v);
+    }
+
+    private boolean lpRupLumRm(double x, double y, double phi, double sin, double cos) { // 8.7
+        double xi = x + sin;
+        double eta = y - 1 - cos;
+        double rho = (2 + Math.hypot(xi, eta)) / 4;
+        if (rho > 1) return false;
+        double u = Math.acos(rho);
+        double t = tau(u, -u, xi, eta);
+        double v = omega(t, u, -u, phi);
+        if (t < -ZERO || v > ZERO) return false;
+        return setLengths(t, u, -u, v);
+    }
+
+    private boolean lpRumLumRp(double x, double y, double phi, double sin, double cos) { // 8.8
+        double xi = x + sin;
+        double eta = y - 1 - cos;
+        double rho = (20 - xi * xi - eta * eta) / 16;
+        if (rho < 0 || rho > 1) return false;
+        double u = -Math.acos(rho);
+        if (u < -HALF_PI) return false;
+        double t = tau(u, u, xi, eta);
+        double v = omega(t, u, u, phi);
+        if (t < -ZERO || v < -ZERO) return false;
+        return setLengths(t, u, u, v);
+    }
+
+    private boolean lpRmSmLm(double x, double y, double phi, double sin, double cos) { // 8.9
+        double xi = x - sin;
+        double eta = y - 1 + cos;
+        double rho = Math.hypot(xi, eta);
+        if (rho < 2) return false;
+        double r = Math.sqrt(rho * rho - 4);
+        double u = 2 - r;
+        double t = mod2pi(Math.atan2(eta, xi) + Math.atan2(r, -2));
+        double v = mod2pi(phi - HALF_PI - t);
+        if (t < -ZERO || u > ZERO || v > ZERO) return false;
+        return setLengths(t, -HALF_PI, u, v);
+    }
+
+    private boolean lpRmSmRm(double x, double y, double phi, double sin, double cos) { // 8.10
+        double xi = x + sin;
+        double eta = y - 1 - cos;
+        double rho = Math.hypot(xi, eta);
+        if (rho < 2) return false;
+        double t = Math.atan2(xi, -eta);
+        double u = 2 - rho;
+        double v = mod2pi(t + HALF_PI - phi);
+        if (t < -ZERO || u > ZERO || v > ZERO) return false;
+        return setLengths(t, -HALF_PI, u, v);
+    }
+
+    private boolean lpRmSLmRp(double x, double y, double phi, double sin, double cos) { // 8.11, with the paper's typo fixed
+        double xi = x + sin;
+        double eta = y - 1 - cos;
+        double rho = Math.hypot(xi, eta);
+        if (rho < 2) return false;
+        double u = 4 - Math.sqrt(rho * rho - 4);
+        if (u > ZERO) return false;
+        double t = mod2pi(Math.atan2((4 - u) * xi - 2 * eta, -2 * xi + (u - 4) * eta));
+        double v = mod2pi(t - phi);
+        if (t < -ZERO || v < -ZERO) return false;
+        return setLengths(t, -HALF_PI, u, -HALF_PI, v);
+    }
+
+    // Heading reached after the first arc of the CCCC formulas
+    private static double tau(double u, double v, double xi, double eta) {
+        double delta = mod2pi(u - v);
+        double a = Math.sin(u) - Math.sin(delta);
+        double b = Math.cos(u) - Math.cos(delta) - 1;
+        double t = Math.atan2(eta * a - xi * b, xi * a + eta * b);
+        double sign = 2 * (Math.cos(delta) - Math.cos(v) - Math.cos(u)) + 3;
+        return sign < 0 ? mod2pi(t + Math.PI) : mod2pi(t);
+    }
+
+    private static double omega(double tau, double u, double v, double phi) {
+        return mod2pi(tau - u + v - phi);
+    }
+
+    private boolean setLengths(double t, double u, double v) {
+        lengths[0] = t;
+        lengths[1] = u;
+        lengths[2] = v;
+        return true;
+    }
+
+    private boolean setLengths(double t, double u, double w, double v) {
+        lengths[3] = v;
+        return setLengths(t, u, w);
+    }
+
+    private boolean setLengths(double t, double u, double w, double x, double v) {
+        lengths[4] = v;
+        return setLengths(t, u, w, x);
+    }
+
+    // Cache
+
+    private long cacheKey(double x, double y, double phi) {
+        long qx = Math.round(x / POSITION_QUANTUM) & 0xFFFFFF;
+        long qy = Math.round(y / POSITION_QUANTUM) & 0xFFFFFF;
+        long qh = Math.floorMod(Math.round(phi / (2 * Math.PI) * HEADING_BINS), HEADING_BINS);
+        return (qx << 40) | (qy << 16) | qh;
+    }
+
+    private int bucketOf(long key) {
+        return (int) (key * 0x9E3779B97F4A7C15L >>> 40) & bucketMask;
+    }
+
+    private int cachedFamily(double x, double y, double phi) {
+        if (capacity == 0) return NO_FAMILY;
+        long key = cacheKey(x, y, phi);
+        for (int e = bucketHead[bucketOf(key)]; e >= 0; e = entryChain[e]) {
+            if (entryKey[e] == key) {
+                hits++;
+                unlink(e);
+                linkNewest(e);
+                return entryFamily[e];
+            }
+        }
+        misses++;
+        return NO_FAMILY;
+    }
+
+    private void remember(double x, double y, double phi, int family) {
+        if (capacity == 0) return;
+        long key = cacheKey(x, y, phi);
+        int bucket = bucketOf(key);
+        for (int e = bucketHead[bucket]; e >= 0; e = entryChain[e]) {
+            if (entryKey[e] == key) {
+                // The cached family didn't apply at this exact pose; keep the new winner
+                entryFamily[e] = (byte) family;
+                return;
+            }
+        }
+
+        int entry;
+        if (entryCount < capacity) {
+            entry = entryCount++;
+        } else {
+            entry = oldest;
+            unlink(entry);
+            removeFromBucket(entry);
+        }
+        entryKey[entry] = key;
+        entryFamily[entry] = (byte) family;
+        entryChain[entry] = bucketHead[bucket];
+        bucketHead[bucket] = entry;
+        linkNewest(entry);
+    }
+
+    private void removeFromBucket(int entry) {
+        int bucket = bucketOf(entryKey[entry]);
+        if (bucketHead[bucket] == entry) {
+            bucketHead[bucket] = entryChain[entry];
+            return;
+        }
+        int e = bucketHead[bucket];
+        while (entryChain[e] != entry) {
+            e = entryChain[e];
+        }
+        entryChain[e] = entryChain[entry];
+    }
+
+    private void unlink(int entry) {
+        int older = entryOlder[entry];
+        int newer = entryNewer[entry];
+        if (older >= 0) entryNewer[older] = newer; else oldest = newer;
+        if (newer >= 0) entryOlder[newer] = older; else newest = older;
+    }
+
+    private void linkNewest(int entry) {
+        entryOlder[entry] = newest;
+        entryNewer[entry] = -1;
+        if (newest >= 0) entryNewer[newest] = entry; else oldest = entry;
+        newest = entry;
+    }
+
+    /** Wraps an angle in radians to [-pi, pi). */
+    private static double mod2pi(double angle) {
+        return angle - 2 * Math.PI * Math.floor((angle + Math.PI) / (2 * Math.PI));
+    }
+
+    /**
+     * A solved curve: up to five segments driven from a start pose. Segment
+     * lengths are signed, negative when driven in reverse. Reused between
+     * solves to avoid allocation.
+     */
+    public static final class Curve {
+        private final byte[] kinds = new byte[MAX_SEGMENTS];
+        private final double[] lengths = new double[MAX_SEGMENTS];
+        private int segmentCount;
+        private double length;
+        private double startX;
+        private double startY;
+        private double startHeading;
+        private double radius;
+
+        public int getSegmentCount() {
+            return segmentCount;
+        }
+
+        /** Returns {@link #LEFT}, {@link #STRAIGHT} or {@link #RIGHT}. */
+        public byte getSegmentKind(int i) {
+            return kinds[i];
+        }
+
+        /** Returns the segment's length in meters, negative in reverse. */
+        public double getSegmentLength(int i) {
+            return lengths[i];
+        }
+
+        /** Returns the total distance driven in meters. */
+        public double getLength() {
+            return length;
+        }
+
+        /**
+         * Writes the pose after driving the given distance along the curve
+         * as x, y, heading in radians, and whether that stretch is reversed.
+         * @param pose Needs 3 slots
+         * @return True if the vehicle is reversing at that point
+         */
+        public boolean poseAt(double distance, double[] pose) {
+            double x = startX;
+            double y = startY;
+            double heading = startHeading;
+            double remaining = Math.max(0, distance);
+            boolean reverse = false;
+            for (int i = 0; i < segmentCount; i++) {
+                double full = lengths[i];
+                if (full == 0) continue;
+                double step = Math.min(Math.abs(full), remaining);
+                double signed = full < 0 ? -step : step;
+                reverse = full < 0;
+                if (kinds[i] == STRAIGHT) {
+                    x += signed * Math.cos(heading);
+                    y += signed * Math.sin(heading);
+                } else {
+                    double turn = (kinds[i] == LEFT ? signed : -signed) / radius;
+                    double side = kinds[i] == LEFT ? radius : -radius;
+                    x += side * (Math.sin(heading + turn) - Math.sin(heading));
+                    y += side * (Math.cos(heading) - Math.cos(heading + turn));
+                    heading += turn;
+                }
+                remaining -= step;
+                if (remaining <= 0) break;
+            }
+            pose[0] = x;
+            pose[1] = y;
+            pose[2] = heading;
+            return reverse;
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.mycompany.parkingsystem.benchmark;
+
+import com.mycompany.parkingsystem.model.ParkingSpace;
+import com.mycompany.parkingsystem.model.ParkingSpaceType;
+import com.mycompany.parkingsystem.model.Vehicle;
+import com.mycompany.parkingsystem.simulation.SimulationEngine;
+import com.mycompany.parkingsystem.simulation.SimulationRandom;
+
+import java.awt.geom.Point2D;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Measures the cost of a simulation tick as the fleet grows, to confirm that
+ * the spatial hash broad phase keeps collision checking linear in the number
+ * of vehicles. On a machine with more than one processor each fleet is also
+ * run on an update pool with one thread per processor, to show how far the
+ * parallel phases speed up a whole tick.
+ *
+ * Run with: java -cp target/classes com.mycompany.parkingsystem.benchmark.CollisionBenchmark
+ */
+public class CollisionBenchmark {
+    private static final int[] FLEET_SIZES = {100, 300, 1000, 3000, 10000};
+    private static final double WORLD_WIDTH = 1000;
+    private static final double WORLD_HEIGHT = 800;
+    private static final double TICK = 1.0 / 60;
+    private static final int WARMUP_TICKS = 300;
+    private static final int MEASURED_TICKS = 600;
+    private static final int OBSTACLE_COUNT = 200;
+
+    public static void main(String[] args) {
+        int threads = Runtime.getRuntime().availableProcessors();
+        ForkJoinPool pool = threads > 1 ? new ForkJoinPool(threads) : null;
+        System.out.println("Vehicles   ms/tick   ns/vehicle/tick"
+            + (pool != null ? "   ms/tick on " + threads + " threads" : ""));
+
+        double baselinePerVehicle = 0;
+        for (int fleetSize : FLEET_SIZES) {
+            double nsPerTick = measureTick(createEngine(fleetSize, 42));
+            double nsPerVehicle = nsPerTick / fleetSize;
+            if (baselinePerVehicle == 0) {
+                baselinePerVehicle = nsPerVehicle;
+            }
+
+            System.out.printf("%8d %9.3f %17.1f  (x%.2f of smallest fleet)",
+                fleetSize, nsPerTick / 1e6, nsPerVehicle, nsPerVehicle / baselinePerVehicle);
+            if (pool != null) {
+                SimulationEngine engine = createEngine(fleetSize, 42);
+                engine.setUpdatePool(pool);
+                double pooledNsPerTick = measureTick(engine);
+                System.out.printf("   %9.3f  (x%.2f speedup)", pooledNsPerTick / 1e6, nsPerTick / pooledNsPerTick);
+            }
+            System.out.println();
+        }
+        if (pool != null) {
+            pool.shutdown();
+        }
+    }
+
+    // Average wall-clock nanoseconds per tick after warming up
+    private static double measureTick(SimulationEngine engine) {
+        for (int i = 0; i < WARMUP_TICKS; i++) {
+            engine.update(TICK);
+        }
+
+        long start = System.nanoTime();
+        for (int i = 0; i < MEASURED_TICKS; i++) {
+            engine.update(TICK);
+        }
+        return (double) (System.nanoTime() - start) / MEASURED_TICKS;
+    }
+
+    private static SimulationEngine createEngine(int fleetSize, long seed) {
+        SimulationRandom random = new SimulationRandom(seed);
+        SplittableRandom rand = random.forSubsystem("benchmark");
+
+        List<ParkingSpace> spaces = new ArrayList<>();
+        for (int i = 0; i < OBSTACLE_COUNT; i++) {
+            spaces.add(new ParkingSpace(
+                new Point2D.Double(rand.nextDouble() * WORLD_WIDTH, rand.nextDouble() * WORLD_HEIGHT),
+                3.0, 3.0, ParkingSpaceType.OBSTACLE, "OBS-" + i));
+        }
+
+        List<Vehicle> vehicles = new ArrayList<>();
+        for (int i = 0; i < fleetSize; i++) {
+            Vehicle vehicle = new Vehicle(
+                new Point2D.Double(10 + rand.nextDouble() * (WORLD_WIDTH - 20),
+                                   10 + rand.nextDouble() * (WORLD_HEIGHT - 20)),
+                4.0 + rand.nextDouble() * 1.5,
+                1.7 + rand.nextDouble() * 0.5,
+                random.forVehicle(i));
+            vehicle.setAngle(rand.nextDouble() * 360);
+            vehicle.accelerate(0.3 + rand.nextDouble() * 0.5);
+            vehicle.steer(rand.nextDouble() * 2 - 1);
+            vehicles.add(vehicle);
+        }
+
+        return new SimulationEngine(spaces, vehicles);
+    }
+}
@@ -3,12 +3,16 @@ package com.mycompany.parkingsystem.controller;
 import com.mycompany.parkingsystem.model.Vehicle;
 import java.awt.event.KeyEvent;
 import java.awt.event.KeyListener;
-import java.util.HashSet;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Advanced keyboard controller for vehicle input with smooth controls,
  * multiple control schemes, and enhanced driving physics.
+ *
+ * Key events arrive on the Swing event thread while {@link #update} runs on
+ * the simulation thread. The listener methods only record pressed keys and
+ * scheme requests; all control state is owned by the simulation thread.
  */
 public class KeyboardController implements KeyListener, VehicleController {
     private Vehicle controlledVehicle;
@@ -34,6 +38,7 @@ public class KeyboardController implements KeyListener, VehicleController {
     }
     
     private ControlScheme currentScheme = ControlScheme.ARCADE;
+    private volatile ControlScheme requestedScheme = ControlScheme.ARCADE;
     
     // Control sensitivity parameters
     private double accelerationSensitivity = 1.0;
@@ -53,11 +58,18 @@ public class KeyboardController implements KeyListener, VehicleController {
     
     public KeyboardController(Vehicle vehicle) {
         this.controlledVehicle = vehicle;
-        this.pressedKeys = new HashSet<>();
+        this.pressedKeys = ConcurrentHashMap.newKeySet();
     }
     
     @Override
     public void update(double deltaTime) {
+        // Apply a scheme change requested from the event thread
+        ControlScheme scheme = requestedScheme;
+        if (scheme != currentScheme) {
+            currentScheme = scheme;
+            resetControls();
+        }
+        
         // Process input based on current control scheme
         switch (currentScheme) {
             case ARCADE:
@@ -84,8 +96,8 @@ public class KeyboardController implements KeyListener, VehicleController {
         } else if (isKeyPressed(KeyEvent.VK_DOWN)) {
             currentThrottle = Math.max(currentThrottle - deltaTime * 3, -MAX_THROTTLE_INPUT/2);
         } else {
-            // Gradual throttle return
-            currentThrottle *= Math.pow(0.2, deltaTime);
+            // Throttle snaps back once both pedal keys are released
+            currentThrottle = 0;
         }
         
         // Apply throttle/brake
@@ -179,9 +191,12 @@ public class KeyboardController implements KeyListener, VehicleController {
     }
     
     // Configuration methods
+    /**
+     * Switches control scheme. Safe to call from any thread; the change and
+     * the control reset take effect on the next update.
+     */
     public void setControlScheme(ControlScheme scheme) {
-        this.currentScheme = scheme;
-        resetControls();
+        this.requestedScheme = scheme;
     }
     
     public void setSensitivity(double acceleration, double steering, double braking) {
@@ -222,13 +237,6 @@ public class KeyboardController implements KeyListener, VehicleController {
     @Override
     public void keyReleased(KeyEvent e) {
         pressedKeys.remove(e.getKeyCode());
-        
-        // Reset throttle/brake when releasing keys in arcade mode
-        if (currentScheme == ControlScheme.ARCADE) {
-            if (e.getKeyCode() == KeyEvent.VK_UP || e.getKeyCode() == KeyEvent.VK_DOWN) {
-                currentThrottle = 0;
-            }
-        }
     }
     
     @Override
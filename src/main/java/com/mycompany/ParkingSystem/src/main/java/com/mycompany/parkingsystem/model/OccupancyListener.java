@@ -0,0 +1,10 @@
+package com.mycompany.parkingsystem.model;
+
+/**
+ * Told about every change to a parking space's occupancy, on the thread
+ * that made it.
+ */
+@FunctionalInterface
+public interface OccupancyListener {
+    void occupancyChanged(ParkingSpace space, boolean wasOccupied, boolean occupied);
+}
@@ -0,0 +1,160 @@
+package com.mycompany.parkingsystem.model;
+
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Free-space bitsets over a list of parking spaces, one per
+ * {@link ParkingSpaceType}, kept current by {@link ParkingSpace#setOccupied}.
+ *
+ * Bit {@code j} stands for the space at position {@code j} in the list, so
+ * every scan visits free spaces in list order. Free counts are O(1); "first
+ * free" and random picks scan 64 spaces per word instead of the whole list.
+ * A space reports to every index built over it, until that index is
+ * {@link #detach detached}.
+ */
+public class ParkingOccupancyIndex {
+    private static final ParkingSpaceType[] TYPES = ParkingSpaceType.values();
+
+    private final ParkingSpace[] spaces;
+    private final long[][] freeByType;
+    private final long[] freeParkable; // free spaces of every type except OBSTACLE
+    private final int[] freeCounts;
+    private int freeParkableCount;
+
+    public ParkingOccupancyIndex(List<ParkingSpace> spaceList) {
+        this.spaces = spaceList.toArray(new ParkingSpace[0]);
+        int words = (spaces.length + 63) >>> 6;
+        this.freeByType = new long[TYPES.length][words];
+        this.freeParkable = new long[words];
+        this.freeCounts = new int[TYPES.length];
+
+        for (int slot = 0; slot < spaces.length; slot++) {
+            ParkingSpace space = spaces[slot];
+            space.attachIndex(this, slot);
+            if (!space.isOccupied()) {
+                setFree(slot, space.getType(), true);
+            }
+        }
+    }
+
+    /**
+     * Stops following the spaces. Indexes that are dropped while their spaces
+     * live on should be detached, or the spaces keep updating them.
+     */
+    public void detach() {
+        for (ParkingSpace space : spaces) {
+            space.detachIndex(this);
+        }
+    }
+
+    /**
+     * Called by a space whose occupancy just changed.
+     */
+    void occupancyChanged(int slot, ParkingSpaceType type, boolean occupied) {
+        setFree(slot, type, !occupied);
+    }
+
+    public int size() {
+        return spaces.length;
+    }
+
+    public ParkingSpace getSpace(int slot) {
+        return spaces[slot];
+    }
+
+    public boolean isFree(int slot) {
+        return !spaces[slot].isOccupied();
+    }
+
+    public int getFreeCount(ParkingSpaceType type) {
+        return freeCounts[type.ordinal()];
+    }
+
+    /** Returns the number of free spaces a vehicle can park in, i.e. not obstacles. */
+    public int getFreeParkableCount() {
+        return freeParkableCount;
+    }
+
+    /**
+     * Returns the position of the first free parkable space at or after
+     * {@code from}, or -1 if there is none.
+     */
+    public int nextFreeSlot(int from) {
+        return nextSetBit(freeParkable, from);
+    }
+
+    /**
+     * Returns the position of the first free space of the given type at or
+     * after {@code from}, or -1 if there is none.
+     */
+    public int nextFreeSlot(ParkingSpaceType type, int from) {
+        return nextSetBit(freeByType[type.ordinal()], from);
+    }
+
+    /** Returns the first free space of the given type in list order, or null. */
+    public ParkingSpace firstFree(ParkingSpaceType type) {
+        int slot = nextFreeSlot(type, 0);
+        return slot < 0 ? null : spaces[slot];
+    }
+
+    /**
+     * Picks a free parkable space uniformly at random, or returns null if
+     * there is none. Draws exactly one number from the random stream.
+     */
+    public ParkingSpace randomFree(SplittableRandom random) {
+        if (freeParkableCount == 0) return null;
+        return spaces[selectBit(freeParkable, random.nextInt(freeParkableCount))];
+    }
+
+    /**
+     * Picks a free space of the given type uniformly at random, or returns
+     * null if there is none.
+     */
+    public ParkingSpace randomFree(ParkingSpaceType type, SplittableRandom random) {
+        int count = freeCounts[type.ordinal()];
+        if (count == 0) return null;
+        return spaces[selectBit(freeByType[type.ordinal()], random.nextInt(count))];
+    }
+
+    private void setFree(int slot, ParkingSpaceType type, boolean free) {
+        int word = slot >>> 6;
+        long bit = 1L << slot;
+        long[] bits = freeByType[type.ordinal()];
+        if (((bits[word] & bit) != 0) == free) return;
+
+        bits[word] ^= bit;
+        int delta = free ? 1 : -1;
+        freeCounts[type.ordinal()] += delta;
+        if (type != ParkingSpaceType.OBSTACLE) {
+            freeParkable[word] ^= bit;
+            freeParkableCount += delta;
+        }
+    }
+
+    private int nextSetBit(long[] bits, int from) {
+        if (from < 0 || from >= spaces.length) return -1;
+        int word = from >>> 6;
+        long current = bits[word] & (-1L << from);
+        while (current == 0) {
+            if (++word == bits.length) return -1;
+            current = bits[word];
+        }
+        return (word << 6) + Long.numberOfTrailingZeros(current);
+    }
+
+    /** Returns the position of the n-th (0-based) set bit, which must exist. */
+    private static int selectBit(long[] bits, int n) {
+        int word = 0;
+        int count;
+        while ((count = Long.bitCount(bits[word])) <= n) {
+            n -= count;
+            word++;
+        }
+        long current = bits[word];
+        for (int k = 0; k < n; k++) {
+            current &= current - 1; // drop the lowest set bit
+        }
+        return (word << 6) + Long.numberOfTrailingZeros(current);
+    }
+}
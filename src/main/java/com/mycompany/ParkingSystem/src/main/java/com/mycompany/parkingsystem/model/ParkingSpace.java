@@ -1,18 +1,46 @@
 package com.mycompany.parkingsystem.model;
 
 import java.awt.geom.Point2D;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
 
 /**
  * Represents a parking space in the simulation
+ *
+ * A space is free, reserved by one vehicle until a given time, or occupied.
+ * Vehicles claim a space with {@link #tryReserve} and take it with
+ * {@link #confirmReservation}; both are compare-and-set transitions, so any
+ * number of threads can compete for a space without locking and at most one
+ * wins. A reservation that isn't confirmed or renewed before it expires
+ * counts as free again. Occupancy changes are reported to the indexes and
+ * listeners, which are not thread-safe, so confirming, and
+ * {@link #setOccupied}, must stay on one thread at a time.
  */
 public class ParkingSpace {
+    private static final VarHandle STATE;
+    private static final Reservation OCCUPIED = new Reservation(null, Double.POSITIVE_INFINITY);
+    private static final ParkingOccupancyIndex[] NO_INDEXES = new ParkingOccupancyIndex[0];
+    private static final OccupancyListener[] NO_LISTENERS = new OccupancyListener[0];
+    
+    static {
+        try {
+            STATE = MethodHandles.lookup().findVarHandle(ParkingSpace.class, "state", Reservation.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+    
     private final String id;
     private final Point2D.Double location;
     private final double width;
     private final double length;
     private final ParkingSpaceType type;
-    private boolean occupied;
+    private volatile Reservation state; // null when free, OCCUPIED when taken, else a reservation
     private double angle; // For angled parking spaces
+    private ParkingOccupancyIndex[] indexes = NO_INDEXES; // Kept in step with occupancy
+    private int[] indexSlots = new int[0];
+    private OccupancyListener[] occupancyListeners = NO_LISTENERS; // in the order they were added
     
     /**
      * Creates a new parking space
@@ -36,7 +64,6 @@ public class ParkingSpace {
         this.length = length;
         this.type = type;
         this.id = id;
-        this.occupied = false;
         this.angle = 0;
         
         // Set default angle based on space type
@@ -67,7 +94,77 @@ public class ParkingSpace {
     }
 
     public boolean isOccupied() {
-        return occupied;
+        return state == OCCUPIED;
+    }
+    
+    /**
+     * Returns the vehicle holding a reservation that is still live at the
+     * given time, or null.
+     */
+    public Vehicle getReservationHolder(double now) {
+        Reservation current = state;
+        return current != OCCUPIED && isLive(current, now) ? current.vehicle : null;
+    }
+    
+    /**
+     * Returns when the live reservation at the given time expires, or NaN if
+     * there is none.
+     */
+    public double getReservationExpiry(double now) {
+        Reservation current = state;
+        return current != OCCUPIED && isLive(current, now) ? current.expiresAt : Double.NaN;
+    }
+    
+    /**
+     * Checks whether the vehicle could reserve or take this space at the
+     * given time: it is free, its reservation has expired, or the vehicle
+     * holds it.
+     */
+    public boolean isAvailableTo(Vehicle vehicle, double now) {
+        return canClaim(state, vehicle, now);
+    }
+    
+    /**
+     * Reserves the space for the vehicle until the given time, or moves the
+     * expiry of the vehicle's own reservation.
+     * @return False if the space is occupied or another vehicle holds it
+     */
+    public boolean tryReserve(Vehicle vehicle, double now, double expiresAt) {
+        if (vehicle == null || !(expiresAt > now)) {
+            throw new IllegalArgumentException("Reservation needs a vehicle and must end after now");
+        }
+        Reservation next = new Reservation(vehicle, expiresAt);
+        while (true) {
+            Reservation current = state;
+            if (!canClaim(current, vehicle, now)) return false;
+            if (STATE.compareAndSet(this, current, next)) return true;
+        }
+    }
+    
+    /**
+     * Occupies the space for the vehicle, which either holds a live
+     * reservation on it or finds it free.
+     * @return False if the space is occupied or another vehicle holds it
+     */
+    public boolean confirmReservation(Vehicle vehicle, double now) {
+        while (true) {
+            Reservation current = state;
+            if (!canClaim(current, vehicle, now)) return false;
+            if (STATE.compareAndSet(this, current, OCCUPIED)) {
+                occupancyChanged(true);
+                return true;
+            }
+        }
+    }
+    
+    /**
+     * Gives up the vehicle's reservation, if it still holds one.
+     * @return True if the reservation was released
+     */
+    public boolean releaseReservation(Vehicle vehicle) {
+        Reservation current = state;
+        return current != null && current != OCCUPIED && current.vehicle == vehicle
+            && STATE.compareAndSet(this, current, null);
     }
 
     public double getAngle() {
@@ -75,14 +172,84 @@ public class ParkingSpace {
     }
 
     // Setters
+    
+    /**
+     * Forces the space to be occupied or free, dropping any reservation.
+     */
     public void setOccupied(boolean occupied) {
-        this.occupied = occupied;
+        Reservation previous = (Reservation) STATE.getAndSet(this, occupied ? OCCUPIED : null);
+        if ((previous == OCCUPIED) != occupied) {
+            occupancyChanged(occupied);
+        }
+    }
+    
+    private void occupancyChanged(boolean occupied) {
+        for (int k = 0; k < indexes.length; k++) {
+            indexes[k].occupancyChanged(indexSlots[k], type, occupied);
+        }
+        for (OccupancyListener listener : occupancyListeners) {
+            listener.occupancyChanged(this, !occupied, occupied);
+        }
+    }
+    
+    /**
+     * Adds a listener told about occupancy changes, after those added
+     * earlier. Adding a listener that is already registered does nothing.
+     */
+    public void addOccupancyListener(OccupancyListener listener) {
+        if (listener == null) {
+            throw new IllegalArgumentException("Listener cannot be null");
+        }
+        for (OccupancyListener existing : occupancyListeners) {
+            if (existing == listener) return;
+        }
+        occupancyListeners = Arrays.copyOf(occupancyListeners, occupancyListeners.length + 1);
+        occupancyListeners[occupancyListeners.length - 1] = listener;
+    }
+    
+    public void removeOccupancyListener(OccupancyListener listener) {
+        for (int k = 0; k < occupancyListeners.length; k++) {
+            if (occupancyListeners[k] == listener) {
+                OccupancyListener[] remaining = new OccupancyListener[occupancyListeners.length - 1];
+                System.arraycopy(occupancyListeners, 0, remaining, 0, k);
+                System.arraycopy(occupancyListeners, k + 1, remaining, k, remaining.length - k);
+                occupancyListeners = remaining.length == 0 ? NO_LISTENERS : remaining;
+                return;
+            }
+        }
     }
 
     public void setAngle(double angle) {
         this.angle = angle;
     }
     
+    // Indexes and listeners are few and rarely change, so the arrays are copied on each change
+    void attachIndex(ParkingOccupancyIndex index, int slot) {
+        for (int k = 0; k < indexes.length; k++) {
+            if (indexes[k] == index) {
+                indexSlots[k] = slot;
+                return;
+            }
+        }
+        indexes = Arrays.copyOf(indexes, indexes.length + 1);
+        indexSlots = Arrays.copyOf(indexSlots, indexSlots.length + 1);
+        indexes[indexes.length - 1] = index;
+        indexSlots[indexSlots.length - 1] = slot;
+    }
+    
+    void detachIndex(ParkingOccupancyIndex index) {
+        for (int k = 0; k < indexes.length; k++) {
+            if (indexes[k] == index) {
+                int last = indexes.length - 1;
+                indexes[k] = indexes[last];
+                indexSlots[k] = indexSlots[last];
+                indexes = last == 0 ? NO_INDEXES : Arrays.copyOf(indexes, last);
+                indexSlots = Arrays.copyOf(indexSlots, last);
+                return;
+            }
+        }
+    }
+    
     /**
      * Calculates the center point of the parking space
      * @return The center point
@@ -97,6 +264,27 @@ public class ParkingSpace {
     @Override
     public String toString() {
         return String.format("ParkingSpace[id=%s, type=%s, location=(%.2f,%.2f), size=%.2fx%.2f, occupied=%s, angle=%.1f°",
-            id, type, location.x, location.y, length, width, occupied, angle);
+            id, type, location.x, location.y, length, width, isOccupied(), angle);
+    }
+    
+    private static boolean isLive(Reservation reservation, double now) {
+        return reservation != null && now < reservation.expiresAt;
+    }
+    
+    private static boolean canClaim(Reservation current, Vehicle vehicle, double now) {
+        return current != OCCUPIED && (current == null || current.vehicle == vehicle || !isLive(current, now));
+    }
+    
+    /**
+     * A vehicle's hold on a space; never changed, only replaced.
+     */
+    private static final class Reservation {
+        final Vehicle vehicle;
+        final double expiresAt;
+        
+        Reservation(Vehicle vehicle, double expiresAt) {
+            this.vehicle = vehicle;
+            this.expiresAt = expiresAt;
+        }
     }
 }
\ No newline at end of file
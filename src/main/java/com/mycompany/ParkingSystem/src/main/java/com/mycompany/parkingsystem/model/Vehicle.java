@@ -2,54 +2,59 @@ package com.mycompany.parkingsystem.model;
 
 import java.awt.Color;
 import java.awt.geom.Point2D;
+import java.util.SplittableRandom;
 
 /**
  * Represents a vehicle in the parking simulation with realistic physics.
+ *
+ * The kinematic state lives in a {@link VehicleStateStore}; a vehicle is a
+ * view over one index of that store plus its presentation data.
  */
 public class Vehicle {
-    private Point2D.Double position;
-    private Point2D.Double velocity;
-    private double length;
-    private double width;
-    private double angle; // in degrees
-    private double speed; // in meters per second
-    private double acceleration; // in m/s²
-    private double steeringAngle; // in degrees
-    private boolean userControlled;
-    private boolean parked;
+    private VehicleStateStore store;
+    private int index;
     private Color color;
     private String licensePlate;
+    private ParkingSpace targetParkingSpace;
+    private SplittableRandom random;
     
     // Physics constants
-    private static final double MAX_FORWARD_SPEED = 5.0; // m/s (~18 km/h)
-    private static final double MAX_REVERSE_SPEED = 2.0; // m/s
-    private static final double MAX_ACCELERATION = 2.5; // m/s²
+    static final double MAX_FORWARD_SPEED = 5.0; // m/s (~18 km/h)
+    static final double MAX_REVERSE_SPEED = 2.0; // m/s
+    static final double MAX_ACCELERATION = 2.5; // m/s²
     private static final double MAX_DECELERATION = 6.0; // m/s² (braking)
-    private static final double MAX_STEERING_ANGLE = 35.0; // degrees
-    private static final double STEERING_RESPONSE = 80.0; // degrees per second
-    private static final double WHEELBASE_RATIO = 0.6; // wheelbase/length ratio
-    private static final double FRICTION = 0.8; // rolling friction coefficient
-    private static final double AIR_RESISTANCE = 0.1; // air resistance coefficient
-    
-    // Vehicle state
-    private boolean reversing;
-    private double targetSteeringAngle;
-    private double targetSpeed;
+    public static final double MAX_STEERING_ANGLE = 35.0; // degrees
+    static final double STEERING_RESPONSE = 80.0; // degrees per second
+    public static final double WHEELBASE_RATIO = 0.6; // wheelbase/length ratio
+    static final double FRICTION = 0.8; // rolling friction coefficient
+    static final double AIR_RESISTANCE = 0.1; // air resistance coefficient
     
+    /**
+     * Creates a standalone vehicle with an unseeded random stream. Use the
+     * overload taking a stream when the run has to be reproducible.
+     */
     public Vehicle(Point2D.Double position, double length, double width) {
-        this.position = new Point2D.Double(position.x, position.y);
-        this.velocity = new Point2D.Double(0, 0);
-        this.length = length;
-        this.width = width;
-        this.angle = 0.0;
-        this.speed = 0.0;
-        this.acceleration = 0.0;
-        this.steeringAngle = 0.0;
-        this.targetSteeringAngle = 0.0;
-        this.targetSpeed = 0.0;
-        this.userControlled = false;
-        this.parked = false;
-        this.reversing = false;
+        this(position, length, width, new SplittableRandom());
+    }
+    
+    /**
+     * Creates a standalone vehicle with its own single-slot state store.
+     * The simulation engine moves it into the shared fleet store.
+     * @param random Stream owned by this vehicle, used for its appearance and
+     *               for its AI decisions
+     */
+    public Vehicle(Point2D.Double position, double length, double width, SplittableRandom random) {
+        this(new VehicleStateStore(1), position, length, width, random);
+    }
+    
+    /**
+     * Creates a vehicle whose state is allocated directly in {@code store}.
+     */
+    public Vehicle(VehicleStateStore store, Point2D.Double position, double length, double width,
+                   SplittableRandom random) {
+        this.store = store;
+        this.index = store.add(position.x, position.y, length, width);
+        this.random = random;
         this.color = generateRandomColor();
         this.licensePlate = generateLicensePlate();
     }
@@ -59,113 +64,74 @@ public class Vehicle {
      * @param deltaTime Time elapsed since last update in seconds
      */
     public void update(double deltaTime) {
-        if (parked) {
-            // Parked vehicles don't move
-            speed = 0;
-            acceleration = 0;
-            steeringAngle = 0;
-            return;
-        }
-        
-        // Update steering (smooth steering response)
-        if (steeringAngle < targetSteeringAngle) {
-            steeringAngle = Math.min(targetSteeringAngle, 
-                                  steeringAngle + STEERING_RESPONSE * deltaTime);
-        } else if (steeringAngle > targetSteeringAngle) {
-            steeringAngle = Math.max(targetSteeringAngle, 
-                                  steeringAngle - STEERING_RESPONSE * deltaTime);
-        }
-        
-        // Update speed based on acceleration
-        if (Math.abs(speed - targetSpeed) > 0.1) {
-            double accelerationDirection = Math.signum(targetSpeed - speed);
-            acceleration = accelerationDirection * MAX_ACCELERATION;
-            speed += acceleration * deltaTime;
-            
-            // Apply speed limits
-            if (reversing) {
-                speed = Math.max(-MAX_REVERSE_SPEED, Math.min(speed, 0));
-            } else {
-                speed = Math.max(0, Math.min(speed, MAX_FORWARD_SPEED));
-            }
-        } else {
-            // Apply friction when not accelerating
-            double friction = FRICTION * deltaTime;
-            if (Math.abs(speed) > friction) {
-                speed -= Math.signum(speed) * friction;
-            } else {
-                speed = 0;
-            }
-        }
-        
-        // Apply air resistance (quadratic drag)
-        double airDrag = AIR_RESISTANCE * speed * speed * deltaTime;
-        if (Math.abs(speed) > airDrag) {
-            speed -= Math.signum(speed) * airDrag;
-        } else {
-            speed = 0;
-        }
-        
-        // Update position based on speed and angle
-        if (Math.abs(speed) > 0.01) {
-            // Convert angle to radians for calculation
-            double angleRad = Math.toRadians(angle);
-            
-            // Calculate velocity components
-            velocity.x = speed * Math.cos(angleRad);
-            velocity.y = speed * Math.sin(angleRad);
-            
-            // Update position
-            position.x += velocity.x * deltaTime;
-            position.y += velocity.y * deltaTime;
-            
-            // Adjust angle based on steering (bicycle model)
-            if (Math.abs(steeringAngle) > 0.1 && Math.abs(speed) > 0.1) {
-                double wheelbase = length * WHEELBASE_RATIO;
-                double turningRadius = wheelbase / Math.sin(Math.toRadians(Math.abs(steeringAngle)));
-                double angularVelocity = (speed / turningRadius) * Math.signum(steeringAngle);
-                angle += Math.toDegrees(angularVelocity) * deltaTime;
-                
-                // Normalize angle to 0-360
-                angle = (angle % 360 + 360) % 360;
-            }
-        } else {
-            velocity.x = 0;
-            velocity.y = 0;
-        }
+        store.integrate(index, deltaTime);
     }
     
-    // Control methods
+    // Control methods. Each one wakes the vehicle if it changes what the
+    // next integration step would do, so repeated identical input is free.
     public void accelerate(double amount) {
-        reversing = false;
-        targetSpeed = amount * MAX_FORWARD_SPEED;
+        store.reversing[index] = false;
+        setTargetSpeed(amount * MAX_FORWARD_SPEED);
     }
     
     public void reverse(double amount) {
-        reversing = true;
-        targetSpeed = -amount * MAX_REVERSE_SPEED;
+        store.reversing[index] = true;
+        setTargetSpeed(-amount * MAX_REVERSE_SPEED);
     }
     
     public void brake(double amount) {
+        double speed = store.speed[index];
         if (speed > 0) {
-            targetSpeed = Math.max(0, speed - amount * MAX_DECELERATION);
+            setTargetSpeed(Math.max(0, speed - amount * MAX_DECELERATION));
         } else if (speed < 0) {
-            targetSpeed = Math.min(0, speed + amount * MAX_DECELERATION);
+            setTargetSpeed(Math.min(0, speed + amount * MAX_DECELERATION));
         }
     }
     
     public void handbrake() {
         // Immediate stop with skidding effect
-        targetSpeed = 0;
-        speed *= 0.7; // Rapid deceleration
+        setTargetSpeed(0);
+        setSpeed(store.speed[index] * 0.7); // Rapid deceleration
     }
     
     public void steer(double amount) {
-        targetSteeringAngle = amount * MAX_STEERING_ANGLE;
+        setTargetSteeringAngle(amount * MAX_STEERING_ANGLE);
     }
     
     public void centerSteering() {
-        targetSteeringAngle = 0;
+        setTargetSteeringAngle(0);
+    }
+    
+    private void setTargetSpeed(double targetSpeed) {
+        if (store.targetSpeed[index] != targetSpeed) {
+            store.targetSpeed[index] = targetSpeed;
+            store.wake(index);
+        }
+    }
+    
+    private void setTargetSteeringAngle(double targetSteeringAngle) {
+        if (store.targetSteeringAngle[index] != targetSteeringAngle) {
+            store.targetSteeringAngle[index] = targetSteeringAngle;
+            store.wake(index);
+        }
+    }
+    
+    /**
+     * Returns the vehicle to the set integrated every tick. Vehicles fall
+     * asleep on their own once they park or come to rest, and any change to
+     * their pose, speed or control targets wakes them again. Parked vehicles
+     * stay asleep, but the store records that they changed.
+     */
+    public void wake() {
+        if (!store.parked[index]) {
+            store.wake(index);
+        } else {
+            store.markParkedChange(index);
+        }
+    }
+    
+    public boolean isAwake() {
+        return store.isAwake(index);
     }
     
     // Movement primitives for parking algorithm
@@ -176,21 +142,21 @@ public class Vehicle {
         } else if (throttle < 0) {
             reverse(-throttle / MAX_REVERSE_SPEED);
         } else {
-            targetSpeed = 0;
+            setTargetSpeed(0);
         }
     }
     
     public void rotate(double degrees) {
-        angle += degrees;
-        angle = (angle % 360 + 360) % 360;
+        double angle = store.angle[index] + degrees;
+        setAngle((angle % 360 + 360) % 360);
     }
     
     // Helper methods
     private Color generateRandomColor() {
         return new Color(
-            (int)(Math.random() * 156) + 100, // Avoid very dark colors
-            (int)(Math.random() * 156) + 100,
-            (int)(Math.random() * 156) + 100
+            random.nextInt(156) + 100, // Avoid very dark colors
+            random.nextInt(156) + 100,
+            random.nextInt(156) + 100
         );
     }
     
@@ -200,77 +166,160 @@ public class Vehicle {
         StringBuilder plate = new StringBuilder();
         
         // Format: XX-999-X
-        plate.append(letters.charAt((int)(Math.random() * letters.length())));
-        plate.append(letters.charAt((int)(Math.random() * letters.length())));
+        plate.append(letters.charAt(random.nextInt(letters.length())));
+        plate.append(letters.charAt(random.nextInt(letters.length())));
         plate.append('-');
         for (int i = 0; i < 3; i++) {
-            plate.append(numbers.charAt((int)(Math.random() * numbers.length())));
+            plate.append(numbers.charAt(random.nextInt(numbers.length())));
         }
         plate.append('-');
-        plate.append(letters.charAt((int)(Math.random() * letters.length())));
+        plate.append(letters.charAt(random.nextInt(letters.length())));
         
         return plate.toString();
     }
     
+    // Store binding
+    VehicleStateStore getStateStore() {
+        return store;
+    }
+    
+    int getStateIndex() {
+        return index;
+    }
+    
+    void bind(VehicleStateStore store, int index) {
+        this.store = store;
+        this.index = index;
+    }
+    
     // Getters and setters
     public Point2D.Double getPosition() {
-        return new Point2D.Double(position.x, position.y);
+        return new Point2D.Double(store.x[index], store.y[index]);
     }
-
+    
+    public double getX() {
+        return store.x[index];
+    }
+    
+    public double getY() {
+        return store.y[index];
+    }
+    
     public void setPosition(Point2D.Double position) {
-        this.position.x = position.x;
-        this.position.y = position.y;
+        setPosition(position.x, position.y);
+    }
+    
+    /**
+     * Places the vehicle. This is a jump, not motion, so swept collision
+     * checks treat the new position as the start of the step.
+     */
+    public void setPosition(double x, double y) {
+        if (store.x[index] != x || store.y[index] != y) {
+            store.x[index] = x;
+            store.y[index] = y;
+            store.previousX[index] = x;
+            store.previousY[index] = y;
+            wake();
+        }
+    }
+    
+    /**
+     * Moves the vehicle along a path it is driving, such as a parking
+     * maneuver. Unlike {@link #setPosition} this is motion: the step still
+     * starts where the tick started, so swept collision checks cover it,
+     * and speed, direction and velocity are what the path drives.
+     * @param speed Signed like {@link #getSpeed()}, negative in reverse;
+     *              standing keeps the last direction
+     */
+    public void followPath(double x, double y, double angle, double speed) {
+        wake(); // before moving, so a sleeping vehicle's step starts where it stood
+        store.x[index] = x;
+        store.y[index] = y;
+        store.angle[index] = angle;
+        store.speed[index] = speed;
+        store.targetSpeed[index] = speed;
+        if (speed != 0) {
+            store.reversing[index] = speed < 0;
+        }
+        double angleRad = Math.toRadians(angle);
+        store.velocityX[index] = speed * Math.cos(angleRad);
+        store.velocityY[index] = speed * Math.sin(angleRad);
     }
     
     public Point2D.Double getVelocity() {
-        return velocity;
+        return new Point2D.Double(store.velocityX[index], store.velocityY[index]);
     }
-
+    
+    public double getVelocityX() {
+        return store.velocityX[index];
+    }
+    
+    public double getVelocityY() {
+        return store.velocityY[index];
+    }
+    
     public double getLength() {
-        return length;
+        return store.length[index];
     }
-
+    
     public double getWidth() {
-        return width;
+        return store.width[index];
     }
-
+    
     public double getAngle() {
-        return angle;
+        return store.angle[index];
     }
     
     public void setAngle(double angle) {
-        this.angle = angle;
+        if (store.angle[index] != angle) {
+            store.angle[index] = angle;
+            wake();
+        }
     }
     
     public double getSpeed() {
-        return speed;
+        return store.speed[index];
+    }
+    
+    public void setSpeed(double speed) {
+        if (store.speed[index] != speed) {
+            store.speed[index] = speed;
+            wake();
+        }
     }
     
     public double getAcceleration() {
-        return acceleration;
+        return store.acceleration[index];
     }
     
     public double getSteeringAngle() {
-        return steeringAngle;
+        return store.steeringAngle[index];
     }
     
     public boolean isUserControlled() {
-        return userControlled;
+        return store.userControlled[index];
     }
     
     public void setUserControlled(boolean userControlled) {
-        this.userControlled = userControlled;
+        store.userControlled[index] = userControlled;
     }
     
     public boolean isParked() {
-        return parked;
+        return store.parked[index];
     }
     
     public void setParked(boolean parked) {
-        this.parked = parked;
+        if (store.parked[index] != parked) {
+            store.markParkedChange(index);
+        }
+        store.parked[index] = parked;
         if (parked) {
-            speed = 0;
-            steeringAngle = 0;
+            store.speed[index] = 0;
+            store.acceleration[index] = 0;
+            store.steeringAngle[index] = 0;
+            store.sleep(index);
+        } else {
+            store.wake(index);
         }
     }
     
@@ -286,53 +335,98 @@ public class Vehicle {
         return licensePlate;
     }
     
+    /**
+     * Returns the random stream owned by this vehicle. Only the thread
+     * currently updating the vehicle may draw from it.
+     */
+    public SplittableRandom getRandom() {
+        return random;
+    }
+    
+    public void setRandom(SplittableRandom random) {
+        this.random = random;
+    }
+    
     public boolean isReversing() {
-        return reversing;
+        return store.reversing[index];
+    }
+    
+    public ParkingSpace getTargetParkingSpace() {
+        return targetParkingSpace;
+    }
+    
+    public void setTargetParkingSpace(ParkingSpace targetParkingSpace) {
+        this.targetParkingSpace = targetParkingSpace;
     }
     
     public double getTurningRadius() {
+        double steeringAngle = store.steeringAngle[index];
         if (Math.abs(steeringAngle) < 0.1) return Double.POSITIVE_INFINITY;
-        return (length * WHEELBASE_RATIO) / Math.sin(Math.toRadians(Math.abs(steeringAngle)));
+        return (store.length[index] * WHEELBASE_RATIO) / Math.sin(Math.toRadians(Math.abs(steeringAngle)));
+    }
+    
+    /**
+     * Returns the turning radius at full steering lock.
+     */
+    public double getMinTurningRadius() {
+        return minTurningRadius(store.length[index]);
+    }
+    
+    /**
+     * Returns the turning radius at full steering lock of a vehicle with the
+     * given length.
+     */
+    public static double minTurningRadius(double length) {
+        return (length * WHEELBASE_RATIO) / Math.sin(Math.toRadians(MAX_STEERING_ANGLE));
     }
     
     public Point2D.Double[] getCornerPoints() {
+        double[] packed = new double[8];
+        writeCornerPoints(packed, 0);
+        
         Point2D.Double[] corners = new Point2D.Double[4];
-        double halfLength = length / 2;
-        double halfWidth = width / 2;
-        double angleRad = Math.toRadians(angle);
+        for (int i = 0; i < 4; i++) {
+            corners[i] = new Point2D.Double(packed[i * 2], packed[i * 2 + 1]);
+        }
+        return corners;
+    }
+    
+    /**
+     * Writes the four corners as x0, y0, ..., x3, y3 without allocating.
+     * Order is front right, front left, rear left, rear right.
+     * @param out Destination array, needs 8 slots from offset
+     * @param offset Index of the first corner's x coordinate
+     */
+    public void writeCornerPoints(double[] out, int offset) {
+        double x = store.x[index];
+        double y = store.y[index];
+        double halfLength = store.length[index] / 2;
+        double halfWidth = store.width[index] / 2;
+        double angleRad = Math.toRadians(store.angle[index]);
+        double cos = Math.cos(angleRad);
+        double sin = Math.sin(angleRad);
         
         // Front right
-        corners[0] = new Point2D.Double(
-            position.x + halfLength * Math.cos(angleRad) - halfWidth * Math.sin(angleRad),
-            position.y + halfLength * Math.sin(angleRad) + halfWidth * Math.cos(angleRad)
-        );
+        out[offset]     = x + halfLength * cos - halfWidth * sin;
+        out[offset + 1] = y + halfLength * sin + halfWidth * cos;
         
         // Front left
-        corners[1] = new Point2D.Double(
-            position.x + halfLength * Math.cos(angleRad) + halfWidth * Math.sin(angleRad),
-            position.y + halfLength * Math.sin(angleRad) - halfWidth * Math.cos(angleRad)
-        );
+        out[offset + 2] = x + halfLength * cos + halfWidth * sin;
+        out[offset + 3] = y + halfLength * sin - halfWidth * cos;
         
         // Rear left
-        corners[2] = new Point2D.Double(
-            position.x - halfLength * Math.cos(angleRad) + halfWidth * Math.sin(angleRad),
-            position.y - halfLength * Math.sin(angleRad) - halfWidth * Math.cos(angleRad)
-        );
+        out[offset + 4] = x - halfLength * cos + halfWidth * sin;
+        out[offset + 5] = y - halfLength * sin - halfWidth * cos;
         
         // Rear right
-        corners[3] = new Point2D.Double(
-            position.x - halfLength * Math.cos(angleRad) - halfWidth * Math.sin(angleRad),
-            position.y - halfLength * Math.sin(angleRad) + halfWidth * Math.cos(angleRad)
-        );
-        
-        return corners;
-    }
-
-    public void setTargetParkingSpace(ParkingSpace findRandomAvailableSpace) {
-        throw new UnsupportedOperationException("Not supported yet."); // Generated from nbfs://nbhost/SystemFileSystem/Templates/Classes/Code/GeneratedMethodBody
+        out[offset + 6] = x - halfLength * cos - halfWidth * sin;
+        out[offset + 7] = y - halfLength * sin + halfWidth * cos;
     }
-
-    public void setSpeed(double d) {
-        throw new UnsupportedOperationException("Not supported yet."); // Generated from nbfs://nbhost/SystemFileSystem/Templates/Classes/Code/GeneratedMethodBody
+    
+    /**
+     * Shifts the vehicle without changing its heading or speed.
+     */
+    public void translate(double dx, double dy) {
+        setPosition(store.x[index] + dx, store.y[index] + dy);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,590 @@
+package com.mycompany.parkingsystem.model;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Structure-of-arrays storage for the kinematic state of a fleet of vehicles.
+ *
+ * Every vehicle owns one index into a set of parallel primitive arrays, and
+ * {@link Vehicle} is a thin view over that index. Keeping the state packed
+ * lets the simulation integrate the whole fleet in one linear pass without
+ * pointer chasing or per-read allocation.
+ *
+ * Vehicles are also tracked as awake or asleep. Only awake vehicles are
+ * integrated; a vehicle falls asleep when it parks or comes to rest and is
+ * woken when its speed or control targets change. Sleeping vehicles that are
+ * not parked are kept in a separate resting set because they still take part
+ * in collisions as static bodies.
+ */
+public class VehicleStateStore {
+    private static final int DEFAULT_CAPACITY = 16;
+    private static final double REST_SPEED_TOLERANCE = 0.1; // matches the target speed dead band in integrate
+
+    // Per-substep limits; a 60 Hz step stays within all of them
+    private static final double MAX_SUBSTEP_DISTANCE = 0.25;     // meters
+    private static final double MAX_SUBSTEP_HEADING = 5.0;       // degrees
+    private static final double MAX_SUBSTEP_SPEED_CHANGE = 0.5;  // m/s
+    private static final double MAX_SUBSTEP_STEERING = 10.0;     // degrees
+    private static final int MAX_SUBSTEPS = 64;
+
+    // Per-vehicle fields in a state dump, see doubleFields and booleanFields
+    private static final int DOUBLE_FIELDS = 14;
+    private static final int BOOLEAN_FIELDS = 3;
+
+    private int size;
+
+    // Pose and motion
+    double[] x;
+    double[] y;
+    double[] velocityX;
+    double[] velocityY;
+    double[] angle;          // degrees
+    double[] speed;          // m/s
+    double[] acceleration;   // m/s²
+    double[] steeringAngle;  // degrees
+    double[] previousX;      // position at the start of the last step
+    double[] previousY;
+
+    // Control targets
+    double[] targetSteeringAngle;
+    double[] targetSpeed;
+
+    // Geometry
+    double[] length;
+    double[] width;
+
+    // Flags
+    boolean[] reversing;
+    boolean[] parked;
+    boolean[] userControlled;
+
+    // Sleep management
+    private final DenseIndexSet active;
+    private final DenseIndexSet resting;
+    private int restingVersion;
+    private final DenseIndexSet parkedChanges; // parked, unparked or moved while parked
+
+    public VehicleStateStore() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public VehicleStateStore(int initialCapacity) {
+        int capacity = Math.max(1, initialCapacity);
+        x = new double[capacity];
+        y = new double[capacity];
+        velocityX = new double[capacity];
+        velocityY = new double[capacity];
+        angle = new double[capacity];
+        speed = new double[capacity];
+        acceleration = new double[capacity];
+        steeringAngle = new double[capacity];
+        previousX = new double[capacity];
+        previousY = new double[capacity];
+        targetSteeringAngle = new double[capacity];
+        targetSpeed = new double[capacity];
+        length = new double[capacity];
+        width = new double[capacity];
+        reversing = new boolean[capacity];
+        parked = new boolean[capacity];
+        userControlled = new boolean[capacity];
+        active = new DenseIndexSet(capacity);
+        resting = new DenseIndexSet(capacity);
+        parkedChanges = new DenseIndexSet(capacity);
+    }
+
+    /**
+     * Allocates a slot for a new vehicle at rest.
+     * @return The index of the new slot
+     */
+    public int add(double positionX, double positionY, double vehicleLength, double vehicleWidth) {
+        ensureCapacity(size + 1);
+        int index = size++;
+        x[index] = positionX;
+        y[index] = positionY;
+        previousX[index] = positionX;
+        previousY[index] = positionY;
+        length[index] = vehicleLength;
+        width[index] = vehicleWidth;
+        active.add(index);
+        return index;
+    }
+
+    /**
+     * Moves a vehicle's state into this store and rebinds the vehicle to the
+     * new slot. Vehicles already backed by this store are left where they are.
+     * @return The vehicle's index in this store
+     */
+    public int attach(Vehicle vehicle) {
+        VehicleStateStore source = vehicle.getStateStore();
+        int from = vehicle.getStateIndex();
+        if (source == this) {
+            return from;
+        }
+
+        int index = add(source.x[from], source.y[from], source.length[from], source.width[from]);
+        velocityX[index] = source.velocityX[from];
+        velocityY[index] = source.velocityY[from];
+        angle[index] = source.angle[from];
+        speed[index] = source.speed[from];
+        acceleration[index] = source.acceleration[from];
+        steeringAngle[index] = source.steeringAngle[from];
+        targetSteeringAngle[index] = source.targetSteeringAngle[from];
+        targetSpeed[index] = source.targetSpeed[from];
+        reversing[index] = source.reversing[from];
+        parked[index] = source.parked[from];
+        userControlled[index] = source.userControlled[from];
+        if (!source.isAwake(from)) {
+            sleep(index);
+        }
+
+        vehicle.bind(this, index);
+        return index;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Integrates the physics of the awake vehicles at positions
+     * {@code [from, to)} of the active set.
+     * @param deltaTime Time elapsed since last update in seconds
+     */
+    public void integrateActive(int from, int to, double deltaTime) {
+        for (int k = from; k < to; k++) {
+            integrate(active.get(k), deltaTime);
+        }
+    }
+
+    /**
+     * Puts every awake vehicle that is parked or whose integration would be a
+     * no-op to sleep. Call between integration steps, never concurrently with
+     * them.
+     */
+    public void sleepIdleVehicles() {
+        // Walk backwards so swap-removal doesn't skip entries
+        for (int k = active.size() - 1; k >= 0; k--) {
+            int i = active.get(k);
+            if (parked[i] || isAtRest(i)) {
+                sleep(i);
+            }
+        }
+    }
+
+    /**
+     * Moves a vehicle into the active set. Only reads shared state when the
+     * vehicle is already awake, so it is safe to call from a worker that is
+     * integrating that vehicle.
+     */
+    public void wake(int index) {
+        if (active.contains(index)) return;
+        if (resting.remove(index)) {
+            restingVersion++;
+        }
+        active.add(index);
+        // Sleeping vehicles didn't move, so the next step starts here
+        previousX[index] = x[index];
+        previousY[index] = y[index];
+    }
+
+    /**
+     * Removes a vehicle from the active set. Parked vehicles leave the
+     * simulation entirely; others stay in the resting set for collisions.
+     */
+    public void sleep(int index) {
+        active.remove(index);
+        boolean changed = parked[index] ? resting.remove(index) : resting.add(index);
+        if (changed) {
+            restingVersion++;
+        }
+    }
+
+    public boolean isAwake(int index) {
+        return active.contains(index);
+    }
+
+    public int getActiveCount() {
+        return active.size();
+    }
+
+    /** Returns the vehicle index at position {@code k} of the active set. */
+    public int getActiveIndex(int k) {
+        return active.get(k);
+    }
+
+    public int getRestingCount() {
+        return resting.size();
+    }
+
+    /** Returns the vehicle index at position {@code k} of the resting set. */
+    public int getRestingIndex(int k) {
+        return resting.get(k);
+    }
+
+    /**
+     * Changes whenever a vehicle enters or leaves the resting set, so callers
+     * can cache data derived from it. Resting vehicles never move without
+     * being woken first.
+     */
+    public int getRestingVersion() {
+        return restingVersion;
+    }
+
+    /**
+     * Returns how many vehicles parked, left their space or were moved while
+     * parked since {@link #clearParkedChanges}, so callers can keep data about
+     * parked vehicles current without scanning the fleet.
+     */
+    public int getParkedChangeCount() {
+        return parkedChanges.size();
+    }
+
+    /** Returns the vehicle index at position {@code k} of the parked changes. */
+    public int getParkedChangeIndex(int k) {
+        return parkedChanges.get(k);
+    }
+
+    public void clearParkedChanges() {
+        for (int k = parkedChanges.size() - 1; k >= 0; k--) {
+            parkedChanges.remove(parkedChanges.get(k));
+        }
+    }
+
+    void markParkedChange(int index) {
+        parkedChanges.add(index);
+    }
+
+    private boolean isAtRest(int i) {
+        return speed[i] == 0
+            && Math.abs(targetSpeed[i]) <= REST_SPEED_TOLERANCE
+            && steeringAngle[i] == targetSteeringAngle[i];
+    }
+
+    /**
+     * Updates one vehicle's state based on physics simulation. Long steps
+     * are split into as many substeps as this vehicle's speed, turning and
+     * control changes need, so slow or idle vehicles still take one.
+     * @param deltaTime Time elapsed since last update in seconds
+     */
+    public void integrate(int i, double deltaTime) {
+        previousX[i] = x[i];
+        previousY[i] = y[i];
+
+        int substeps = substepCount(i, deltaTime);
+        double substep = deltaTime / substeps;
+        for (int n = 0; n < substeps; n++) {
+            integrateSubstep(i, substep);
+        }
+    }
+
+    /**
+     * Returns how many substeps keep one step of this vehicle within the
+     * per-substep limits on distance, heading, speed and steering change.
+     */
+    private int substepCount(int i, double deltaTime) {
+        if (parked[i]) return 1;
+
+        // Fastest the vehicle can go during the step
+        double reachableSpeed = Math.abs(speed[i]) + Vehicle.MAX_ACCELERATION * deltaTime;
+        double needed = reachableSpeed * deltaTime / MAX_SUBSTEP_DISTANCE;
+
+        double steering = Math.max(Math.abs(steeringAngle[i]), Math.abs(targetSteeringAngle[i]));
+        if (steering > 0.1) {
+            double wheelbase = length[i] * Vehicle.WHEELBASE_RATIO;
+            double turnRate = Math.toDegrees(reachableSpeed * Math.sin(Math.toRadians(steering)) / wheelbase);
+            needed = Math.max(needed, turnRate * deltaTime / MAX_SUBSTEP_HEADING);
+        }
+        if (Math.abs(speed[i] - targetSpeed[i]) > REST_SPEED_TOLERANCE) {
+            needed = Math.max(needed, Vehicle.MAX_ACCELERATION * deltaTime / MAX_SUBSTEP_SPEED_CHANGE);
+        }
+        if (steeringAngle[i] != targetSteeringAngle[i]) {
+            needed = Math.max(needed, Vehicle.STEERING_RESPONSE * deltaTime / MAX_SUBSTEP_STEERING);
+        }
+
+        return (int) Math.min(MAX_SUBSTEPS, Math.max(1, Math.ceil(needed)));
+    }
+
+    private void integrateSubstep(int i, double deltaTime) {
+        if (parked[i]) {
+            // Parked vehicles don't move
+            speed[i] = 0;
+            acceleration[i] = 0;
+            steeringAngle[i] = 0;
+            return;
+        }
+
+        // Update steering (smooth steering response)
+        double steering = steeringAngle[i];
+        double targetSteering = targetSteeringAngle[i];
+        if (steering < targetSteering) {
+            steering = Math.min(targetSteering, steering + Vehicle.STEERING_RESPONSE * deltaTime);
+        } else if (steering > targetSteering) {
+            steering = Math.max(targetSteering, steering - Vehicle.STEERING_RESPONSE * deltaTime);
+        }
+        steeringAngle[i] = steering;
+
+        // Update speed based on acceleration
+        double v = speed[i];
+        double target = targetSpeed[i];
+        if (Math.abs(v - target) > 0.1) {
+            double accel = Math.signum(target - v) * Vehicle.MAX_ACCELERATION;
+            acceleration[i] = accel;
+            v += accel * deltaTime;
+
+            // Apply speed limits
+            if (reversing[i]) {
+                v = Math.max(-Vehicle.MAX_REVERSE_SPEED, Math.min(v, 0));
+            } else {
+                v = Math.max(0, Math.min(v, Vehicle.MAX_FORWARD_SPEED));
+            }
+        } else {
+            // Apply friction when not accelerating
+            double friction = Vehicle.FRICTION * deltaTime;
+            if (Math.abs(v) > friction) {
+                v -= Math.signum(v) * friction;
+            } else {
+                v = 0;
+            }
+        }
+
+        // Apply air resistance (quadratic drag)
+        double airDrag = Vehicle.AIR_RESISTANCE * v * v * deltaTime;
+        if (Math.abs(v) > airDrag) {
+            v -= Math.signum(v) * airDrag;
+        } else {
+            v = 0;
+        }
+        speed[i] = v;
+
+        // Update position based on speed and angle
+        if (Math.abs(v) > 0.01) {
+            double angleRad = Math.toRadians(angle[i]);
+            double vx = v * Math.cos(angleRad);
+            double vy = v * Math.sin(angleRad);
+            velocityX[i] = vx;
+            velocityY[i] = vy;
+            x[i] += vx * deltaTime;
+            y[i] += vy * deltaTime;
+
+            // Adjust angle based on steering (bicycle model)
+            if (Math.abs(steering) > 0.1 && Math.abs(v) > 0.1) {
+                double wheelbase = length[i] * Vehicle.WHEELBASE_RATIO;
+                double turningRadius = wheelbase / Math.sin(Math.toRadians(Math.abs(steering)));
+                double angularVelocity = (v / turningRadius) * Math.signum(steering);
+                double heading = angle[i] + Math.toDegrees(angularVelocity) * deltaTime;
+
+                // Normalize angle to 0-360
+                angle[i] = (heading % 360 + 360) % 360;
+            }
+        } else {
+            velocityX[i] = 0;
+            velocityY[i] = 0;
+        }
+    }
+
+    // Bulk read access for consumers outside the model package
+    public double getX(int index) {
+        return x[index];
+    }
+
+    public double getY(int index) {
+        return y[index];
+    }
+
+    public double getAngle(int index) {
+        return angle[index];
+    }
+
+    /**
+     * Returns the x position at the start of the last integration step, or
+     * where the vehicle was last placed if that happened since.
+     */
+    public double getPreviousX(int index) {
+        return previousX[index];
+    }
+
+    public double getPreviousY(int index) {
+        return previousY[index];
+    }
+
+    public double getSpeed(int index) {
+        return speed[index];
+    }
+
+    public boolean isParked(int index) {
+        return parked[index];
+    }
+
+    public double getLength(int index) {
+        return length[index];
+    }
+
+    public double getWidth(int index) {
+        return width[index];
+    }
+
+    public boolean isUserControlled(int index) {
+        return userControlled[index];
+    }
+
+    /**
+     * Returns the number of bytes {@link #writeState} needs.
+     */
+    public int stateSizeBytes() {
+        return 4 + size * (DOUBLE_FIELDS * Double.BYTES + BOOLEAN_FIELDS)
+            + 4 + active.size() * Integer.BYTES + 4 + resting.size() * Integer.BYTES;
+    }
+
+    /**
+     * Writes every vehicle's state, plus the order of the active and resting
+     * sets so that a restored run processes vehicles in the same order.
+     */
+    public void writeState(ByteBuffer out) {
+        out.putInt(size);
+        for (double[] field : doubleFields()) {
+            out.asDoubleBuffer().put(field, 0, size);
+            out.position(out.position() + size * Double.BYTES);
+        }
+        for (boolean[] field : booleanFields()) {
+            for (int i = 0; i < size; i++) {
+                out.put(field[i] ? (byte) 1 : (byte) 0);
+            }
+        }
+        writeIndexSet(out, active);
+        writeIndexSet(out, resting);
+    }
+
+    /**
+     * Replaces every vehicle's state with one written by {@link #writeState}.
+     * The store must already hold the same number of vehicles.
+     */
+    public void readState(ByteBuffer in) {
+        int count = in.getInt();
+        if (count != size) {
+            throw new IllegalArgumentException("State holds " + count + " vehicles, store has " + size);
+        }
+        for (double[] field : doubleFields()) {
+            in.asDoubleBuffer().get(field, 0, size);
+            in.position(in.position() + size * Double.BYTES);
+        }
+        for (boolean[] field : booleanFields()) {
+            for (int i = 0; i < size; i++) {
+                field[i] = in.get() != 0;
+            }
+        }
+        readIndexSet(in, active);
+        readIndexSet(in, resting);
+        restingVersion++;
+        // Any vehicle may have parked or left
+        for (int i = 0; i < size; i++) {
+            parkedChanges.add(i);
+        }
+    }
+
+    private double[][] doubleFields() {
+        return new double[][] {
+            x, y, velocityX, velocityY, angle, speed, acceleration, steeringAngle,
+            previousX, previousY, targetSteeringAngle, targetSpeed, length, width
+        };
+    }
+
+    private boolean[][] booleanFields() {
+        return new boolean[][] {reversing, parked, userControlled};
+    }
+
+    private static void writeIndexSet(ByteBuffer out, DenseIndexSet set) {
+        out.putInt(set.size());
+        for (int k = 0; k < set.size(); k++) {
+            out.putInt(set.get(k));
+        }
+    }
+
+    private void readIndexSet(ByteBuffer in, DenseIndexSet set) {
+        for (int i = 0; i < size; i++) {
+            set.remove(i);
+        }
+        int count = in.getInt();
+        for (int k = 0; k < count; k++) {
+            set.add(in.getInt());
+        }
+    }
+
+    private void ensureCapacity(int required) {
+        if (required <= x.length) return;
+        int capacity = Math.max(required, x.length * 2);
+        x = Arrays.copyOf(x, capacity);
+        y = Arrays.copyOf(y, capacity);
+        velocityX = Arrays.copyOf(velocityX, capacity);
+        velocityY = Arrays.copyOf(velocityY, capacity);
+        angle = Arrays.copyOf(angle, capacity);
+        speed = Arrays.copyOf(speed, capacity);
+        acceleration = Arrays.copyOf(acceleration, capacity);
+        steeringAngle = Arrays.copyOf(steeringAngle, capacity);
+        previousX = Arrays.copyOf(previousX, capacity);
+        previousY = Arrays.copyOf(previousY, capacity);
+        targetSteeringAngle = Arrays.copyOf(targetSteeringAngle, capacity);
+        targetSpeed = Arrays.copyOf(targetSpeed, capacity);
+        length = Arrays.copyOf(length, capacity);
+        width = Arrays.copyOf(width, capacity);
+        reversing = Arrays.copyOf(reversing, capacity);
+        parked = Arrays.copyOf(parked, capacity);
+        userControlled = Arrays.copyOf(userControlled, capacity);
+        active.ensureCapacity(capacity);
+        resting.ensureCapacity(capacity);
+        parkedChanges.ensureCapacity(capacity);
+    }
+
+    /**
+     * Unordered set of vehicle indices with O(1) add, remove and membership,
+     * stored densely so it can be iterated like an array.
+     */
+    private static final class DenseIndexSet {
+        private int[] members;
+        private int[] positions; // index -> position in members, or -1
+        private int size;
+
+        DenseIndexSet(int capacity) {
+            members = new int[capacity];
+            positions = new int[capacity];
+            Arrays.fill(positions, -1);
+        }
+
+        int size() {
+            return size;
+        }
+
+        int get(int k) {
+            return members[k];
+        }
+
+        boolean contains(int index) {
+            return positions[index] >= 0;
+        }
+
+        boolean add(int index) {
+            if (positions[index] >= 0) return false;
+            positions[index] = size;
+            members[size++] = index;
+            return true;
+        }
+
+        boolean remove(int index) {
+            int position = positions[index];
+            if (position < 0) return false;
+            int last = members[--size];
+            members[position] = last;
+            positions[last] = position;
+            positions[index] = -1;
+            return true;
+        }
+
+        void ensureCapacity(int capacity) {
+            if (capacity <= positions.length) return;
+            int oldLength = positions.length;
+            members = Arrays.copyOf(members, capacity);
+            positions = Arrays.copyOf(positions, capacity);
+            Arrays.fill(positions, oldLength, capacity, -1);
+        }
+    }
+}
@@ -0,0 +1,238 @@
+package com.mycompany.parkingsystem.simulation;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Hashed timing wheel that schedules a recurring AI decision per vehicle.
+ *
+ * Each vehicle has its own decision interval and phase, so decisions are
+ * spread over the wheel's slots instead of all landing in the same tick.
+ * Scheduling, cancelling and firing are O(1) per vehicle; entries are kept in
+ * doubly linked lists over primitive arrays indexed by vehicle.
+ */
+public class AIDecisionScheduler {
+
+    /**
+     * Called when a vehicle's decision is due. The vehicle has already been
+     * rescheduled for its next decision when this runs.
+     */
+    @FunctionalInterface
+    public interface DecisionHandler {
+        void decide(int vehicleIndex);
+    }
+
+    private static final int NONE = -1;
+
+    private final double slotDuration;
+    private final int wheelBits;
+    private final int wheelMask;
+    private final int detachedSlot; // Extra list holding the slot being processed
+    private final int[] wheelHeads;
+
+    // Per-vehicle entries
+    private int[] next = new int[0];
+    private int[] previous = new int[0];
+    private int[] bucket = new int[0];
+    private int[] rounds = new int[0];
+    private double[] interval = new double[0];
+
+    private long currentSlot = 0;
+    private double slotTime = 0;
+
+    /**
+     * @param slotDuration Time covered by one wheel slot, usually one tick
+     * @param wheelBits log2 of the number of slots; intervals longer than the
+     *                  wheel are handled with extra rounds
+     */
+    public AIDecisionScheduler(double slotDuration, int wheelBits) {
+        if (slotDuration <= 0 || wheelBits < 1 || wheelBits > 20) {
+            throw new IllegalArgumentException("Invalid wheel configuration");
+        }
+        this.slotDuration = slotDuration;
+        this.wheelBits = wheelBits;
+        this.wheelMask = (1 << wheelBits) - 1;
+        this.detachedSlot = 1 << wheelBits;
+        this.wheelHeads = new int[detachedSlot + 1];
+        Arrays.fill(wheelHeads, NONE);
+    }
+
+    /**
+     * Starts recurring decisions for a vehicle, replacing any existing entry.
+     * @param decisionInterval Seconds between decisions
+     * @param initialDelay Seconds until the first decision, used to set the phase
+     */
+    public void schedule(int vehicleIndex, double decisionInterval, double initialDelay) {
+        if (decisionInterval <= 0) {
+            throw new IllegalArgumentException("Decision interval must be positive");
+        }
+        ensureCapacity(vehicleIndex + 1);
+        cancel(vehicleIndex);
+        interval[vehicleIndex] = decisionInterval;
+        insert(vehicleIndex, initialDelay);
+    }
+
+    /**
+     * Stops decisions for a vehicle. Does nothing if it is not scheduled.
+     */
+    public void cancel(int vehicleIndex) {
+        if (!isScheduled(vehicleIndex)) return;
+
+        int prev = previous[vehicleIndex];
+        int following = next[vehicleIndex];
+        if (prev == NONE) {
+            wheelHeads[bucket[vehicleIndex]] = following;
+        } else {
+            next[prev] = following;
+        }
+        if (following != NONE) {
+            previous[following] = prev;
+        }
+        bucket[vehicleIndex] = NONE;
+    }
+
+    public boolean isScheduled(int vehicleIndex) {
+        return vehicleIndex < bucket.length && bucket[vehicleIndex] != NONE;
+    }
+
+    public double getInterval(int vehicleIndex) {
+        return interval[vehicleIndex];
+    }
+
+    /**
+     * Advances the wheel and fires every decision that falls due.
+     * Decisions in the same slot fire in a deterministic order.
+     */
+    public void advance(double deltaTime, DecisionHandler handler) {
+        slotTime += deltaTime;
+        while (slotTime >= slotDuration) {
+            slotTime -= slotDuration;
+            currentSlot++;
+            processSlot((int) (currentSlot & wheelMask), handler);
+        }
+    }
+
+    /**
+     * Returns the number of bytes {@link #writeState} needs.
+     */
+    public int stateSizeBytes() {
+        int entries = 0;
+        for (int slot = 0; slot <= wheelMask; slot++) {
+            for (int entry = wheelHeads[slot]; entry != NONE; entry = next[entry]) {
+                entries++;
+            }
+        }
+        return Integer.BYTES + Long.BYTES + Double.BYTES + Integer.BYTES + bucket.length * Double.BYTES
+            + (wheelMask + 1) * Integer.BYTES + entries * 2 * Integer.BYTES;
+    }
+
+    /**
+     * Writes the wheel position, every interval and each slot's entries in
+     * firing order. Must not be called from inside a decision handler.
+     */
+    public void writeState(ByteBuffer out) {
+        out.putInt(wheelBits);
+        out.putLong(currentSlot);
+        out.putDouble(slotTime);
+        out.putInt(bucket.length);
+        out.asDoubleBuffer().put(interval, 0, bucket.length);
+        out.position(out.position() + bucket.length * Double.BYTES);
+
+        for (int slot = 0; slot <= wheelMask; slot++) {
+            int count = 0;
+            for (int entry = wheelHeads[slot]; entry != NONE; entry = next[entry]) {
+                count++;
+            }
+            out.putInt(count);
+            for (int entry = wheelHeads[slot]; entry != NONE; entry = next[entry]) {
+                out.putInt(entry);
+                out.putInt(rounds[entry]);
+            }
+        }
+    }
+
+    /**
+     * Replaces all schedules with ones written by {@link #writeState} from a
+     * wheel with the same slot count.
+     */
+    public void readState(ByteBuffer in) {
+        if (in.getInt() != wheelBits) {
+            throw new IllegalArgumentException("Saved wheel has a different slot count");
+        }
+        currentSlot = in.getLong();
+        slotTime = in.getDouble();
+        int capacity = in.getInt();
+        ensureCapacity(capacity);
+        Arrays.fill(bucket, NONE);
+        Arrays.fill(wheelHeads, NONE);
+        in.asDoubleBuffer().get(interval, 0, capacity);
+        in.position(in.position() + capacity * Double.BYTES);
+
+        int[] order = new int[capacity];
+        for (int slot = 0; slot <= wheelMask; slot++) {
+            int count = in.getInt();
+            for (int k = 0; k < count; k++) {
+                order[k] = in.getInt();
+                rounds[order[k]] = in.getInt();
+            }
+            // Linking pushes at the head, so go backwards to keep firing order
+            for (int k = count - 1; k >= 0; k--) {
+                link(order[k], slot);
+            }
+        }
+    }
+
+    private void processSlot(int slot, DecisionHandler handler) {
+        // Detach the bucket so entries rescheduled into it wait a full turn.
+        // The detached entries stay in a proper list, so a handler may still
+        // cancel or reschedule any vehicle, including ones not yet processed.
+        wheelHeads[detachedSlot] = wheelHeads[slot];
+        wheelHeads[slot] = NONE;
+        for (int entry = wheelHeads[detachedSlot]; entry != NONE; entry = next[entry]) {
+            bucket[entry] = detachedSlot;
+        }
+
+        while (wheelHeads[detachedSlot] != NONE) {
+            int entry = wheelHeads[detachedSlot];
+            cancel(entry);
+
+            if (rounds[entry] > 0) {
+                rounds[entry]--;
+                link(entry, slot);
+            } else {
+                insert(entry, interval[entry]);
+                handler.decide(entry);
+            }
+        }
+    }
+
+    private void insert(int vehicleIndex, double delay) {
+        long delaySlots = Math.max(1, Math.round(delay / slotDuration));
+        int slot = (int) ((currentSlot + delaySlots) & wheelMask);
+        rounds[vehicleIndex] = (int) ((delaySlots - 1) >>> wheelBits);
+        link(vehicleIndex, slot);
+    }
+
+    private void link(int vehicleIndex, int slot) {
+        int head = wheelHeads[slot];
+        next[vehicleIndex] = head;
+        previous[vehicleIndex] = NONE;
+        if (head != NONE) {
+            previous[head] = vehicleIndex;
+        }
+        wheelHeads[slot] = vehicleIndex;
+        bucket[vehicleIndex] = slot;
+    }
+
+    private void ensureCapacity(int required) {
+        if (required <= bucket.length) return;
+        int oldLength = bucket.length;
+        int capacity = Math.max(required, oldLength * 2);
+        next = Arrays.copyOf(next, capacity);
+        previous = Arrays.copyOf(previous, capacity);
+        rounds = Arrays.copyOf(rounds, capacity);
+        interval = Arrays.copyOf(interval, capacity);
+        bucket = Arrays.copyOf(bucket, capacity);
+        Arrays.fill(bucket, oldLength, capacity, NONE);
+    }
+}
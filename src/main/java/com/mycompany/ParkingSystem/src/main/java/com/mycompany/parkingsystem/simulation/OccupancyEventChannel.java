@@ -0,0 +1,207 @@
+package com.mycompany.parkingsystem.simulation;
+
+import com.mycompany.parkingsystem.model.OccupancyListener;
+import com.mycompany.parkingsystem.model.ParkingSpace;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.DoubleSupplier;
+
+/**
+ * Publishes every occupancy change in a lot as an event of (space index,
+ * space id, old value, new value, simulated time).
+ *
+ * Handlers added with {@link #addHandler} run synchronously on the simulation
+ * thread, right after the change. Other threads {@link #subscribe} instead:
+ * events also go into a fixed-size broadcast ring, and each subscription
+ * reads it with its own cursor through {@link Subscription#poll}. The ring is
+ * lock-free and the simulation never waits for a reader; a reader that falls
+ * more than the ring's capacity behind skips the lost events and is told how
+ * many it missed, so it can fall back to a full rescan.
+ *
+ * Each ring slot is guarded like a sequence lock: the writer marks the slot
+ * busy, fills it and publishes the event's sequence number, and a reader only
+ * keeps what it read if the slot showed the same sequence before and after.
+ */
+public class OccupancyEventChannel implements OccupancyListener {
+
+    /**
+     * Receives occupancy events.
+     */
+    @FunctionalInterface
+    public interface Handler {
+        void occupancyChanged(int spaceIndex, String spaceId, boolean wasOccupied, boolean occupied,
+                              double simulationTime);
+    }
+
+    private static final VarHandle SEQUENCES = MethodHandles.arrayElementVarHandle(long[].class);
+    private static final VarHandle PUBLISHED;
+    private static final long BUSY = -1;
+
+    static {
+        try {
+            PUBLISHED = MethodHandles.lookup().findVarHandle(OccupancyEventChannel.class, "published", long.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private final List<ParkingSpace> spaces;
+    private final Map<ParkingSpace, Integer> spaceIndex;
+    private final DoubleSupplier clock;
+    private final List<Handler> handlers = new CopyOnWriteArrayList<>();
+
+    // Broadcast ring, written only by the simulation thread
+    private final int mask;
+    private final long[] sequences;
+    private final int[] eventSpace;
+    private final boolean[] eventOccupied;
+    private final double[] eventTime;
+    private long published = 0; // number of events written so far, accessed through PUBLISHED
+
+    /**
+     * Registers the channel as an occupancy listener of every given space,
+     * alongside any other listeners they already have.
+     * @param clock Current simulated time, read on the simulation thread
+     * @param capacity Ring size, rounded up to a power of two
+     */
+    public OccupancyEventChannel(List<ParkingSpace> spaces, DoubleSupplier clock, int capacity) {
+        if (capacity < 1 || capacity > 1 << 30) {
+            throw new IllegalArgumentException("Capacity must be between 1 and 2^30");
+        }
+        this.spaces = spaces;
+        this.clock = clock;
+        this.spaceIndex = new IdentityHashMap<>(spaces.size());
+        for (int j = 0; j < spaces.size(); j++) {
+            spaceIndex.put(spaces.get(j), j);
+            spaces.get(j).addOccupancyListener(this);
+        }
+
+        int size = Integer.highestOneBit(Math.max(1, capacity * 2 - 1));
+        this.mask = size - 1;
+        this.sequences = new long[size];
+        this.eventSpace = new int[size];
+        this.eventOccupied = new boolean[size];
+        this.eventTime = new double[size];
+        Arrays.fill(sequences, BUSY);
+    }
+
+    /**
+     * Stops listening to the spaces. A channel that is dropped while its
+     * spaces live on should be detached, or the spaces keep publishing to it.
+     */
+    public void detach() {
+        for (ParkingSpace space : spaces) {
+            space.removeOccupancyListener(this);
+        }
+    }
+
+    /**
+     * Adds a handler called on the simulation thread for every change.
+     */
+    public void addHandler(Handler handler) {
+        handlers.add(handler);
+    }
+
+    public void removeHandler(Handler handler) {
+        handlers.remove(handler);
+    }
+
+    /**
+     * Starts reading the ring from the next event on. The subscription must
+     * only be polled by one thread.
+     */
+    public Subscription subscribe() {
+        return new Subscription((long) PUBLISHED.getAcquire(this));
+    }
+
+    /** Returns the number of events published so far. */
+    public long getPublishedCount() {
+        return (long) PUBLISHED.getAcquire(this);
+    }
+
+    @Override
+    public void occupancyChanged(ParkingSpace space, boolean wasOccupied, boolean occupied) {
+        Integer index = spaceIndex.get(space);
+        if (index == null) return;
+        double time = clock.getAsDouble();
+
+        long sequence = (long) PUBLISHED.get(this);
+        int slot = (int) (sequence & mask);
+        SEQUENCES.setOpaque(sequences, slot, BUSY);
+        VarHandle.storeStoreFence();
+        eventSpace[slot] = index;
+        eventOccupied[slot] = occupied;
+        eventTime[slot] = time;
+        SEQUENCES.setRelease(sequences, slot, sequence);
+        PUBLISHED.setRelease(this, sequence + 1);
+
+        for (Handler handler : handlers) {
+            handler.occupancyChanged(index, space.getId(), wasOccupied, occupied, time);
+        }
+    }
+
+    /**
+     * One reader's position in the ring.
+     */
+    public final class Subscription {
+        private long cursor;
+        private long missed = 0;
+
+        private Subscription(long cursor) {
+            this.cursor = cursor;
+        }
+
+        /**
+         * Delivers every event published since the last poll, oldest first.
+         * Ring events carry only the new value; the old one is its opposite.
+         * @return Number of events delivered
+         */
+        public int poll(Handler handler) {
+            int delivered = 0;
+            long end = (long) PUBLISHED.getAcquire(OccupancyEventChannel.this);
+            while (cursor < end) {
+                long oldest = end - sequences.length;
+                if (cursor < oldest) {
+                    missed += oldest - cursor;
+                    cursor = oldest;
+                }
+
+                int slot = (int) (cursor & mask);
+                long before = (long) SEQUENCES.getAcquire(sequences, slot);
+                int space = eventSpace[slot];
+                boolean occupied = eventOccupied[slot];
+                double time = eventTime[slot];
+                VarHandle.loadLoadFence();
+                long after = (long) SEQUENCES.getOpaque(sequences, slot);
+
+                if (before != cursor || after != cursor) {
+                    // The writer lapped us and reused the slot, so this event is gone
+                    missed++;
+                    cursor++;
+                    end = (long) PUBLISHED.getAcquire(OccupancyEventChannel.this);
+                    continue;
+                }
+
+                handler.occupancyChanged(space, spaces.get(space).getId(), !occupied, occupied, time);
+                cursor++;
+                delivered++;
+            }
+            return delivered;
+        }
+
+        /**
+         * Returns how many events this reader lost by falling behind. A
+         * non-zero count means incremental state built from the events should
+         * be rebuilt from the spaces themselves.
+         */
+        public long getMissedCount() {
+            return missed;
+        }
+    }
+}
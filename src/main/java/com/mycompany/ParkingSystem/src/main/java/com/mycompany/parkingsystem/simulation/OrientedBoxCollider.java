@@ -0,0 +1,218 @@
+package com.mycompany.parkingsystem.simulation;
+
+/**
+ * Separating-axis narrow phase for oriented rectangles.
+ *
+ * Boxes are passed as four corners packed into a {@code double[]} as
+ * {@code x0, y0, x1, y1, x2, y2, x3, y3}, in winding order, starting at the
+ * given offset. Only the two edge directions of each box need to be tested, so
+ * a query projects onto at most four axes and allocates nothing; results are
+ * written into a caller-owned {@link Contact}.
+ *
+ * {@link #sweep} extends the same test to boxes moving in a straight line,
+ * so large timesteps cannot carry one box through another between checks.
+ */
+public final class OrientedBoxCollider {
+
+    /** Number of doubles used to store one box. */
+    public static final int CORNER_STRIDE = 8;
+
+    /**
+     * Contact information for an overlapping pair. The normal is a unit vector
+     * pointing from the first box towards the second; moving the second box by
+     * {@code normal * depth} separates the pair.
+     */
+    public static final class Contact {
+        private double depth;
+        private double normalX;
+        private double normalY;
+
+        public double getDepth() {
+            return depth;
+        }
+
+        public double getNormalX() {
+            return normalX;
+        }
+
+        public double getNormalY() {
+            return normalY;
+        }
+    }
+
+    private OrientedBoxCollider() {
+    }
+
+    /**
+     * Tests two boxes for overlap.
+     * @param a Corner data of the first box
+     * @param aOffset Index of the first box's x0 in {@code a}
+     * @param b Corner data of the second box
+     * @param bOffset Index of the second box's x0 in {@code b}
+     * @param contact Receives depth and normal when the boxes overlap; left
+     *                untouched otherwise
+     * @return true if the boxes overlap
+     */
+    public static boolean intersect(double[] a, int aOffset, double[] b, int bOffset, Contact contact) {
+        double bestDepth = Double.POSITIVE_INFINITY;
+        double bestX = 0;
+        double bestY = 0;
+
+        // Candidate axes are the normals of edges 0-1 and 1-2 of each box
+        for (int axis = 0; axis < 4; axis++) {
+            double[] source = axis < 2 ? a : b;
+            int base = (axis < 2 ? aOffset : bOffset) + (axis & 1) * 2;
+
+            double edgeX = source[base + 2] - source[base];
+            double edgeY = source[base + 3] - source[base + 1];
+            double length = Math.sqrt(edgeX * edgeX + edgeY * edgeY);
+            if (length == 0) continue; // Degenerate box edge
+
+            double axisX = -edgeY / length;
+            double axisY = edgeX / length;
+
+            double minA = Double.POSITIVE_INFINITY, maxA = Double.NEGATIVE_INFINITY;
+            double minB = Double.POSITIVE_INFINITY, maxB = Double.NEGATIVE_INFINITY;
+            for (int c = 0; c < CORNER_STRIDE; c += 2) {
+                double pa = a[aOffset + c] * axisX + a[aOffset + c + 1] * axisY;
+                double pb = b[bOffset + c] * axisX + b[bOffset + c + 1] * axisY;
+                if (pa < minA) minA = pa;
+                if (pa > maxA) maxA = pa;
+                if (pb < minB) minB = pb;
+                if (pb > maxB) maxB = pb;
+            }
+
+            // Distance the second box must travel along +axis or -axis to separate
+            double forward = maxA - minB;
+            double backward = maxB - minA;
+            if (forward <= 0 || backward <= 0) {
+                return false; // Found a separating axis
+            }
+
+            double overlap = Math.min(forward, backward);
+            if (overlap < bestDepth) {
+                bestDepth = overlap;
+                // Orient the axis from the first box towards the second
+                if (forward <= backward) {
+                    bestX = axisX;
+                    bestY = axisY;
+                } else {
+                    bestX = -axisX;
+                    bestY = -axisY;
+                }
+            }
+        }
+
+        if (bestDepth == Double.POSITIVE_INFINITY) {
+            return false;
+        }
+
+        contact.depth = bestDepth;
+        contact.normalX = bestX;
+        contact.normalY = bestY;
+        return true;
+    }
+
+    /**
+     * Finds the first moment two linearly moving boxes touch during a step.
+     * Both boxes are given at the end of the step and keep that orientation
+     * throughout; box {@code a} moved by {@code (aDx, aDy)} and box {@code b}
+     * by {@code (bDx, bDy)} to get there. Rotation within the step is ignored,
+     * which is accurate as long as heading changes little per step.
+     * @param contact Receives the contact normal, pointing from the first box
+     *                to the second, and zero depth when the boxes touch
+     * @return Fraction of the step in {@code [0, 1]} at which the boxes first
+     *         touch, or -1 if they are apart for the whole step or already
+     *         overlapped at its start
+     */
+    public static double sweep(double[] a, int aOffset, double aDx, double aDy,
+                               double[] b, int bOffset, double bDx, double bDy, Contact contact) {
+        // Work in a's frame: b moves by the relative displacement
+        double dx = bDx - aDx;
+        double dy = bDy - aDy;
+
+        double entry = Double.NEGATIVE_INFINITY;
+        double exit = Double.POSITIVE_INFINITY;
+        double entryX = 0;
+        double entryY = 0;
+
+        for (int axis = 0; axis < 4; axis++) {
+            double[] source = axis < 2 ? a : b;
+            int base = (axis < 2 ? aOffset : bOffset) + (axis & 1) * 2;
+
+            double edgeX = source[base + 2] - source[base];
+            double edgeY = source[base + 3] - source[base + 1];
+            double length = Math.sqrt(edgeX * edgeX + edgeY * edgeY);
+            if (length == 0) continue; // Degenerate box edge
+
+            double axisX = -edgeY / length;
+            double axisY = edgeX / length;
+
+            double minA = Double.POSITIVE_INFINITY, maxA = Double.NEGATIVE_INFINITY;
+            double minB = Double.POSITIVE_INFINITY, maxB = Double.NEGATIVE_INFINITY;
+            for (int c = 0; c < CORNER_STRIDE; c += 2) {
+                double pa = a[aOffset + c] * axisX + a[aOffset + c + 1] * axisY;
+                double pb = b[bOffset + c] * axisX + b[bOffset + c + 1] * axisY;
+                if (pa < minA) minA = pa;
+                if (pa > maxA) maxA = pa;
+                if (pb < minB) minB = pb;
+                if (pb > maxB) maxB = pb;
+            }
+
+            // Move b's interval back to the start of the step, then find when
+            // it overlaps a's: minB + v*t < maxA and maxB + v*t > minA
+            double v = dx * axisX + dy * axisY;
+            minB -= v;
+            maxB -= v;
+
+            double axisEntry, axisExit;
+            if (v == 0) {
+                if (minB >= maxA || maxB <= minA) {
+                    return -1; // Separated along this axis for the whole step
+                }
+                continue;
+            } else if (v > 0) {
+                axisEntry = (minA - maxB) / v;
+                axisExit = (maxA - minB) / v;
+            } else {
+                axisEntry = (maxA - minB) / v;
+                axisExit = (minA - maxB) / v;
+            }
+
+            if (axisEntry > entry) {
+                entry = axisEntry;
+                // Moving along +axis, b arrives from the -axis side of a
+                entryX = v > 0 ? -axisX : axisX;
+                entryY = v > 0 ? -axisY : axisY;
+            }
+            exit = Math.min(exit, axisExit);
+            if (entry >= exit || entry > 1 || exit <= 0) {
+                return -1;
+            }
+        }
+
+        if (entry < 0) {
+            return -1; // Overlapping at the start; the discrete test owns that case
+        }
+
+        contact.depth = 0;
+        contact.normalX = entryX;
+        contact.normalY = entryY;
+        return entry;
+    }
+
+    /**
+     * Writes the corners of an axis-aligned box given by its top-left corner.
+     */
+    public static void writeAxisAlignedCorners(double x, double y, double sizeX, double sizeY,
+                                               double[] out, int offset) {
+        out[offset]     = x;
+        out[offset + 1] = y;
+        out[offset + 2] = x + sizeX;
+        out[offset + 3] = y;
+        out[offset + 4] = x + sizeX;
+        out[offset + 5] = y + sizeY;
+        out[offset + 6] = x;
+        out[offset + 7] = y + sizeY;
+    }
+}
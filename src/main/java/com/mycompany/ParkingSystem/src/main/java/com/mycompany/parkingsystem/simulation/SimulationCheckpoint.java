@@ -0,0 +1,167 @@
+package com.mycompany.parkingsystem.simulation;
+
+import com.mycompany.parkingsystem.model.ParkingSpace;
+import com.mycompany.parkingsystem.model.Vehicle;
+import com.mycompany.parkingsystem.model.VehicleStateStore;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * Saves and restores the complete state of a running simulation in a compact
+ * binary file.
+ *
+ * A checkpoint holds the simulated time, the vehicle state store, the AI
+ * decision wheel, space occupancy and reservations, each vehicle's target
+ * space, the parking maneuvers being driven and a seed for each vehicle's
+ * random stream. It does not hold the layout or fleet themselves, so it is restored
+ * into an engine built the same way, e.g. from the same seed and vehicle
+ * count; counts are checked on load. Large arrays are moved with bulk buffer
+ * transfers, and restore reads through a memory-mapped view of the file.
+ *
+ * {@link SplittableRandom} state can't be read back, so saving reseeds every
+ * vehicle's stream from itself and stores the new seed. The saved run and any
+ * restored copy therefore continue with the same random numbers.
+ */
+public final class SimulationCheckpoint {
+    private static final int MAGIC = 0x50524B43; // "PRKC"
+    private static final int VERSION = 4;
+    private static final int HEADER_BYTES = 4 * Integer.BYTES + Double.BYTES;
+    private static final int NO_TARGET = -1;
+    private static final int NO_HOLDER = -1;
+
+    private SimulationCheckpoint() {
+    }
+
+    /**
+     * Writes the engine's state to the given file, replacing it. Must be
+     * called between updates, from the thread that runs the simulation.
+     */
+    public static void save(SimulationEngine engine, Path file) throws IOException {
+        List<Vehicle> vehicles = engine.getVehicles();
+        List<ParkingSpace> spaces = engine.getParkingSpaces();
+        VehicleStateStore store = engine.getStateStore();
+        AIDecisionScheduler scheduler = engine.getAiScheduler();
+
+        int size = HEADER_BYTES
+            + store.stateSizeBytes()
+            + scheduler.stateSizeBytes()
+            + spaces.size() * (1 + Integer.BYTES + Double.BYTES)
+            + vehicles.size() * (Integer.BYTES + Long.BYTES)
+            + engine.maneuverStateSizeBytes();
+        ByteBuffer out = ByteBuffer.allocateDirect(size).order(ByteOrder.LITTLE_ENDIAN);
+
+        out.putInt(MAGIC);
+        out.putInt(VERSION);
+        out.putInt(vehicles.size());
+        out.putInt(spaces.size());
+        out.putDouble(engine.getSimulationTime());
+
+        store.writeState(out);
+        scheduler.writeState(out);
+
+        // Spaces are referenced by their position in the layout list
+        Map<ParkingSpace, Integer> spaceIndex = new IdentityHashMap<>(spaces.size());
+        for (int j = 0; j < spaces.size(); j++) {
+            ParkingSpace space = spaces.get(j);
+            spaceIndex.put(space, j);
+            out.put((byte) (space.isOccupied() ? 1 : 0));
+        }
+
+        // Only live reservations are kept; expired ones behave like free spaces
+        Map<Vehicle, Integer> vehicleIndex = new IdentityHashMap<>(vehicles.size());
+        for (int i = 0; i < vehicles.size(); i++) {
+            vehicleIndex.put(vehicles.get(i), i);
+        }
+        double now = engine.getSimulationTime();
+        for (ParkingSpace space : spaces) {
+            Vehicle holder = space.getReservationHolder(now);
+            out.putInt(holder == null ? NO_HOLDER : vehicleIndex.getOrDefault(holder, NO_HOLDER));
+            out.putDouble(space.getReservationExpiry(now));
+        }
+        for (Vehicle vehicle : vehicles) {
+            ParkingSpace target = vehicle.getTargetParkingSpace();
+            out.putInt(target == null ? NO_TARGET : spaceIndex.getOrDefault(target, NO_TARGET));
+        }
+        engine.writeManeuverState(out);
+        for (Vehicle vehicle : vehicles) {
+            long seed = vehicle.getRandom().nextLong();
+            vehicle.setRandom(new SplittableRandom(seed));
+            out.putLong(seed);
+        }
+
+        out.flip();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (out.hasRemaining()) {
+                channel.write(out);
+            }
+        }
+    }
+
+    /**
+     * Replaces the engine's state with a checkpoint written by {@link #save}.
+     * Must be called between updates, from the thread that runs the simulation.
+     * If the body turns out to be corrupt the engine may be left half restored.
+     * @throws IOException If the file is not a checkpoint or was saved from a
+     *                     simulation with a different number of vehicles or spaces
+     */
+    public static void restore(SimulationEngine engine, Path file) throws IOException {
+        List<Vehicle> vehicles = engine.getVehicles();
+        List<ParkingSpace> spaces = engine.getParkingSpaces();
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            ByteBuffer in = mapped.order(ByteOrder.LITTLE_ENDIAN);
+
+            if (in.remaining() < HEADER_BYTES || in.getInt() != MAGIC) {
+                throw new IOException("Not a simulation checkpoint: " + file);
+            }
+            if (in.getInt() != VERSION) {
+                throw new IOException("Unsupported checkpoint version in " + file);
+            }
+            if (in.getInt() != vehicles.size() || in.getInt() != spaces.size()) {
+                throw new IOException("Checkpoint was saved from a different lot or fleet size");
+            }
+
+            try {
+                double now = in.getDouble();
+                engine.setSimulationTime(now);
+                engine.getStateStore().readState(in);
+                engine.getAiScheduler().readState(in);
+
+                for (ParkingSpace space : spaces) {
+                    space.setOccupied(in.get() != 0);
+                }
+                for (ParkingSpace space : spaces) {
+                    int holder = in.getInt();
+                    double expiresAt = in.getDouble();
+                    if (holder != NO_HOLDER) {
+                        space.tryReserve(vehicles.get(holder), now, expiresAt);
+                    }
+                }
+                for (Vehicle vehicle : vehicles) {
+                    int target = in.getInt();
+                    vehicle.setTargetParkingSpace(target == NO_TARGET ? null : spaces.get(target));
+                }
+                engine.readManeuverState(in);
+                for (Vehicle vehicle : vehicles) {
+                    vehicle.setRandom(new SplittableRandom(in.getLong()));
+                }
+            } catch (IllegalArgumentException | IndexOutOfBoundsException
+                    | BufferUnderflowException e) {
+                throw new IOException("Corrupt checkpoint: " + file, e);
+            }
+        }
+    }
+}
@@ -3,93 +3,436 @@ package com.mycompany.parkingsystem.simulation;
 import com.mycompany.parkingsystem.model.ParkingSpace;
 import com.mycompany.parkingsystem.model.Vehicle;
 import com.mycompany.parkingsystem.model.ParkingSpaceType;
+import com.mycompany.parkingsystem.model.VehicleStateStore;
+import com.mycompany.parkingsystem.algorithm.DistanceField;
+import com.mycompany.parkingsystem.algorithm.OccupancyGrid;
 import com.mycompany.parkingsystem.algorithm.ParkingAlgorithm;
+import com.mycompany.parkingsystem.algorithm.ParkingManeuver;
 import com.mycompany.parkingsystem.controller.KeyboardController;
 
 import java.awt.geom.Point2D;
-import java.awt.geom.Rectangle2D;
 import java.awt.geom.AffineTransform;
-import java.awt.geom.Path2D;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
-import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 public class SimulationEngine {
     private List<ParkingSpace> parkingSpaces;
     private List<Vehicle> vehicles;
+    private final VehicleStateStore stateStore;
     private ParkingAlgorithm parkingAlgorithm;
     private KeyboardController userController;
-    private Random random;
     
     // Simulation parameters
     private static final double AI_DECISION_INTERVAL = 1.5; // seconds
-    private static final double COLLISION_CHECK_INTERVAL = 0.1; // seconds
+    private static final double AI_DECISION_JITTER = 0.2; // +/- fraction of the interval per vehicle
+    private static final double AI_SLOT_DURATION = 1.0 / 60; // one decision wheel slot per 60 Hz tick
+    private static final int AI_WHEEL_BITS = 7; // 128 slots, longer than any jittered interval
     private static final double PARKING_ATTEMPT_RATE = 0.3; // probability
+    private static final double COLLISION_CELL_SIZE = 10.0; // meters, about two car lengths
+    private static final double SWEEP_MIN_DISPLACEMENT = 0.5; // meters per step, well under half a car width
+    private static final int PARALLEL_BATCH_SIZE = 1024; // vehicles per fork/join leaf task
+    private static final int COLLISION_BATCH_SIZE = 256; // active vehicles per collision leaf task
+    private static final int OCCUPANCY_EVENT_CAPACITY = 4096; // events a cross-thread reader may lag behind
+    private static final double RESERVATION_TIMEOUT = 10.0; // seconds, a few parking decisions at the usual rate
+    private static final double GRID_RESOLUTION = 0.5; // meters per occupancy cell
+    private static final double GRID_INFLATION_RADIUS = 2.5; // meters
+    private static final double DISTANCE_FIELD_RANGE = 2.5; // meters, clears any vehicle's covering circles
     
     // World boundaries
-    private static final double WORLD_WIDTH = 1000;
-    private static final double WORLD_HEIGHT = 800;
+    private static final double DEFAULT_WORLD_WIDTH = 1000;
+    private static final double DEFAULT_WORLD_HEIGHT = 800;
+    private double worldWidth = DEFAULT_WORLD_WIDTH;
+    private double worldHeight = DEFAULT_WORLD_HEIGHT;
     
-    // Timers
-    private double aiTimer = 0;
-    private double collisionTimer = 0;
+    // Per-vehicle AI decision timers
+    private final AIDecisionScheduler aiScheduler = new AIDecisionScheduler(AI_SLOT_DURATION, AI_WHEEL_BITS);
+    private final AIDecisionScheduler.DecisionHandler aiDecisionHandler = this::makeAIDecision;
+    private final List<Vehicle> parkingWave = new ArrayList<>(); // vehicles trying to park this tick
+    private int[] parkingWaveIndices = new int[16]; // index of each wave vehicle in the fleet
+    
+    // Parking maneuvers being driven, one per vehicle at most
+    private final ParkingManeuver[] maneuvers;
+    private int[] maneuverOrder = new int[16]; // vehicles with a maneuver, in the order they started
+    private int maneuverCount = 0;
+    
+    // Collision broad and narrow phase state, reused every pass
+    private final SpatialHashGrid collisionGrid = new SpatialHashGrid(COLLISION_CELL_SIZE);
+    private final SpatialHashGrid staticCollisionGrid = new SpatialHashGrid(COLLISION_CELL_SIZE);
+    private int staticGridVersion = -1;
+    private int queryVehicle; // active vehicle whose static neighbours are being checked
+    private final double[] bounds = new double[4]; // scratch box for grid inserts
+    private final SpatialHashGrid.PairConsumer movingPairHandler = this::handleMovingPair;
+    private double[] sweptBounds = new double[0]; // broad phase box of each active vehicle, by active position
+    private CollisionBatch[] collisionBatches = new CollisionBatch[0];
+    private final OrientedBoxCollider.Contact contact = new OrientedBoxCollider.Contact();
+    private double[] vehicleCorners = new double[0];
+    private final int[] obstacleIndices; // positions of OBSTACLE spaces in parkingSpaces
+    private final double[] obstacleCorners;
+    
+    // Optional pool for parallel integration and collision queries, null means serial updates
+    private ForkJoinPool updatePool;
+    
+    // Simulated seconds at the end of the tick being run
+    private double simulationTime = 0;
+    private final OccupancyEventChannel occupancyEvents;
+    
+    // Rasterized obstacles, occupied spaces and parked vehicles
+    private OccupancyGrid occupancyGrid;
+    private DistanceField distanceField; // follows the grid's changes
+    private final boolean[] gridStamped; // vehicle's footprint below is in the grid
+    private final double[] gridCorners;
     
     public SimulationEngine(List<ParkingSpace> parkingSpaces, List<Vehicle> vehicles) {
         this.parkingSpaces = parkingSpaces;
         this.vehicles = vehicles;
-        this.parkingAlgorithm = new ParkingAlgorithm(parkingSpaces);
-        this.random = new Random();
+        
+        // Pack the fleet into one store so list index == state index
+        this.stateStore = new VehicleStateStore(vehicles.size());
+        for (Vehicle vehicle : vehicles) {
+            stateStore.attach(vehicle);
+        }
+        
+        this.parkingAlgorithm = new ParkingAlgorithm(parkingSpaces, this::getSimulationTime);
+        this.occupancyEvents = new OccupancyEventChannel(parkingSpaces, this::getSimulationTime,
+            OCCUPANCY_EVENT_CAPACITY);
+        
+        // Spaces enter and leave the grid as their occupancy events arrive
+        this.gridStamped = new boolean[vehicles.size()];
+        this.gridCorners = new double[vehicles.size() * OrientedBoxCollider.CORNER_STRIDE];
+        this.maneuvers = new ParkingManeuver[vehicles.size()];
+        buildOccupancyGrid();
+        occupancyEvents.addHandler(this::updateGridSpace);
+        
+        // Obstacles never move, so find them and their corners once instead of every tick
+        this.obstacleIndices = IntStream.range(0, parkingSpaces.size())
+            .filter(j -> parkingSpaces.get(j).getType() == ParkingSpaceType.OBSTACLE)
+            .toArray();
+        int stride = OrientedBoxCollider.CORNER_STRIDE;
+        this.obstacleCorners = new double[obstacleIndices.length * stride];
+        for (int k = 0; k < obstacleIndices.length; k++) {
+            ParkingSpace obstacle = parkingSpaces.get(obstacleIndices[k]);
+            Point2D.Double location = obstacle.getLocation();
+            OrientedBoxCollider.writeAxisAlignedCorners(location.x, location.y,
+                obstacle.getLength(), obstacle.getWidth(), obstacleCorners, k * stride);
+        }
+        
+        // Give every AI vehicle its own jittered interval and a random phase
+        for (int i = 0; i < vehicles.size(); i++) {
+            Vehicle vehicle = vehicles.get(i);
+            if (vehicle.isUserControlled()) continue;
+            
+            SplittableRandom random = vehicle.getRandom();
+            double interval = AI_DECISION_INTERVAL
+                * (1 + (random.nextDouble() * 2 - 1) * AI_DECISION_JITTER);
+            aiScheduler.schedule(i, interval, random.nextDouble() * interval);
+        }
     }
     
     public void update(double deltaTime) {
-        // Update all vehicles
-        vehicles.forEach(vehicle -> {
-            vehicle.update(deltaTime);
-            
-            // Handle AI-controlled vehicles
-            if (!vehicle.isUserControlled() && !vehicle.isParked()) {
-                updateAIBehavior(vehicle, deltaTime);
+        // Anything that happens during this tick is stamped with its end time
+        simulationTime += deltaTime;
+        
+        // Apply user input first; any change wakes the user's vehicle
+        if (userController != null) {
+            userController.update(deltaTime);
+        }
+        
+        // Kinematics only touch each vehicle's own slot, so they can run in parallel.
+        // Only awake vehicles are integrated, so parked and resting ones cost nothing.
+        int count = stateStore.getActiveCount();
+        if (updatePool != null && count > PARALLEL_BATCH_SIZE) {
+            updatePool.invoke(new VehicleUpdateTask(0, count, deltaTime));
+        } else {
+            integrateVehicles(0, count, deltaTime);
+        }
+        stateStore.sleepIdleVehicles();
+        
+        // Maneuvers place their vehicles after physics, so integration can't drift them off the path
+        advanceManeuvers(deltaTime);
+        
+        // AI decisions share the parking spaces, so they stay serial and fire in
+        // the scheduler's deterministic order, independent of thread count
+        aiScheduler.advance(deltaTime, aiDecisionHandler);
+        
+        // Vehicles that decided to park this tick get their spaces together, so
+        // they don't all head for the same one, and reserve them so later waves
+        // leave them alone
+        if (!parkingWave.isEmpty()) {
+            ParkingSpace[] targets = parkingAlgorithm.assignParkingSpaces(parkingWave, updatePool);
+            for (int i = 0; i < targets.length; i++) {
+                Vehicle vehicle = parkingWave.get(i);
+                attemptParking(parkingWaveIndices[i], reserveTarget(vehicle, targets[i]));
             }
-            
-            // Keep vehicles within world bounds
-            enforceWorldBoundaries(vehicle);
-        });
+            parkingWave.clear();
+        }
+        
+        // Collision checking is cheap enough to run every tick
+        checkCollisions();
         
-        // Periodic collision checking
-        collisionTimer += deltaTime;
-        if (collisionTimer >= COLLISION_CHECK_INTERVAL) {
-            collisionTimer = 0;
-            checkCollisions();
+        syncGridVehicles();
+    }
+    
+    // Creates the grid and its distance field for the current world size with
+    // every obstacle, occupied space and parked vehicle
+    private void buildOccupancyGrid() {
+        occupancyGrid = new OccupancyGrid(worldWidth, worldHeight, GRID_RESOLUTION, GRID_INFLATION_RADIUS);
+        for (ParkingSpace space : parkingSpaces) {
+            if (space.isOccupied() || space.getType() == ParkingSpaceType.OBSTACLE) {
+                stampSpace(space, true);
+            }
+        }
+        Arrays.fill(gridStamped, false);
+        for (int i = 0; i < gridStamped.length; i++) {
+            stampVehicle(i);
+        }
+        stateStore.clearParkedChanges();
+        distanceField = new DistanceField(occupancyGrid, DISTANCE_FIELD_RANGE);
+        parkingAlgorithm.setDistanceField(distanceField);
+    }
+    
+    private void updateGridSpace(int spaceIndex, String spaceId, boolean wasOccupied, boolean occupied,
+                                 double time) {
+        ParkingSpace space = parkingSpaces.get(spaceIndex);
+        if (space.getType() != ParkingSpaceType.OBSTACLE) {
+            stampSpace(space, occupied);
         }
     }
     
-    private void updateAIBehavior(Vehicle vehicle, double deltaTime) {
-        aiTimer += deltaTime;
+    private void stampSpace(ParkingSpace space, boolean add) {
+        Point2D.Double location = space.getLocation();
+        double maxX = location.x + space.getLength();
+        double maxY = location.y + space.getWidth();
+        if (add) {
+            occupancyGrid.addBox(location.x, location.y, maxX, maxY);
+        } else {
+            occupancyGrid.removeBox(location.x, location.y, maxX, maxY);
+        }
+    }
+    
+    // Keeps every parked vehicle stamped in the grid at its current pose. Only
+    // the vehicles the store saw park, leave or move while parked are visited.
+    private void syncGridVehicles() {
+        int count = stateStore.getParkedChangeCount();
+        if (count == 0) return;
+        int stride = OrientedBoxCollider.CORNER_STRIDE;
+        for (int k = 0; k < count; k++) {
+            int i = stateStore.getParkedChangeIndex(k);
+            if (gridStamped[i]) {
+                occupancyGrid.removeFootprint(gridCorners, i * stride);
+                gridStamped[i] = false;
+            }
+            stampVehicle(i);
+        }
+        stateStore.clearParkedChanges();
+    }
+    
+    private void stampVehicle(int i) {
+        if (!stateStore.isParked(i)) return;
+        int stride = OrientedBoxCollider.CORNER_STRIDE;
+        vehicles.get(i).writeCornerPoints(gridCorners, i * stride);
+        occupancyGrid.addFootprint(gridCorners, i * stride);
+        gridStamped[i] = true;
+    }
+    
+    private void integrateVehicles(int from, int to, double deltaTime) {
+        stateStore.integrateActive(from, to, deltaTime);
         
-        if (aiTimer >= AI_DECISION_INTERVAL) {
-            aiTimer = 0;
+        // Keep vehicles within world bounds
+        for (int k = from; k < to; k++) {
+            enforceWorldBoundaries(vehicles.get(stateStore.getActiveIndex(k)));
+        }
+    }
+    
+    /**
+     * Splits the active set into position ranges for the fork/join pool.
+     * Each leaf integrates a contiguous block of active vehicles.
+     */
+    private class VehicleUpdateTask extends RecursiveAction {
+        private final int from;
+        private final int to;
+        private final double deltaTime;
+        
+        VehicleUpdateTask(int from, int to, double deltaTime) {
+            this.from = from;
+            this.to = to;
+            this.deltaTime = deltaTime;
+        }
+        
+        @Override
+        protected void compute() {
+            if (to - from <= PARALLEL_BATCH_SIZE) {
+                integrateVehicles(from, to, deltaTime);
+                return;
+            }
             
-            // Decision making for AI vehicles
-            if (random.nextDouble() < PARKING_ATTEMPT_RATE) {
-                attemptParking(vehicle);
-            } else {
-                randomDriving(vehicle);
+            int middle = (from + to) >>> 1;
+            invokeAll(new VehicleUpdateTask(from, middle, deltaTime),
+                      new VehicleUpdateTask(middle, to, deltaTime));
+        }
+    }
+    
+    /**
+     * Splits the collision batches between the fork/join pool, either to
+     * prepare their broad phase boxes or to collect their static neighbours.
+     */
+    private class CollisionBatchTask extends RecursiveAction {
+        private final int from;
+        private final int to;
+        private final boolean collect;
+        
+        CollisionBatchTask(int from, int to, boolean collect) {
+            this.from = from;
+            this.to = to;
+            this.collect = collect;
+        }
+        
+        @Override
+        protected void compute() {
+            if (to - from <= 1) {
+                if (collect) {
+                    collisionBatches[from].collect();
+                } else {
+                    collisionBatches[from].prepare();
+                }
+                return;
+            }
+            
+            int middle = (from + to) >>> 1;
+            invokeAll(new CollisionBatchTask(from, middle, collect),
+                      new CollisionBatchTask(middle, to, collect));
+        }
+    }
+    
+    /**
+     * Collision work for one block of active vehicles. Preparing writes only
+     * the block's own corners and boxes, and collecting static neighbours only
+     * reads the grids, corners and positions, so blocks can do both on any
+     * thread. Resolving changes vehicles and runs on the engine thread, in
+     * active order, so the outcome doesn't depend on the pool.
+     */
+    private class CollisionBatch implements SpatialHashGrid.ItemConsumer {
+        private final OrientedBoxCollider.Contact probe = new OrientedBoxCollider.Contact();
+        private final double[] queryBounds = new double[4];
+        private int from; // positions in the active set
+        private int to;
+        private int[] candidates = new int[64];
+        private final int[] candidateEnds = new int[COLLISION_BATCH_SIZE]; // end of each vehicle's run
+        private int candidateCount;
+        private int vehicle; // vehicle being queried
+        private boolean sweeping;
+        
+        void prepare() {
+            int stride = OrientedBoxCollider.CORNER_STRIDE;
+            for (int k = from; k < to; k++) {
+                int i = stateStore.getActiveIndex(k);
+                vehicles.get(i).writeCornerPoints(vehicleCorners, i * stride);
+                computeBounds(vehicleCorners, i * stride, displacementX(i), displacementY(i), queryBounds);
+                System.arraycopy(queryBounds, 0, sweptBounds, k * 4, 4);
+            }
+        }
+        
+        void collect() {
+            int stride = OrientedBoxCollider.CORNER_STRIDE;
+            candidateCount = 0;
+            for (int k = from; k < to; k++) {
+                vehicle = stateStore.getActiveIndex(k);
+                double dx = displacementX(vehicle), dy = displacementY(vehicle);
+                sweeping = needsSweep(dx, dy);
+                computeBounds(vehicleCorners, vehicle * stride, dx, dy, queryBounds);
+                staticCollisionGrid.forEachCandidate(queryBounds[0], queryBounds[1],
+                                                     queryBounds[2], queryBounds[3], this);
+                candidateEnds[k - from] = candidateCount;
+            }
+        }
+        
+        @Override
+        public void accept(int id) {
+            // A vehicle that can't tunnel only hits what it overlaps now. Nothing
+            // resolved before it moves its corners, so the answer holds serially.
+            if (!sweeping) {
+                int stride = OrientedBoxCollider.CORNER_STRIDE;
+                int vehicleCount = vehicles.size();
+                double[] corners = id < vehicleCount ? vehicleCorners : obstacleCorners;
+                int offset = (id < vehicleCount ? id : id - vehicleCount) * stride;
+                if (!OrientedBoxCollider.intersect(vehicleCorners, vehicle * stride, corners, offset, probe)) {
+                    return;
+                }
+            }
+            if (candidateCount == candidates.length) {
+                candidates = Arrays.copyOf(candidates, candidateCount * 2);
+            }
+            candidates[candidateCount++] = id;
+        }
+        
+        void resolve() {
+            int start = 0;
+            for (int k = from; k < to; k++) {
+                queryVehicle = stateStore.getActiveIndex(k);
+                int end = candidateEnds[k - from];
+                for (int c = start; c < end; c++) {
+                    handleStaticCandidate(candidates[c]);
+                }
+                start = end;
             }
         }
     }
     
-    private void attemptParking(Vehicle vehicle) {
-        ParkingSpace targetSpace = parkingAlgorithm.findOptimalParkingSpace(vehicle);
+    private void makeAIDecision(int vehicleIndex) {
+        Vehicle vehicle = vehicles.get(vehicleIndex);
+        if (vehicle.isUserControlled()) return;
+        if (vehicle.isParked()) {
+            // Parked vehicles sleep for good, so stop spending wheel slots on them
+            aiScheduler.cancel(vehicleIndex);
+            return;
+        }
+        if (maneuvers[vehicleIndex] != null) return; // busy parking
         
+        // Decision making for AI vehicles
+        if (vehicle.getRandom().nextDouble() < PARKING_ATTEMPT_RATE) {
+            if (parkingWave.size() == parkingWaveIndices.length) {
+                parkingWaveIndices = Arrays.copyOf(parkingWaveIndices, parkingWaveIndices.length * 2);
+            }
+            parkingWaveIndices[parkingWave.size()] = vehicleIndex;
+            parkingWave.add(vehicle);
+        } else {
+            randomDriving(vehicle);
+        }
+    }
+    
+    // Moves the vehicle's reservation to its new target, or drops it if it has none
+    private ParkingSpace reserveTarget(Vehicle vehicle, ParkingSpace target) {
+        ParkingSpace previous = vehicle.getTargetParkingSpace();
+        if (previous != null && previous != target) {
+            previous.releaseReservation(vehicle);
+        }
+        if (target != null
+                && !target.tryReserve(vehicle, simulationTime, simulationTime + RESERVATION_TIMEOUT)) {
+            target = null;
+        }
+        vehicle.setTargetParkingSpace(target);
+        return target;
+    }
+    
+    private void attemptParking(int vehicleIndex, ParkingSpace targetSpace) {
+        Vehicle vehicle = vehicles.get(vehicleIndex);
         if (targetSpace != null) {
             // Calculate path to parking space
             Point2D.Double approachPoint = calculateApproachPoint(vehicle, targetSpace);
             
-            // If close enough, execute parking maneuver
+            // If close enough, start a parking maneuver; it is driven from the next tick on
             if (isWithinRange(vehicle.getPosition(), targetSpace.getLocation(), 15)) {
-                boolean parked = parkingAlgorithm.parkVehicle(vehicle, targetSpace);
-                if (parked) {
-                    vehicle.setParked(true);
+                ParkingManeuver maneuver = parkingAlgorithm.beginParking(vehicle, targetSpace);
+                // Hold the space for the whole drive, not just the usual decision window
+                if (maneuver != null && targetSpace.tryReserve(vehicle, simulationTime,
+                        simulationTime + maneuver.getRemainingTime() + RESERVATION_TIMEOUT)) {
+                    startManeuver(vehicleIndex, maneuver);
                 }
             } else {
                 // Move toward approach point
@@ -101,6 +444,33 @@ public class SimulationEngine {
         }
     }
     
+    private void startManeuver(int vehicleIndex, ParkingManeuver maneuver) {
+        if (maneuverCount == maneuverOrder.length) {
+            maneuverOrder = Arrays.copyOf(maneuverOrder, maneuverOrder.length * 2);
+        }
+        maneuvers[vehicleIndex] = maneuver;
+        maneuverOrder[maneuverCount++] = vehicleIndex;
+    }
+    
+    // Drives every maneuver for one tick in the order they started, dropping
+    // the ones that parked or failed
+    private void advanceManeuvers(double deltaTime) {
+        int kept = 0;
+        for (int k = 0; k < maneuverCount; k++) {
+            int i = maneuverOrder[k];
+            ParkingManeuver.Status status = parkingAlgorithm.advanceManeuver(maneuvers[i], deltaTime);
+            if (status == ParkingManeuver.Status.DRIVING) {
+                maneuverOrder[kept++] = i;
+                continue;
+            }
+            maneuvers[i] = null;
+            if (status == ParkingManeuver.Status.PARKED) {
+                vehicles.get(i).setParked(true);
+            }
+        }
+        maneuverCount = kept;
+    }
+    
     private Point2D.Double calculateApproachPoint(Vehicle vehicle, ParkingSpace space) {
         // Calculate appropriate approach point based on parking space type
         double offsetX = 0, offsetY = 0;
@@ -132,8 +502,8 @@ public class SimulationEngine {
     
     private void navigateToPoint(Vehicle vehicle, Point2D.Double target) {
         // Calculate direction vector
-        double dx = target.x - vehicle.getPosition().x;
-        double dy = target.y - vehicle.getPosition().y;
+        double dx = target.x - vehicle.getX();
+        double dy = target.y - vehicle.getY();
         double distance = Math.sqrt(dx * dx + dy * dy);
         
         // Calculate desired angle (0-360 degrees)
@@ -167,6 +537,8 @@ public class SimulationEngine {
     }
     
     private void randomDriving(Vehicle vehicle) {
+        SplittableRandom random = vehicle.getRandom();
+        
         // Random direction changes
         if (random.nextDouble() < 0.2) {
             vehicle.steer(random.nextDouble() * 2 - 1);
@@ -184,103 +556,246 @@ public class SimulationEngine {
     
     private void enforceWorldBoundaries(Vehicle vehicle) {
         double margin = 5.0;
-        double x = vehicle.getPosition().x;
-        double y = vehicle.getPosition().y;
+        double x = vehicle.getX();
+        double y = vehicle.getY();
         
         if (x < margin) {
-            vehicle.setPosition(new Point2D.Double(margin, y));
+            vehicle.setPosition(margin, y);
             vehicle.setSpeed(-vehicle.getSpeed() * 0.5);
-        } else if (x > WORLD_WIDTH - margin) {
-            vehicle.setPosition(new Point2D.Double(WORLD_WIDTH - margin, y));
+        } else if (x > worldWidth - margin) {
+            vehicle.setPosition(worldWidth - margin, y);
             vehicle.setSpeed(-vehicle.getSpeed() * 0.5);
         }
         
         if (y < margin) {
-            vehicle.setPosition(new Point2D.Double(x, margin));
+            vehicle.setPosition(x, margin);
             vehicle.setSpeed(-vehicle.getSpeed() * 0.5);
-        } else if (y > WORLD_HEIGHT - margin) {
-            vehicle.setPosition(new Point2D.Double(x, WORLD_HEIGHT - margin));
+        } else if (y > worldHeight - margin) {
+            vehicle.setPosition(x, worldHeight - margin);
             vehicle.setSpeed(-vehicle.getSpeed() * 0.5);
         }
     }
     
     private void checkCollisions() {
-        // Check vehicle-vehicle collisions
-        for (int i = 0; i < vehicles.size(); i++) {
-            Vehicle v1 = vehicles.get(i);
-            if (v1.isParked()) continue;
-            
-            Path2D v1Shape = createVehicleShape(v1);
-            
-            for (int j = i + 1; j < vehicles.size(); j++) {
-                Vehicle v2 = vehicles.get(j);
-                if (v2.isParked()) continue;
-                
-                Path2D v2Shape = createVehicleShape(v2);
-                
-                if (v1Shape.intersects(v2Shape.getBounds2D())) {
-                    handleCollision(v1, v2);
-                }
+        int vehicleCount = vehicles.size();
+        int stride = OrientedBoxCollider.CORNER_STRIDE;
+        if (vehicleCorners.length < vehicleCount * stride) {
+            vehicleCorners = new double[vehicleCount * stride];
+        }
+        
+        // Resting vehicles and obstacles don't move, so their grid is only
+        // rebuilt when a vehicle falls asleep or wakes up. Parked vehicles are
+        // out of the simulation and never inserted.
+        if (staticGridVersion != stateStore.getRestingVersion()) {
+            rebuildStaticGrid(vehicleCount);
+        }
+        
+        int activeCount = stateStore.getActiveCount();
+        int batchCount = (activeCount + COLLISION_BATCH_SIZE - 1) / COLLISION_BATCH_SIZE;
+        if (collisionBatches.length < batchCount) {
+            int oldLength = collisionBatches.length;
+            collisionBatches = Arrays.copyOf(collisionBatches, batchCount);
+            for (int b = oldLength; b < batchCount; b++) {
+                collisionBatches[b] = new CollisionBatch();
             }
-            
-            // Check vehicle-space collisions
-            for (ParkingSpace space : parkingSpaces) {
-                if (space.isOccupied() && space.getType() == ParkingSpaceType.OBSTACLE) {
-                    Rectangle2D spaceBounds = new Rectangle2D.Double(
-                        space.getLocation().x,
-                        space.getLocation().y,
-                        space.getLength(),
-                        space.getWidth());
-                    
-                    if (v1Shape.intersects(spaceBounds)) {
-                        handleObstacleCollision(v1, space);
-                    }
-                }
+        }
+        for (int b = 0; b < batchCount; b++) {
+            collisionBatches[b].from = b * COLLISION_BATCH_SIZE;
+            collisionBatches[b].to = Math.min(activeCount, (b + 1) * COLLISION_BATCH_SIZE);
+        }
+        if (sweptBounds.length < activeCount * 4) {
+            sweptBounds = new double[activeCount * 8];
+        }
+        
+        // Broad phase over the vehicles that are moving this tick, each covering
+        // the whole area it swept through during the step. Corners and boxes are
+        // per vehicle and can be computed in parallel; the grid is filled serially.
+        runCollisionBatches(batchCount, false);
+        collisionGrid.clear(activeCount);
+        for (int k = 0; k < activeCount; k++) {
+            collisionGrid.insert(stateStore.getActiveIndex(k), sweptBounds[k * 4], sweptBounds[k * 4 + 1],
+                                 sweptBounds[k * 4 + 2], sweptBounds[k * 4 + 3]);
+        }
+        
+        // Narrow phase: moving against moving, then moving against static
+        collisionGrid.forEachCandidatePair(movingPairHandler);
+        
+        // Each vehicle's static query only sees its own state and the static
+        // side, so the queries and their overlap tests can run in parallel.
+        // Hits are resolved serially afterwards, in the same order as one thread.
+        runCollisionBatches(batchCount, true);
+        for (int b = 0; b < batchCount; b++) {
+            collisionBatches[b].resolve();
+        }
+    }
+    
+    private void runCollisionBatches(int batchCount, boolean collect) {
+        if (updatePool != null && batchCount > 1) {
+            updatePool.invoke(new CollisionBatchTask(0, batchCount, collect));
+            return;
+        }
+        for (int b = 0; b < batchCount; b++) {
+            if (collect) {
+                collisionBatches[b].collect();
+            } else {
+                collisionBatches[b].prepare();
             }
         }
     }
     
-    private Path2D createVehicleShape(Vehicle vehicle) {
-        Path2D shape = new Path2D.Double();
-        Point2D.Double[] corners = vehicle.getCornerPoints();
+    private void rebuildStaticGrid(int vehicleCount) {
+        int stride = OrientedBoxCollider.CORNER_STRIDE;
+        int restingCount = stateStore.getRestingCount();
         
-        shape.moveTo(corners[0].x, corners[0].y);
-        for (int i = 1; i < corners.length; i++) {
-            shape.lineTo(corners[i].x, corners[i].y);
+        // Ids >= vehicleCount are obstacles
+        staticCollisionGrid.clear(restingCount + obstacleIndices.length);
+        for (int k = 0; k < restingCount; k++) {
+            int i = stateStore.getRestingIndex(k);
+            vehicles.get(i).writeCornerPoints(vehicleCorners, i * stride);
+            computeBounds(vehicleCorners, i * stride, 0, 0, bounds);
+            staticCollisionGrid.insert(i, bounds[0], bounds[1], bounds[2], bounds[3]);
+        }
+        for (int k = 0; k < obstacleIndices.length; k++) {
+            computeBounds(obstacleCorners, k * stride, 0, 0, bounds);
+            staticCollisionGrid.insert(vehicleCount + k, bounds[0], bounds[1], bounds[2], bounds[3]);
+        }
+        staticGridVersion = stateStore.getRestingVersion();
+    }
+    
+    private void handleMovingPair(int first, int second) {
+        int stride = OrientedBoxCollider.CORNER_STRIDE;
+        if (OrientedBoxCollider.intersect(vehicleCorners, first * stride,
+                                          vehicleCorners, second * stride, contact)) {
+            handleCollision(vehicles.get(first), vehicles.get(second), contact);
+            return;
         }
-        shape.closePath();
         
-        return shape;
+        // Apart at the end of the step, but a long step may have passed one through the other
+        double firstDx = displacementX(first), firstDy = displacementY(first);
+        double secondDx = displacementX(second), secondDy = displacementY(second);
+        if (!needsSweep(secondDx - firstDx, secondDy - firstDy)) return;
+        
+        double impact = OrientedBoxCollider.sweep(vehicleCorners, first * stride, firstDx, firstDy,
+                                                  vehicleCorners, second * stride, secondDx, secondDy, contact);
+        if (impact >= 0) {
+            rewindToImpact(first, impact);
+            rewindToImpact(second, impact);
+            handleCollision(vehicles.get(first), vehicles.get(second), contact);
+        }
     }
     
-    private void handleCollision(Vehicle v1, Vehicle v2) {
-        // Calculate collision normal (direction from v1 to v2)
-        double dx = v2.getPosition().x - v1.getPosition().x;
-        double dy = v2.getPosition().y - v1.getPosition().y;
-        double distance = Math.sqrt(dx * dx + dy * dy);
-        dx /= distance;
-        dy /= distance;
+    private void handleStaticCandidate(int id) {
+        int stride = OrientedBoxCollider.CORNER_STRIDE;
+        int vehicleCount = vehicles.size();
+        double[] corners = id < vehicleCount ? vehicleCorners : obstacleCorners;
+        int offset = (id < vehicleCount ? id : id - vehicleCount) * stride;
+        
+        boolean hit = OrientedBoxCollider.intersect(vehicleCorners, queryVehicle * stride,
+                                                    corners, offset, contact);
+        if (!hit) {
+            // Static side didn't move, so only the query vehicle can have tunnelled
+            double dx = displacementX(queryVehicle), dy = displacementY(queryVehicle);
+            if (!needsSweep(dx, dy)) return;
+            
+            double impact = OrientedBoxCollider.sweep(vehicleCorners, queryVehicle * stride, dx, dy,
+                                                      corners, offset, 0, 0, contact);
+            if (impact < 0) return;
+            rewindToImpact(queryVehicle, impact);
+        }
+        
+        if (id < vehicleCount) {
+            handleCollision(vehicles.get(queryVehicle), vehicles.get(id), contact);
+        } else {
+            handleObstacleCollision(vehicles.get(queryVehicle),
+                parkingSpaces.get(obstacleIndices[id - vehicleCount]), contact);
+        }
+    }
+    
+    // Movement during the last integration step; zero for vehicles that didn't integrate
+    private double displacementX(int index) {
+        return stateStore.getX(index) - stateStore.getPreviousX(index);
+    }
+    
+    private double displacementY(int index) {
+        return stateStore.getY(index) - stateStore.getPreviousY(index);
+    }
+    
+    private static boolean needsSweep(double dx, double dy) {
+        // Below this the end-of-step overlap test cannot miss a contact
+        return dx * dx + dy * dy > SWEEP_MIN_DISPLACEMENT * SWEEP_MIN_DISPLACEMENT;
+    }
+    
+    /**
+     * Moves a vehicle back along its step to where it was at the given
+     * fraction of the step. Placing it also resets its step start, so later
+     * pairs in this pass see it as stationary at the impact point.
+     */
+    private void rewindToImpact(int index, double impact) {
+        double remaining = 1 - impact;
+        if (displacementX(index) == 0 && displacementY(index) == 0) return;
+        
+        Vehicle vehicle = vehicles.get(index);
+        vehicle.setPosition(vehicle.getX() - displacementX(index) * remaining,
+                            vehicle.getY() - displacementY(index) * remaining);
+        vehicle.writeCornerPoints(vehicleCorners, index * OrientedBoxCollider.CORNER_STRIDE);
+    }
+    
+    /**
+     * Writes the bounds of a box, grown to also cover where it was before
+     * moving by {@code (dx, dy)}, into {@code out} as min x, min y, max x, max y.
+     */
+    private static void computeBounds(double[] corners, int offset, double dx, double dy, double[] out) {
+        double minX = corners[offset], maxX = minX;
+        double minY = corners[offset + 1], maxY = minY;
+        for (int c = 2; c < OrientedBoxCollider.CORNER_STRIDE; c += 2) {
+            minX = Math.min(minX, corners[offset + c]);
+            maxX = Math.max(maxX, corners[offset + c]);
+            minY = Math.min(minY, corners[offset + c + 1]);
+            maxY = Math.max(maxY, corners[offset + c + 1]);
+        }
+        out[0] = Math.min(minX, minX - dx);
+        out[1] = Math.min(minY, minY - dy);
+        out[2] = Math.max(maxX, maxX - dx);
+        out[3] = Math.max(maxY, maxY - dy);
+    }
+    
+    private void handleCollision(Vehicle v1, Vehicle v2, OrientedBoxCollider.Contact contact) {
+        // Collision normal points from v1 to v2
+        double nx = contact.getNormalX();
+        double ny = contact.getNormalY();
+        
+        // Either side may have been resting; both have to move now
+        v1.wake();
+        v2.wake();
+        
+        // Push the vehicles apart so the overlap is not reported again next tick
+        double separation = contact.getDepth() * 0.5;
+        v1.translate(-nx * separation, -ny * separation);
+        v2.translate(nx * separation, ny * separation);
         
         // Calculate relative velocity
-        double vx = v2.getVelocity().x - v1.getVelocity().x;
-        double vy = v2.getVelocity().y - v1.getVelocity().y;
+        double vx = v2.getVelocityX() - v1.getVelocityX();
+        double vy = v2.getVelocityY() - v1.getVelocityY();
         
         // Calculate impulse along collision normal
-        double impulse = (vx * dx + vy * dy) * 0.8; // Coefficient of restitution
+        double impulse = (vx * nx + vy * ny) * 0.8; // Coefficient of restitution
         
         // Apply impulse
         v1.setSpeed(v1.getSpeed() - impulse * 0.5);
         v2.setSpeed(v2.getSpeed() + impulse * 0.5);
         
         // Small random angle change to avoid deadlock
-        v1.rotate((random.nextDouble() - 0.5) * 10);
-        v2.rotate((random.nextDouble() - 0.5) * 10);
+        v1.rotate((v1.getRandom().nextDouble() - 0.5) * 10);
+        v2.rotate((v2.getRandom().nextDouble() - 0.5) * 10);
     }
     
-    private void handleObstacleCollision(Vehicle vehicle, ParkingSpace obstacle) {
-        // Simple bounce back from obstacle
+    private void handleObstacleCollision(Vehicle vehicle, ParkingSpace obstacle,
+                                         OrientedBoxCollider.Contact contact) {
+        // Move out of the obstacle (normal points from vehicle to obstacle), then bounce back
+        vehicle.translate(-contact.getNormalX() * contact.getDepth(),
+                          -contact.getNormalY() * contact.getDepth());
         vehicle.setSpeed(-vehicle.getSpeed() * 0.7);
-        vehicle.rotate((random.nextDouble() - 0.5) * 20);
+        vehicle.rotate((vehicle.getRandom().nextDouble() - 0.5) * 20);
     }
     
     private double normalizeAngle(double angle) {
@@ -313,8 +828,125 @@ public class SimulationEngine {
     public List<ParkingSpace> getParkingSpaces() {
         return parkingSpaces;
     }
+    
+    public VehicleStateStore getStateStore() {
+        return stateStore;
+    }
+    
+    AIDecisionScheduler getAiScheduler() {
+        return aiScheduler;
+    }
+    
+    /**
+     * Returns the maneuver the vehicle at the given index is driving, or null.
+     */
+    public ParkingManeuver getManeuver(int vehicleIndex) {
+        return maneuvers[vehicleIndex];
+    }
+    
+    int maneuverStateSizeBytes() {
+        int size = Integer.BYTES;
+        for (int k = 0; k < maneuverCount; k++) {
+            size += Integer.BYTES + maneuvers[maneuverOrder[k]].stateSizeBytes();
+        }
+        return size;
+    }
+    
+    // Maneuvers are written in start order, each after its vehicle's index
+    void writeManeuverState(ByteBuffer out) {
+        out.putInt(maneuverCount);
+        for (int k = 0; k < maneuverCount; k++) {
+            out.putInt(maneuverOrder[k]);
+            maneuvers[maneuverOrder[k]].writeState(out);
+        }
+    }
+    
+    // Replaces every maneuver; each one's space is its vehicle's target, so
+    // targets must be restored first
+    void readManeuverState(ByteBuffer in) {
+        Arrays.fill(maneuvers, null);
+        maneuverCount = 0;
+        int count = in.getInt();
+        for (int k = 0; k < count; k++) {
+            int i = in.getInt();
+            Vehicle vehicle = vehicles.get(i);
+            if (vehicle.getTargetParkingSpace() == null || maneuvers[i] != null) {
+                throw new IllegalArgumentException("Saved maneuver has no target space");
+            }
+            startManeuver(i, ParkingManeuver.readState(in, vehicle, vehicle.getTargetParkingSpace()));
+        }
+    }
+    
+    /**
+     * Returns the simulated time at the end of the latest tick.
+     */
+    public double getSimulationTime() {
+        return simulationTime;
+    }
+    
+    void setSimulationTime(double simulationTime) {
+        this.simulationTime = simulationTime;
+    }
+    
+    /**
+     * Returns the rasterized lot: obstacles, occupied spaces and parked
+     * vehicles, as of the end of the latest tick.
+     */
+    public OccupancyGrid getOccupancyGrid() {
+        return occupancyGrid;
+    }
+    
+    /**
+     * Returns the signed distance field of {@link #getOccupancyGrid()}.
+     */
+    public DistanceField getDistanceField() {
+        return distanceField;
+    }
+    
+    /**
+     * Stops following the parking spaces. An engine that is dropped while its
+     * spaces live on, for example because another engine runs the same lot,
+     * should be detached, or the spaces keep updating its grid and index.
+     */
+    public void detach() {
+        occupancyEvents.detach();
+        parkingAlgorithm.getOccupancyIndex().detach();
+    }
+    
+    /**
+     * Returns the channel that reports every occupancy change in this lot.
+     */
+    public OccupancyEventChannel getOccupancyEvents() {
+        return occupancyEvents;
+    }
+    
+    /**
+     * Enables parallel vehicle integration and collision queries on the given
+     * pool. Results are the same for any pool size; pass null to go back to
+     * serial updates.
+     */
+    public void setUpdatePool(ForkJoinPool pool) {
+        this.updatePool = pool;
+    }
+    
+    public ForkJoinPool getUpdatePool() {
+        return updatePool;
+    }
 
-    public void setParkingLotDimensions(int PARKING_LOT_WIDTH, int PARKING_LOT_HEIGHT) {
-        throw new UnsupportedOperationException("Not supported yet."); // Generated from nbfs://nbhost/SystemFileSystem/Templates/Classes/Code/GeneratedMethodBody
+    public void setParkingLotDimensions(int width, int height) {
+        if (width <= 0 || height <= 0) {
+            throw new IllegalArgumentException("Dimensions must be positive");
+        }
+        this.worldWidth = width;
+        this.worldHeight = height;
+        buildOccupancyGrid();
+    }
+    
+    public double getWorldWidth() {
+        return worldWidth;
+    }
+    
+    public double getWorldHeight() {
+        return worldHeight;
     }
 }
\ No newline at end of file
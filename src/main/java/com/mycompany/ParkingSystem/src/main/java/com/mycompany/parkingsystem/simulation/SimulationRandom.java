@@ -0,0 +1,48 @@
+package com.mycompany.parkingsystem.simulation;
+
+import java.util.SplittableRandom;
+
+/**
+ * Seedable root for all randomness in a simulation run.
+ *
+ * Streams are derived by hashing the root seed with a subsystem name or a
+ * vehicle index rather than by splitting in call order, so each stream is the
+ * same no matter when or on which thread it is requested. Two runs with the
+ * same seed are therefore reproducible bit for bit.
+ */
+public class SimulationRandom {
+    private static final long SUBSYSTEM_SALT = 0x5DEECE66DL;
+    private static final long VEHICLE_SALT = 0x2545F4914F6CDD1DL;
+
+    private final long seed;
+
+    public SimulationRandom(long seed) {
+        this.seed = seed;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Returns a new stream for a named subsystem, e.g. "lot" or "visualization".
+     * Calling this twice with the same name yields two identical streams.
+     */
+    public SplittableRandom forSubsystem(String name) {
+        return new SplittableRandom(mix64(seed ^ mix64(SUBSYSTEM_SALT + name.hashCode())));
+    }
+
+    /**
+     * Returns a new stream owned by the vehicle at the given fleet index.
+     */
+    public SplittableRandom forVehicle(int vehicleIndex) {
+        return new SplittableRandom(mix64(seed ^ mix64(VEHICLE_SALT + vehicleIndex)));
+    }
+
+    // SplitMix64 finalizer, decorrelates nearby inputs
+    private static long mix64(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
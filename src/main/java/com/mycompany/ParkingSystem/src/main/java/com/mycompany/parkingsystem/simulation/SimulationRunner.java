@@ -0,0 +1,108 @@
+package com.mycompany.parkingsystem.simulation;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Steps a {@link SimulationEngine} at a fixed rate on its own thread and
+ * publishes a snapshot after every batch of ticks.
+ *
+ * The engine is only ever touched by this thread, so rendering can run at
+ * whatever pace painting allows by reading snapshots from the exchange. The
+ * loop sleeps until the next tick is due instead of spinning; how many ticks
+ * to run, how long they are and when to give up catching up is decided by a
+ * {@link TimestepController}.
+ */
+public class SimulationRunner {
+    private static final int MAX_CATCH_UP_TICKS = 5;
+
+    private final SimulationEngine engine;
+    private final SnapshotExchange snapshots;
+    private final TimestepController timestepController;
+
+    private volatile boolean running;
+    private Thread thread;
+    private long tick = 0;
+    private double simulationTime = 0;
+
+    /**
+     * @param timestep Real seconds between ticks, and simulated seconds per
+     *                 tick at time scale 1
+     */
+    public SimulationRunner(SimulationEngine engine, SnapshotExchange snapshots, double timestep) {
+        this.engine = engine;
+        this.snapshots = snapshots;
+        this.timestepController = new TimestepController(timestep, MAX_CATCH_UP_TICKS);
+    }
+
+    /**
+     * Sets the fast-forward factor, e.g. 10 for ten simulated seconds per
+     * real second. Safe to call from any thread.
+     */
+    public void setTimeScale(double timeScale) {
+        timestepController.setTimeScale(timeScale);
+    }
+
+    public double getTimeScale() {
+        return timestepController.getTimeScale();
+    }
+
+    /**
+     * Starts the simulation thread. Once started, the engine must not be
+     * touched from any other thread.
+     */
+    public synchronized void start() {
+        if (thread != null) {
+            throw new IllegalStateException("Simulation already started");
+        }
+        running = true;
+        thread = new Thread(this::runLoop, "simulation");
+        thread.start();
+    }
+
+    /**
+     * Asks the simulation thread to finish its current batch and exit.
+     */
+    public synchronized void stop() {
+        running = false;
+        if (thread != null) {
+            LockSupport.unpark(thread);
+        }
+    }
+
+    /**
+     * Waits for the simulation thread to exit.
+     */
+    public void join() throws InterruptedException {
+        Thread t;
+        synchronized (this) {
+            t = thread;
+        }
+        if (t != null) {
+            t.join();
+        }
+    }
+
+    private void runLoop() {
+        snapshots.publish(engine, tick, simulationTime);
+        long lastTime = System.nanoTime();
+
+        while (running) {
+            long now = System.nanoTime();
+            int steps = timestepController.advance((now - lastTime) / 1e9);
+            lastTime = now;
+
+            if (steps == 0) {
+                LockSupport.parkNanos((long) (timestepController.getTimeUntilNextStep() * 1e9));
+                continue;
+            }
+
+            double stepSize = timestepController.getStepSize();
+            for (int i = 0; i < steps; i++) {
+                engine.update(stepSize);
+                tick++;
+                simulationTime += stepSize;
+            }
+            snapshots.publish(engine, tick, simulationTime);
+        }
+    }
+}
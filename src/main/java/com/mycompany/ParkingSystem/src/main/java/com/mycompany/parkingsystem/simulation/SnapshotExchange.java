@@ -0,0 +1,47 @@
+package com.mycompany.parkingsystem.simulation;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Lock-free hand-off of {@link WorldSnapshot}s from one writer thread to one
+ * reader thread.
+ *
+ * Three snapshots rotate between the writer's back buffer, a shared middle
+ * slot and the reader's front buffer. Publishing and acquiring each swap one
+ * buffer with the middle slot atomically, so neither side ever waits for the
+ * other and the reader always sees the most recent complete snapshot. Nothing
+ * is allocated after construction.
+ */
+public class SnapshotExchange implements SnapshotSource {
+    private static final int INDEX_MASK = 3;
+    private static final int FRESH = 4; // set while the middle slot holds an unread snapshot
+
+    private final WorldSnapshot[] buffers = {
+        new WorldSnapshot(), new WorldSnapshot(), new WorldSnapshot()
+    };
+    private final AtomicInteger middle = new AtomicInteger(1);
+    private int back = 0;  // owned by the writer
+    private int front = 2; // owned by the reader
+
+    /**
+     * Captures the engine's state into the back buffer and publishes it.
+     * Writer thread only.
+     */
+    public void publish(SimulationEngine engine, long tick, double simulationTime) {
+        buffers[back].capture(engine, tick, simulationTime);
+        back = middle.getAndSet(back | FRESH) & INDEX_MASK;
+    }
+
+    /**
+     * Returns the newest published snapshot. The result stays valid until the
+     * next call; it is empty (tick -1) if nothing has been published yet.
+     * Reader thread only.
+     */
+    @Override
+    public WorldSnapshot acquireLatest() {
+        if ((middle.get() & FRESH) != 0) {
+            front = middle.getAndSet(front) & INDEX_MASK;
+        }
+        return buffers[front];
+    }
+}
@@ -0,0 +1,14 @@
+package com.mycompany.parkingsystem.simulation;
+
+/**
+ * Anything the renderer can draw frames from: the live simulation's
+ * {@link SnapshotExchange} or a {@link TrajectoryPlayer} replaying a recording.
+ */
+public interface SnapshotSource {
+
+    /**
+     * Returns the snapshot to draw. The result stays valid until the next
+     * call; it is empty (tick -1) if there is nothing to show yet.
+     */
+    WorldSnapshot acquireLatest();
+}
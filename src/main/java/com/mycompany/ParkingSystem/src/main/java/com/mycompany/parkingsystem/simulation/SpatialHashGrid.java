@@ -0,0 +1,213 @@
+package com.mycompany.parkingsystem.simulation;
+
+import java.util.Arrays;
+
+/**
+ * Uniform spatial hash used as the collision broad phase.
+ *
+ * Items are inserted by integer id together with their axis-aligned bounds and
+ * bucketed into every grid cell the bounds touch. {@link #forEachCandidatePair}
+ * then reports each pair of items whose bounds overlap exactly once, so the
+ * narrow phase only sees objects that are actually near each other.
+ * {@link #forEachCandidate} answers box queries against the same contents,
+ * which lets a grid of static items be built once and queried every tick. All
+ * storage is kept in primitive arrays that are reused between ticks.
+ */
+public class SpatialHashGrid {
+
+    /**
+     * Receives candidate pairs from the broad phase. Ids are reported with
+     * {@code first < second}.
+     */
+    @FunctionalInterface
+    public interface PairConsumer {
+        void accept(int first, int second);
+    }
+
+    /**
+     * Receives the items found by a box query.
+     */
+    @FunctionalInterface
+    public interface ItemConsumer {
+        void accept(int id);
+    }
+
+    private static final int EMPTY = -1;
+
+    private final double cellSize;
+    private final double inverseCellSize;
+
+    // Item bounds, indexed by item id
+    private double[] minX = new double[16];
+    private double[] minY = new double[16];
+    private double[] maxX = new double[16];
+    private double[] maxY = new double[16];
+
+    // Cell entries (one per item per covered cell), chained per hash bucket
+    private int[] entryItem = new int[64];
+    private long[] entryCell = new long[64];
+    private int[] entryNext = new int[64];
+    private int entryCount = 0;
+
+    private int[] bucketHeads = new int[64];
+    private int bucketMask = 63;
+
+    public SpatialHashGrid(double cellSize) {
+        if (cellSize <= 0) {
+            throw new IllegalArgumentException("Cell size must be positive");
+        }
+        this.cellSize = cellSize;
+        this.inverseCellSize = 1.0 / cellSize;
+        Arrays.fill(bucketHeads, EMPTY);
+    }
+
+    /**
+     * Removes all items. Call once at the start of each broad phase pass.
+     * @param expectedItems Approximate number of items that will be inserted,
+     *                      used to size the hash table
+     */
+    public void clear(int expectedItems) {
+        entryCount = 0;
+
+        // Grow for big passes and shrink again so a small pass doesn't pay
+        // for clearing and scanning a table sized for an earlier large one
+        int wanted = Integer.highestOneBit(Math.max(16, expectedItems * 4 - 1)) << 1;
+        if (wanted > bucketHeads.length || wanted * 8 < bucketHeads.length) {
+            bucketHeads = new int[wanted];
+            bucketMask = wanted - 1;
+        }
+        Arrays.fill(bucketHeads, EMPTY);
+    }
+
+    /**
+     * Inserts an item with the given axis-aligned bounds.
+     * @param id Non-negative item id, unique within the current pass
+     */
+    public void insert(int id, double x0, double y0, double x1, double y1) {
+        ensureItemCapacity(id + 1);
+        minX[id] = x0;
+        minY[id] = y0;
+        maxX[id] = x1;
+        maxY[id] = y1;
+
+        int cx0 = cellCoordinate(x0);
+        int cy0 = cellCoordinate(y0);
+        int cx1 = cellCoordinate(x1);
+        int cy1 = cellCoordinate(y1);
+
+        for (int cy = cy0; cy <= cy1; cy++) {
+            for (int cx = cx0; cx <= cx1; cx++) {
+                addEntry(id, cellKey(cx, cy));
+            }
+        }
+    }
+
+    /**
+     * Reports every pair of inserted items whose bounds overlap. A pair that
+     * shares several cells is only reported from the cell containing the
+     * minimum corner of the overlap region, so no de-duplication set is needed.
+     */
+    public void forEachCandidatePair(PairConsumer consumer) {
+        for (int bucket = 0; bucket <= bucketMask; bucket++) {
+            for (int a = bucketHeads[bucket]; a != EMPTY; a = entryNext[a]) {
+                long cell = entryCell[a];
+                int itemA = entryItem[a];
+
+                for (int b = entryNext[a]; b != EMPTY; b = entryNext[b]) {
+                    if (entryCell[b] != cell) continue; // Hash collision, different cell
+
+                    int itemB = entryItem[b];
+                    if (!boundsOverlap(itemA, itemB)) continue;
+
+                    // Only the cell holding the overlap's minimum corner reports the pair
+                    double refX = Math.max(minX[itemA], minX[itemB]);
+                    double refY = Math.max(minY[itemA], minY[itemB]);
+                    if (cellKey(cellCoordinate(refX), cellCoordinate(refY)) != cell) continue;
+
+                    if (itemA < itemB) {
+                        consumer.accept(itemA, itemB);
+                    } else {
+                        consumer.accept(itemB, itemA);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Reports every inserted item whose bounds overlap the given box, once
+     * each, using the same minimum-corner rule as the pair search.
+     */
+    public void forEachCandidate(double x0, double y0, double x1, double y1, ItemConsumer consumer) {
+        int cx0 = cellCoordinate(x0);
+        int cy0 = cellCoordinate(y0);
+        int cx1 = cellCoordinate(x1);
+        int cy1 = cellCoordinate(y1);
+
+        for (int cy = cy0; cy <= cy1; cy++) {
+            for (int cx = cx0; cx <= cx1; cx++) {
+                long cell = cellKey(cx, cy);
+                for (int e = bucketHeads[bucketIndex(cell)]; e != EMPTY; e = entryNext[e]) {
+                    if (entryCell[e] != cell) continue;
+
+                    int item = entryItem[e];
+                    if (minX[item] > x1 || maxX[item] < x0 || minY[item] > y1 || maxY[item] < y0) continue;
+
+                    double refX = Math.max(minX[item], x0);
+                    double refY = Math.max(minY[item], y0);
+                    if (cellCoordinate(refX) != cx || cellCoordinate(refY) != cy) continue;
+
+                    consumer.accept(item);
+                }
+            }
+        }
+    }
+
+    public double getCellSize() {
+        return cellSize;
+    }
+
+    private boolean boundsOverlap(int a, int b) {
+        return minX[a] <= maxX[b] && maxX[a] >= minX[b]
+            && minY[a] <= maxY[b] && maxY[a] >= minY[b];
+    }
+
+    private void addEntry(int id, long cell) {
+        if (entryCount == entryItem.length) {
+            int newLength = entryItem.length * 2;
+            entryItem = Arrays.copyOf(entryItem, newLength);
+            entryCell = Arrays.copyOf(entryCell, newLength);
+            entryNext = Arrays.copyOf(entryNext, newLength);
+        }
+
+        int bucket = bucketIndex(cell);
+        entryItem[entryCount] = id;
+        entryCell[entryCount] = cell;
+        entryNext[entryCount] = bucketHeads[bucket];
+        bucketHeads[bucket] = entryCount;
+        entryCount++;
+    }
+
+    private void ensureItemCapacity(int required) {
+        if (required <= minX.length) return;
+        int newLength = Math.max(required, minX.length * 2);
+        minX = Arrays.copyOf(minX, newLength);
+        minY = Arrays.copyOf(minY, newLength);
+        maxX = Arrays.copyOf(maxX, newLength);
+        maxY = Arrays.copyOf(maxY, newLength);
+    }
+
+    private int cellCoordinate(double value) {
+        return (int) Math.floor(value * inverseCellSize);
+    }
+
+    private static long cellKey(int cx, int cy) {
+        return ((long) cx << 32) | (cy & 0xFFFFFFFFL);
+    }
+
+    private int bucketIndex(long cell) {
+        // Fibonacci hashing spreads neighbouring cells across the table
+        long h = cell * 0x9E3779B97F4A7C15L;
+        return (int) (h >>> 32) & bucketMask;
+    }
+}
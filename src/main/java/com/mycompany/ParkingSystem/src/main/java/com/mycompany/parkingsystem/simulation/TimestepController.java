@@ -0,0 +1,90 @@
+package com.mycompany.parkingsystem.simulation;
+
+/**
+ * Turns elapsed wall-clock time into a bounded number of fixed simulation
+ * steps.
+ *
+ * Real time is consumed in fixed frames of {@code frameDuration}; each frame
+ * becomes one simulation step covering {@code frameDuration * timeScale}
+ * simulated seconds, so fast-forwarding lengthens steps instead of
+ * multiplying them. Vehicles sub-step long steps themselves and collisions
+ * are swept, which keeps large steps accurate. When the caller falls behind,
+ * at most {@code maxStepsPerAdvance} steps are handed out and the rest of the
+ * backlog is dropped, so a slow frame or a GC pause can never make the next
+ * frame slower still.
+ */
+public class TimestepController {
+    private final double frameDuration;
+    private final int maxStepsPerAdvance;
+
+    private volatile double timeScale = 1;
+    private double accumulator = 0;    // real seconds not yet turned into steps
+    private double droppedRealTime = 0;
+
+    /**
+     * @param frameDuration Real seconds per step at any time scale
+     * @param maxStepsPerAdvance Catch-up cap per call to {@link #advance}
+     */
+    public TimestepController(double frameDuration, int maxStepsPerAdvance) {
+        if (frameDuration <= 0 || maxStepsPerAdvance < 1) {
+            throw new IllegalArgumentException("Invalid timestep configuration");
+        }
+        this.frameDuration = frameDuration;
+        this.maxStepsPerAdvance = maxStepsPerAdvance;
+    }
+
+    /**
+     * Adds elapsed real time.
+     * @return Number of steps of {@link #getStepSize()} to run now
+     */
+    public int advance(double realSeconds) {
+        accumulator += realSeconds;
+        int steps = (int) (accumulator / frameDuration);
+        if (steps > maxStepsPerAdvance) {
+            // Too far behind to catch up; let simulated time slip instead
+            droppedRealTime += (steps - maxStepsPerAdvance) * frameDuration;
+            steps = maxStepsPerAdvance;
+            accumulator = 0;
+        } else {
+            accumulator -= steps * frameDuration;
+        }
+        return steps;
+    }
+
+    /**
+     * Returns the real seconds until the next step falls due.
+     */
+    public double getTimeUntilNextStep() {
+        return Math.max(0, frameDuration - accumulator);
+    }
+
+    /**
+     * Returns the simulated seconds covered by one step at the current scale.
+     */
+    public double getStepSize() {
+        return frameDuration * timeScale;
+    }
+
+    public double getTimeScale() {
+        return timeScale;
+    }
+
+    /**
+     * Sets how many simulated seconds pass per real second. Safe to call
+     * from any thread; takes effect on the next step.
+     */
+    public void setTimeScale(double timeScale) {
+        if (!(timeScale > 0)) {
+            throw new IllegalArgumentException("Time scale must be positive");
+        }
+        this.timeScale = timeScale;
+    }
+
+    /**
+     * Returns the real time skipped so far because the simulation could not
+     * keep up.
+     */
+    public double getDroppedRealTime() {
+        return droppedRealTime;
+    }
+}
@@ -0,0 +1,278 @@
+package com.mycompany.parkingsystem.simulation;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Replays a file written by {@link TrajectoryRecorder} with random access to
+ * any tick.
+ *
+ * Seeking finds the last keyframe at or before the target with a binary
+ * search over the keyframe index, then applies the deltas recorded since, so
+ * the cost is O(log n) plus at most one keyframe interval of changes no matter
+ * how long the recording is. Seeking forward within the current keyframe
+ * interval just keeps applying deltas, which makes normal playback cheap.
+ *
+ * The recording is read through read-only mappings made on first use. A
+ * player is not thread-safe; use it from one thread at a time, e.g. the Swing
+ * event thread when it feeds the visualization.
+ */
+public class TrajectoryPlayer implements SnapshotSource, Closeable {
+    private final FileChannel channel;
+    private final MappedByteBuffer[] regions;
+    private final long recordsOffset;
+    private final long recordCount;
+    private final long tickCount;
+    private final double timestep;
+    private final int vehicleCount;
+    private final int spaceCount;
+
+    // Static vehicle data from the header
+    private final float[] length;
+    private final float[] width;
+    private final boolean[] userControlled;
+
+    // Keyframe index, sorted by tick
+    private final long[] keyframeTicks;
+    private final long[] keyframeRecords;
+
+    // State at the current tick
+    private final float[] x;
+    private final float[] y;
+    private final float[] heading;
+    private final float[] speed;
+    private final boolean[] occupied;
+    private long currentTick = -1;
+    private long cursor = 0; // next record to apply
+
+    private final WorldSnapshot snapshot = new WorldSnapshot();
+    private boolean snapshotStale = true;
+
+    /**
+     * Opens a recording and its index and positions the player on the first tick.
+     * @throws IOException If either file is missing or not a trajectory recording
+     */
+    public TrajectoryPlayer(Path file) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            if (channel.size() < TrajectoryRecorder.HEADER_BYTES) {
+                throw new IOException("Not a trajectory recording: " + file);
+            }
+            MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, TrajectoryRecorder.HEADER_BYTES);
+            header.order(ByteOrder.LITTLE_ENDIAN);
+            if (header.getInt(0) != TrajectoryRecorder.MAGIC
+                    || header.getInt(4) != TrajectoryRecorder.VERSION
+                    || header.getInt(8) != TrajectoryRecorder.RECORD_BYTES) {
+                throw new IOException("Unsupported trajectory recording: " + file);
+            }
+            vehicleCount = header.getInt(12);
+            timestep = header.getDouble(16);
+            spaceCount = header.getInt(TrajectoryRecorder.SPACE_COUNT_OFFSET);
+            recordsOffset = TrajectoryRecorder.HEADER_BYTES + (long) vehicleCount * TrajectoryRecorder.VEHICLE_BYTES;
+
+            // Trust the header counts over the file size, which may include unused mapped space
+            long available = Math.max(0, (channel.size() - recordsOffset) / TrajectoryRecorder.RECORD_BYTES);
+            recordCount = Math.min(header.getLong(TrajectoryRecorder.RECORD_COUNT_OFFSET), available);
+            tickCount = header.getLong(TrajectoryRecorder.TICK_COUNT_OFFSET);
+
+            MappedByteBuffer table = channel.map(FileChannel.MapMode.READ_ONLY,
+                TrajectoryRecorder.HEADER_BYTES, (long) vehicleCount * TrajectoryRecorder.VEHICLE_BYTES);
+            table.order(ByteOrder.LITTLE_ENDIAN);
+            length = new float[vehicleCount];
+            width = new float[vehicleCount];
+            userControlled = new boolean[vehicleCount];
+            for (int i = 0; i < vehicleCount; i++) {
+                int p = i * TrajectoryRecorder.VEHICLE_BYTES;
+                length[i] = table.getFloat(p);
+                width[i] = table.getFloat(p + 4);
+                userControlled[i] = (table.getInt(p + 8) & 1) != 0;
+            }
+
+            int regionCount = (int) ((recordCount + TrajectoryRecorder.REGION_RECORDS - 1)
+                / TrajectoryRecorder.REGION_RECORDS);
+            regions = new MappedByteBuffer[regionCount];
+
+            try (FileChannel indexChannel = FileChannel.open(TrajectoryRecorder.indexFile(file),
+                    StandardOpenOption.READ)) {
+                int entries = (int) (indexChannel.size() / TrajectoryRecorder.INDEX_ENTRY_BYTES);
+                long[] index = new long[entries * 2];
+                indexChannel.map(FileChannel.MapMode.READ_ONLY, 0, (long) entries * TrajectoryRecorder.INDEX_ENTRY_BYTES)
+                    .order(ByteOrder.LITTLE_ENDIAN).asLongBuffer().get(index);
+
+                // Drop keyframes from a tick that never finished
+                int usable = 0;
+                while (usable < entries && index[usable * 2] < tickCount && index[usable * 2 + 1] < recordCount) {
+                    usable++;
+                }
+                keyframeTicks = new long[usable];
+                keyframeRecords = new long[usable];
+                for (int k = 0; k < usable; k++) {
+                    keyframeTicks[k] = index[k * 2];
+                    keyframeRecords[k] = index[k * 2 + 1];
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+
+        x = new float[vehicleCount];
+        y = new float[vehicleCount];
+        heading = new float[vehicleCount];
+        speed = new float[vehicleCount];
+        occupied = new boolean[spaceCount];
+        if (keyframeTicks.length > 0) {
+            seekTick(0);
+        }
+    }
+
+    /**
+     * Moves to the given tick, clamped to the recorded range.
+     */
+    public void seekTick(long tick) {
+        if (keyframeTicks.length == 0) return;
+        long target = Math.max(0, Math.min(tick, getLastTick()));
+        if (target == currentTick) return;
+
+        int k = Arrays.binarySearch(keyframeTicks, target);
+        if (k < 0) {
+            k = -k - 2; // last keyframe before the target; tick 0 is always one
+        }
+        // Going back, or past the next keyframe, restarts from the keyframe
+        if (currentTick < 0 || target < currentTick || keyframeTicks[k] > currentTick) {
+            cursor = keyframeRecords[k];
+        }
+
+        while (cursor < recordCount) {
+            MappedByteBuffer region = region(cursor);
+            int p = (int) (cursor % TrajectoryRecorder.REGION_RECORDS) * TrajectoryRecorder.RECORD_BYTES;
+            if (region.getInt(p) > target) break;
+
+            int subject = region.getInt(p + 4);
+            if (subject >= 0) {
+                x[subject] = region.getFloat(p + 8);
+                y[subject] = region.getFloat(p + 12);
+                heading[subject] = region.getFloat(p + 16);
+                speed[subject] = region.getFloat(p + 20);
+            } else {
+                occupied[~subject] = region.getFloat(p + 8) != 0;
+            }
+            cursor++;
+        }
+        currentTick = target;
+        snapshotStale = true;
+    }
+
+    /**
+     * Moves to the tick that ends closest to the given simulated time.
+     */
+    public void seekTime(double seconds) {
+        seekTick(Math.round(seconds / timestep) - 1);
+    }
+
+    /**
+     * Returns the current tick as a snapshot, rebuilt only after a seek.
+     */
+    @Override
+    public WorldSnapshot acquireLatest() {
+        if (snapshotStale && currentTick >= 0) {
+            snapshot.capture(this);
+            snapshotStale = false;
+        }
+        return snapshot;
+    }
+
+    /** Returns the tick the player is on, or -1 if the recording is empty. */
+    public long getCurrentTick() {
+        return currentTick;
+    }
+
+    /** Returns the simulated time at the end of the current tick. */
+    public double getCurrentTime() {
+        return (currentTick + 1) * timestep;
+    }
+
+    public long getLastTick() {
+        return tickCount - 1;
+    }
+
+    public double getDuration() {
+        return tickCount * timestep;
+    }
+
+    public double getTimestep() {
+        return timestep;
+    }
+
+    public int getVehicleCount() {
+        return vehicleCount;
+    }
+
+    public int getSpaceCount() {
+        return spaceCount;
+    }
+
+    public float getX(int index) {
+        return x[index];
+    }
+
+    public float getY(int index) {
+        return y[index];
+    }
+
+    public float getHeading(int index) {
+        return heading[index];
+    }
+
+    public float getSpeed(int index) {
+        return speed[index];
+    }
+
+    public float getLength(int index) {
+        return length[index];
+    }
+
+    public float getWidth(int index) {
+        return width[index];
+    }
+
+    public boolean isUserControlled(int index) {
+        return userControlled[index];
+    }
+
+    public boolean isOccupied(int spaceIndex) {
+        return occupied[spaceIndex];
+    }
+
+    @Override
+    public void close() throws IOException {
+        Arrays.fill(regions, null);
+        channel.close();
+    }
+
+    private MappedByteBuffer region(long record) {
+        int index = (int) (record / TrajectoryRecorder.REGION_RECORDS);
+        MappedByteBuffer region = regions[index];
+        if (region == null) {
+            long first = index * TrajectoryRecorder.REGION_RECORDS;
+            long records = Math.min(TrajectoryRecorder.REGION_RECORDS, recordCount - first);
+            try {
+                region = channel.map(FileChannel.MapMode.READ_ONLY,
+                    recordsOffset + first * TrajectoryRecorder.RECORD_BYTES,
+                    records * TrajectoryRecorder.RECORD_BYTES);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            region.order(ByteOrder.LITTLE_ENDIAN);
+            regions[index] = region;
+        }
+        return region;
+    }
+}
@@ -0,0 +1,272 @@
+package com.mycompany.parkingsystem.simulation;
+
+import com.mycompany.parkingsystem.model.ParkingSpace;
+import com.mycompany.parkingsystem.model.VehicleStateStore;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Appends vehicle poses to a memory-mapped file of fixed-size records for
+ * offline analysis and replay.
+ *
+ * The file starts with a {@value #HEADER_BYTES}-byte header and a table of
+ * vehicle sizes, followed by records of {@value #RECORD_BYTES} bytes, all
+ * little-endian:
+ * <pre>
+ * header:  int magic, int version, int recordBytes, int vehicleCount,
+ *          double timestep, long recordCount, long tickCount,
+ *          int keyframeInterval, int spaceCount, padding
+ * vehicle: float length, float width, int flags (1 = user controlled)
+ * record:  int tick, int subject, float x, float y, float heading, float speed
+ * </pre>
+ * A record with a non-negative subject is a vehicle pose. A negative subject
+ * {@code ~j} is the occupancy of space {@code j}, stored in x as 1 or 0.
+ *
+ * Records are in tick order. Every {@code keyframeInterval} ticks a keyframe
+ * writes every vehicle and space; in between, a vehicle or space only gets a
+ * record on ticks where it changed, so parked and resting vehicles cost no
+ * space. A reader rebuilds any tick by starting at the keyframe before it and
+ * carrying values forward. The keyframes are listed in a sidecar index file
+ * (see {@link #indexFile}) of {@code long tick, long firstRecord} entries, so a
+ * player can find the right one with a binary search.
+ *
+ * Records go straight into mapped regions of the file, so recording a tick
+ * makes no allocation and no system call; only moving on to the next region
+ * and appending an index entry touch the file. The header counts are updated
+ * after every tick, so a file cut short by a crash is still readable up to its
+ * last whole tick.
+ */
+public class TrajectoryRecorder implements Closeable {
+    public static final int MAGIC = 0x50524B54; // "PRKT"
+    public static final int VERSION = 2;
+    public static final int HEADER_BYTES = 64;
+    public static final int VEHICLE_BYTES = 12;
+    public static final int RECORD_BYTES = 24;
+    public static final int INDEX_ENTRY_BYTES = 16;
+    public static final int DEFAULT_KEYFRAME_INTERVAL = 600; // ten seconds at 60 Hz
+
+    static final int RECORD_COUNT_OFFSET = 24;
+    static final int TICK_COUNT_OFFSET = 32;
+    static final int KEYFRAME_INTERVAL_OFFSET = 40;
+    static final int SPACE_COUNT_OFFSET = 44;
+    static final long REGION_RECORDS = 1 << 21; // 48 MB per mapping
+    static final long REGION_BYTES = REGION_RECORDS * RECORD_BYTES;
+
+    private final FileChannel channel;
+    private final FileChannel indexChannel;
+    private final MappedByteBuffer header;
+    private final ByteBuffer indexEntry = ByteBuffer.allocateDirect(INDEX_ENTRY_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+    private final List<ParkingSpace> spaces;
+    private final OccupancyEventChannel occupancyEvents;
+    private final OccupancyEventChannel.Handler occupancyHandler = this::spaceChanged;
+    private final int[] changedSpaces; // spaces reported changed since the last tick
+    private final boolean[] spaceDirty;
+    private int changedCount = 0;
+    private final int vehicleCount;
+    private final int keyframeInterval;
+    private final long recordsOffset;
+    private MappedByteBuffer region;
+    private long regionIndex = -1;
+    private int regionPosition;
+    private long recordCount = 0;
+    private long tickCount = 0;
+
+    // Last recorded values, in the precision that was written
+    private final float[] lastX;
+    private final float[] lastY;
+    private final float[] lastHeading;
+    private final float[] lastSpeed;
+    private final boolean[] lastOccupied;
+
+    public TrajectoryRecorder(Path file, SimulationEngine engine, double timestep) throws IOException {
+        this(file, engine, timestep, DEFAULT_KEYFRAME_INTERVAL);
+    }
+
+    /**
+     * Creates or replaces the given file and its index.
+     * @param engine Engine that will be recorded; its fleet and layout are fixed
+     * @param timestep Simulated seconds per tick, stored for readers
+     * @param keyframeInterval Ticks between full keyframes
+     */
+    public TrajectoryRecorder(Path file, SimulationEngine engine, double timestep, int keyframeInterval)
+            throws IOException {
+        if (timestep <= 0 || keyframeInterval < 1) {
+            throw new IllegalArgumentException("Timestep and keyframe interval must be positive");
+        }
+        VehicleStateStore store = engine.getStateStore();
+        this.spaces = engine.getParkingSpaces();
+        this.vehicleCount = store.size();
+        this.keyframeInterval = keyframeInterval;
+        this.recordsOffset = HEADER_BYTES + (long) vehicleCount * VEHICLE_BYTES;
+
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+            StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        this.indexChannel = FileChannel.open(indexFile(file), StandardOpenOption.CREATE,
+            StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+
+        this.header = channel.map(FileChannel.MapMode.READ_WRITE, 0, recordsOffset);
+        header.order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(0, MAGIC);
+        header.putInt(4, VERSION);
+        header.putInt(8, RECORD_BYTES);
+        header.putInt(12, vehicleCount);
+        header.putDouble(16, timestep);
+        header.putLong(RECORD_COUNT_OFFSET, 0);
+        header.putLong(TICK_COUNT_OFFSET, 0);
+        header.putInt(KEYFRAME_INTERVAL_OFFSET, keyframeInterval);
+        header.putInt(SPACE_COUNT_OFFSET, spaces.size());
+        for (int i = 0; i < vehicleCount; i++) {
+            int p = HEADER_BYTES + i * VEHICLE_BYTES;
+            header.putFloat(p, (float) store.getLength(i));
+            header.putFloat(p + 4, (float) store.getWidth(i));
+            header.putInt(p + 8, store.isUserControlled(i) ? 1 : 0);
+        }
+
+        lastX = new float[vehicleCount];
+        lastY = new float[vehicleCount];
+        lastHeading = new float[vehicleCount];
+        lastSpeed = new float[vehicleCount];
+        lastOccupied = new boolean[spaces.size()];
+        changedSpaces = new int[spaces.size()];
+        spaceDirty = new boolean[spaces.size()];
+
+        // Between keyframes only spaces reported by the event channel are written
+        this.occupancyEvents = engine.getOccupancyEvents();
+        occupancyEvents.addHandler(occupancyHandler);
+    }
+
+    /**
+     * Returns the index file that goes with a recording.
+     */
+    public static Path indexFile(Path file) {
+        return file.resolveSibling(file.getFileName() + ".idx");
+    }
+
+    /**
+     * Records every vehicle and space that changed since it was last recorded,
+     * or all of them on a keyframe tick. Call once per tick, between updates,
+     * from the thread running the engine.
+     */
+    public void recordTick(SimulationEngine engine) throws IOException {
+        VehicleStateStore store = engine.getStateStore();
+        if (store.size() != vehicleCount) {
+            throw new IllegalArgumentException("Store size does not match the recording");
+        }
+        int tick = (int) tickCount;
+        boolean keyframe = tickCount % keyframeInterval == 0;
+        if (keyframe) {
+            indexEntry.clear();
+            indexEntry.putLong(tickCount).putLong(recordCount).flip();
+            while (indexEntry.hasRemaining()) {
+                indexChannel.write(indexEntry);
+            }
+        }
+
+        for (int i = 0; i < vehicleCount; i++) {
+            float x = (float) store.getX(i);
+            float y = (float) store.getY(i);
+            float heading = (float) store.getAngle(i);
+            float speed = (float) store.getSpeed(i);
+            if (!keyframe && x == lastX[i] && y == lastY[i]
+                    && heading == lastHeading[i] && speed == lastSpeed[i]) {
+                continue;
+            }
+            lastX[i] = x;
+            lastY[i] = y;
+            lastHeading[i] = heading;
+            lastSpeed[i] = speed;
+            writeRecord(tick, i, x, y, heading, speed);
+        }
+
+        if (keyframe) {
+            for (int j = 0; j < lastOccupied.length; j++) {
+                writeSpace(tick, j);
+            }
+        } else {
+            for (int k = 0; k < changedCount; k++) {
+                int j = changedSpaces[k];
+                if (spaces.get(j).isOccupied() != lastOccupied[j]) {
+                    writeSpace(tick, j);
+                }
+            }
+        }
+        for (int k = 0; k < changedCount; k++) {
+            spaceDirty[changedSpaces[k]] = false;
+        }
+        changedCount = 0;
+
+        tickCount++;
+        header.putLong(RECORD_COUNT_OFFSET, recordCount);
+        header.putLong(TICK_COUNT_OFFSET, tickCount);
+    }
+
+    public long getRecordCount() {
+        return recordCount;
+    }
+
+    public long getTickCount() {
+        return tickCount;
+    }
+
+    /**
+     * Trims the file to the records written and closes it and its index.
+     */
+    @Override
+    public void close() throws IOException {
+        if (!channel.isOpen()) return;
+        occupancyEvents.removeHandler(occupancyHandler);
+        region = null;
+        try (indexChannel) {
+            channel.truncate(recordsOffset + recordCount * RECORD_BYTES);
+        } finally {
+            channel.close();
+        }
+    }
+
+    private void spaceChanged(int spaceIndex, String spaceId, boolean wasOccupied, boolean occupied,
+                              double simulationTime) {
+        if (!spaceDirty[spaceIndex]) {
+            spaceDirty[spaceIndex] = true;
+            changedSpaces[changedCount++] = spaceIndex;
+        }
+    }
+
+    private void writeSpace(int tick, int spaceIndex) throws IOException {
+        boolean occupied = spaces.get(spaceIndex).isOccupied();
+        lastOccupied[spaceIndex] = occupied;
+        writeRecord(tick, ~spaceIndex, occupied ? 1 : 0, 0, 0, 0);
+    }
+
+    private void writeRecord(int tick, int subject, float x, float y, float heading, float speed)
+            throws IOException {
+        long index = recordCount / REGION_RECORDS;
+        if (index != regionIndex) {
+            mapRegion(index);
+        }
+        int p = regionPosition;
+        region.putInt(p, tick);
+        region.putInt(p + 4, subject);
+        region.putFloat(p + 8, x);
+        region.putFloat(p + 12, y);
+        region.putFloat(p + 16, heading);
+        region.putFloat(p + 20, speed);
+        regionPosition = p + RECORD_BYTES;
+        recordCount++;
+    }
+
+    private void mapRegion(long index) throws IOException {
+        // Mapping past the end grows the file; the old region is released by GC
+        region = channel.map(FileChannel.MapMode.READ_WRITE, recordsOffset + index * REGION_BYTES, REGION_BYTES);
+        region.order(ByteOrder.LITTLE_ENDIAN);
+        regionIndex = index;
+        regionPosition = 0;
+    }
+}
@@ -0,0 +1,162 @@
+package com.mycompany.parkingsystem.simulation;
+
+import com.mycompany.parkingsystem.model.ParkingSpace;
+import com.mycompany.parkingsystem.model.VehicleStateStore;
+
+import java.util.List;
+
+/**
+ * Copy of the dynamic world state at one simulation tick, handed from the
+ * simulation thread to the renderer through a {@link SnapshotExchange}, or
+ * rebuilt from a recording by a {@link TrajectoryPlayer}.
+ *
+ * Vehicles are stored by state index and parking spaces by their position in
+ * the engine's space list; space geometry never changes, so only occupancy is
+ * copied. Snapshots are recycled by the exchange, so a reader must not keep
+ * one after acquiring a newer one.
+ */
+public class WorldSnapshot {
+    private long tick = -1;
+    private double simulationTime;
+    private int vehicleCount;
+
+    private double[] x = new double[0];
+    private double[] y = new double[0];
+    private double[] angle = new double[0];
+    private double[] speed = new double[0];
+    private double[] length = new double[0];
+    private double[] width = new double[0];
+    private boolean[] parked = new boolean[0];
+    private boolean[] userControlled = new boolean[0];
+    private boolean[] occupied = new boolean[0];
+
+    /**
+     * Overwrites this snapshot with the engine's current state. Must run on
+     * the thread that updates the engine.
+     */
+    void capture(SimulationEngine engine, long tick, double simulationTime) {
+        this.tick = tick;
+        this.simulationTime = simulationTime;
+
+        VehicleStateStore store = engine.getStateStore();
+        int count = store.size();
+        if (x.length < count) {
+            x = new double[count];
+            y = new double[count];
+            angle = new double[count];
+            speed = new double[count];
+            length = new double[count];
+            width = new double[count];
+            parked = new boolean[count];
+            userControlled = new boolean[count];
+        }
+        for (int i = 0; i < count; i++) {
+            x[i] = store.getX(i);
+            y[i] = store.getY(i);
+            angle[i] = store.getAngle(i);
+            speed[i] = store.getSpeed(i);
+            length[i] = store.getLength(i);
+            width[i] = store.getWidth(i);
+            parked[i] = store.isParked(i);
+            userControlled[i] = store.isUserControlled(i);
+        }
+        vehicleCount = count;
+
+        List<ParkingSpace> spaces = engine.getParkingSpaces();
+        if (occupied.length != spaces.size()) {
+            occupied = new boolean[spaces.size()];
+        }
+        for (int j = 0; j < occupied.length; j++) {
+            occupied[j] = spaces.get(j).isOccupied();
+        }
+    }
+
+    /**
+     * Overwrites this snapshot with a replayed tick. Must run on the thread
+     * that owns the player.
+     */
+    void capture(TrajectoryPlayer player) {
+        this.tick = player.getCurrentTick();
+        this.simulationTime = player.getCurrentTime();
+
+        int count = player.getVehicleCount();
+        if (x.length < count) {
+            x = new double[count];
+            y = new double[count];
+            angle = new double[count];
+            speed = new double[count];
+            length = new double[count];
+            width = new double[count];
+            parked = new boolean[count];
+            userControlled = new boolean[count];
+        }
+        for (int i = 0; i < count; i++) {
+            x[i] = player.getX(i);
+            y[i] = player.getY(i);
+            angle[i] = player.getHeading(i);
+            speed[i] = player.getSpeed(i);
+            length[i] = player.getLength(i);
+            width[i] = player.getWidth(i);
+            parked[i] = false; // not recorded
+            userControlled[i] = player.isUserControlled(i);
+        }
+        vehicleCount = count;
+
+        if (occupied.length != player.getSpaceCount()) {
+            occupied = new boolean[player.getSpaceCount()];
+        }
+        for (int j = 0; j < occupied.length; j++) {
+            occupied[j] = player.isOccupied(j);
+        }
+    }
+
+    /** Returns the tick this snapshot was taken at, or -1 if it is still empty. */
+    public long getTick() {
+        return tick;
+    }
+
+    public double getSimulationTime() {
+        return simulationTime;
+    }
+
+    public int getVehicleCount() {
+        return vehicleCount;
+    }
+
+    public double getX(int index) {
+        return x[index];
+    }
+
+    public double getY(int index) {
+        return y[index];
+    }
+
+    public double getAngle(int index) {
+        return angle[index];
+    }
+
+    public double getSpeed(int index) {
+        return speed[index];
+    }
+
+    public double getLength(int index) {
+        return length[index];
+    }
+
+    public double getWidth(int index) {
+        return width[index];
+    }
+
+    public boolean isParked(int index) {
+        return parked[index];
+    }
+
+    public boolean isUserControlled(int index) {
+        return userControlled[index];
+    }
+
+    /** Returns whether the space at this position in the space list is occupied. */
+    public boolean isOccupied(int spaceIndex) {
+        return spaceIndex < occupied.length && occupied[spaceIndex];
+    }
+}
@@ -1,21 +1,41 @@
 package com.mycompany.parkingsystem.visualization;
 
 import com.mycompany.parkingsystem.model.ParkingSpace;
-import com.mycompany.parkingsystem.model.Vehicle;
+import com.mycompany.parkingsystem.model.ParkingSpaceType;
+import com.mycompany.parkingsystem.simulation.OccupancyEventChannel;
+import com.mycompany.parkingsystem.simulation.SnapshotSource;
+import com.mycompany.parkingsystem.simulation.TrajectoryPlayer;
+import com.mycompany.parkingsystem.simulation.WorldSnapshot;
 
 import javax.swing.*;
 import java.awt.*;
 import java.awt.geom.*;
 import java.util.List;
-import java.util.Random;
+import java.util.SplittableRandom;
 
+/**
+ * Swing view of the parking lot. Never touches the live simulation objects:
+ * every frame draws the latest {@link WorldSnapshot} from its source, plus the
+ * parking space geometry, which never changes. The source is either the live
+ * simulation thread or a {@link TrajectoryPlayer} driven by the replay controls.
+ * The live view also counts free spaces from the simulation's occupancy
+ * events, and only rereads the spaces' occupancy if it loses some.
+ */
 public class ParkingVisualization extends JPanel {
 
-    public static JFrame createAndShowGUI(List<ParkingSpace> parkingSpaces, List<Vehicle> vehicles) {
+    /**
+     * Shows the live simulation.
+     * @param occupancyEvents Subscription to the engine's occupancy events,
+     *                        taken before the simulation thread started
+     */
+    public static JFrame createAndShowGUI(List<ParkingSpace> parkingSpaces, SnapshotSource snapshots,
+                                          OccupancyEventChannel.Subscription occupancyEvents,
+                                          long renderSeed) {
         JFrame frame = new JFrame("Parking System Visualization");
     frame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
     
-    ParkingVisualization visualization = new ParkingVisualization(parkingSpaces, vehicles);
+    ParkingVisualization visualization = new ParkingVisualization(parkingSpaces, snapshots, renderSeed);
+    visualization.freeSpaces = new FreeSpaceCounter(parkingSpaces, occupancyEvents);
     frame.add(visualization);
     
     frame.pack();
@@ -24,9 +44,166 @@ public class ParkingVisualization extends JPanel {
     
     return frame;
     }
-    private List<ParkingSpace> parkingSpaces;
-    private List<Vehicle> vehicles;
-    private static final Random RANDOM = new Random();
+    
+    /**
+     * Shows a recording with play/pause, a speed choice and a slider that
+     * scrubs to any point; every seek goes through the player's keyframe index.
+     * @param parkingSpaces Layout the recording was made on
+     */
+    public static JFrame createAndShowReplay(List<ParkingSpace> parkingSpaces, TrajectoryPlayer player,
+                                             long renderSeed) {
+        JFrame frame = new JFrame("Parking System Replay");
+        frame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+        frame.add(new ParkingVisualization(parkingSpaces, player, renderSeed), BorderLayout.CENTER);
+        frame.add(new ReplayControls(player), BorderLayout.SOUTH);
+        
+        frame.pack();
+        frame.setLocationRelativeTo(null);
+        frame.setVisible(true);
+        
+        return frame;
+    }
+    
+    /**
+     * Play/pause, speed and scrub controls for a replay. Playback advances the
+     * player by the real time elapsed since the last timer tick.
+     */
+    private static class ReplayControls extends JPanel {
+        private static final double[] SPEEDS = {1, 10, 100, 1000};
+        
+        private final TrajectoryPlayer player;
+        private final JSlider slider;
+        private final JLabel timeLabel = new JLabel();
+        private final JButton playButton = new JButton("Pause");
+        private final JComboBox<String> speedChoice = new JComboBox<>();
+        private boolean playing = true;
+        private boolean movingSlider; // set while playback moves the slider, so it doesn't seek back
+        private double playbackTime;
+        private long lastNanos = System.nanoTime();
+        
+        ReplayControls(TrajectoryPlayer player) {
+            super(new BorderLayout(8, 0));
+            this.player = player;
+            this.playbackTime = player.getCurrentTime();
+            
+            slider = new JSlider(0, (int) Math.max(0, player.getLastTick()), 0);
+            slider.addChangeListener(e -> {
+                if (movingSlider) return;
+                player.seekTick(slider.getValue());
+                playbackTime = player.getCurrentTime();
+                updateLabel();
+            });
+            
+            for (double speed : SPEEDS) {
+                speedChoice.addItem((int) speed + "x");
+            }
+            playButton.addActionListener(e -> {
+                playing = !playing;
+                playButton.setText(playing ? "Pause" : "Play");
+            });
+            
+            JPanel buttons = new JPanel();
+            buttons.add(playButton);
+            buttons.add(speedChoice);
+            add(buttons, BorderLayout.WEST);
+            add(slider, BorderLayout.CENTER);
+            add(timeLabel, BorderLayout.EAST);
+            updateLabel();
+            
+            Timer playbackTimer = new Timer(REPAINT_INTERVAL_MS, e -> advance());
+            playbackTimer.setCoalesce(true);
+            playbackTimer.start();
+        }
+        
+        private void advance() {
+            long now = System.nanoTime();
+            double elapsed = (now - lastNanos) / 1e9;
+            lastNanos = now;
+            if (!playing || player.getCurrentTick() >= player.getLastTick()) return;
+            
+            playbackTime += elapsed * SPEEDS[speedChoice.getSelectedIndex()];
+            player.seekTime(playbackTime);
+            movingSlider = true;
+            slider.setValue((int) player.getCurrentTick());
+            movingSlider = false;
+            updateLabel();
+        }
+        
+        private void updateLabel() {
+            timeLabel.setText(String.format("%s / %s ", formatTime(player.getCurrentTime()),
+                formatTime(player.getDuration())));
+        }
+        
+        private static String formatTime(double seconds) {
+            long total = (long) seconds;
+            return String.format("%d:%02d:%02d", total / 3600, total / 60 % 60, total % 60);
+        }
+    }
+    
+    /**
+     * Free parkable spaces, kept current from occupancy events read on the
+     * Swing thread instead of rescanning the lot every frame. Events only
+     * set a space's state, so one seen twice, or after a rescan that already
+     * saw its change, leaves the count alone.
+     */
+    private static class FreeSpaceCounter implements OccupancyEventChannel.Handler {
+        private final List<ParkingSpace> spaces;
+        private final OccupancyEventChannel.Subscription events;
+        private final boolean[] occupied;
+        private int parkableCount;
+        private int freeCount;
+        private long missedCount;
+        
+        FreeSpaceCounter(List<ParkingSpace> spaces, OccupancyEventChannel.Subscription events) {
+            this.spaces = spaces;
+            this.events = events;
+            this.occupied = new boolean[spaces.size()];
+            rescan();
+        }
+        
+        /** Applies the events published since the last call and returns the count. */
+        int poll() {
+            events.poll(this);
+            if (events.getMissedCount() != missedCount) {
+                // Fell more than the ring behind; the spaces' occupancy is safe to read from any thread
+                missedCount = events.getMissedCount();
+                rescan();
+            }
+            return freeCount;
+        }
+        
+        int getParkableCount() {
+            return parkableCount;
+        }
+        
+        @Override
+        public void occupancyChanged(int spaceIndex, String spaceId, boolean wasOccupied, boolean nowOccupied,
+                                     double simulationTime) {
+            if (spaces.get(spaceIndex).getType() == ParkingSpaceType.OBSTACLE) return;
+            if (occupied[spaceIndex] == nowOccupied) return;
+            occupied[spaceIndex] = nowOccupied;
+            freeCount += nowOccupied ? -1 : 1;
+        }
+        
+        private void rescan() {
+            parkableCount = 0;
+            freeCount = 0;
+            for (int j = 0; j < occupied.length; j++) {
+                ParkingSpace space = spaces.get(j);
+                occupied[j] = space.isOccupied();
+                if (space.getType() == ParkingSpaceType.OBSTACLE) continue;
+                parkableCount++;
+                if (!occupied[j]) freeCount++;
+            }
+        }
+    }
+    
+    private final List<ParkingSpace> parkingSpaces;
+    private final SnapshotSource snapshots;
+    private FreeSpaceCounter freeSpaces; // live view only
+    private final Timer repaintTimer;
+    private WorldSnapshot snapshot; // latest snapshot, only used during paint
+    private final long renderSeed; // Texture and parked-car colours are redrawn from this every frame
     
     // Display constants
     private static final Color BACKGROUND_COLOR = new Color(46, 52, 64);
@@ -38,20 +215,30 @@ public class ParkingVisualization extends JPanel {
     private static final Color AI_VEHICLE_COLOR = new Color(191, 97, 106);
     private static final Font INFO_FONT = new Font("Arial", Font.BOLD, 16);
     private static final double SCALE = 2.0;
+    private static final int REPAINT_INTERVAL_MS = 16; // about 60 frames per second
     
     // Textures for parking lot
     private static final Color[] ASPHALT_TEXTURE = {
         new Color(60, 70, 90), new Color(65, 75, 95), new Color(70, 80, 100)
     };
     
-    public ParkingVisualization(List<ParkingSpace> parkingSpaces, List<Vehicle> vehicles) {
+    /**
+     * @param parkingSpaces Space geometry, in the same order as the engine's list
+     * @param snapshots Source of the dynamic state drawn each frame
+     */
+    public ParkingVisualization(List<ParkingSpace> parkingSpaces, SnapshotSource snapshots, long renderSeed) {
         this.parkingSpaces = parkingSpaces;
-        this.vehicles = vehicles;
+        this.snapshots = snapshots;
+        this.renderSeed = renderSeed;
         setPreferredSize(new Dimension((int) (1000 * SCALE), (int) (800 * SCALE)));
         setBackground(BACKGROUND_COLOR);
+        
+        // Repaint on our own clock; a slow frame only delays the next one and
+        // never holds up the simulation thread
+        repaintTimer = new Timer(REPAINT_INTERVAL_MS, e -> repaint());
+        repaintTimer.setCoalesce(true);
+        repaintTimer.start();
     }
-    
-    // ... [keep createAndShowGUI and updateSimulation methods the same] ...
 
     @Override
     protected void paintComponent(Graphics g) {
@@ -61,25 +248,27 @@ public class ParkingVisualization extends JPanel {
         g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
         g2d.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
         
-        drawParkingLotBackground(g2d);
+        snapshot = snapshots.acquireLatest();
+        SplittableRandom random = new SplittableRandom(renderSeed);
+        drawParkingLotBackground(g2d, random);
         drawParkingSpaces(g2d);
         drawParkingSpaceMarkings(g2d);
-        drawParkedCars(g2d);
+        drawParkedCars(g2d, random);
         drawVehicles(g2d);
         drawInformationOverlay(g2d);
     }
     
-    private void drawParkingLotBackground(Graphics2D g2d) {
+    private void drawParkingLotBackground(Graphics2D g2d, SplittableRandom random) {
         // Draw road surface with texture
         g2d.setColor(ROAD_COLOR);
         g2d.fillRect(0, 0, 1000, 800);
         
         // Add subtle asphalt texture
         for (int i = 0; i < 500; i++) {
-            int x = RANDOM.nextInt(1000);
-            int y = RANDOM.nextInt(800);
-            int size = RANDOM.nextInt(3) + 1;
-            g2d.setColor(ASPHALT_TEXTURE[RANDOM.nextInt(ASPHALT_TEXTURE.length)]);
+            int x = random.nextInt(1000);
+            int y = random.nextInt(800);
+            int size = random.nextInt(3) + 1;
+            g2d.setColor(ASPHALT_TEXTURE[random.nextInt(ASPHALT_TEXTURE.length)]);
             g2d.fillOval(x, y, size, size);
         }
     }
@@ -87,7 +276,9 @@ public class ParkingVisualization extends JPanel {
     private void drawParkingSpaces(Graphics2D g2d) {
         if (parkingSpaces == null) return;
         
-        for (ParkingSpace space : parkingSpaces) {
+        for (int j = 0; j < parkingSpaces.size(); j++) {
+            ParkingSpace space = parkingSpaces.get(j);
+            boolean occupied = snapshot.isOccupied(j);
             Rectangle2D rect = new Rectangle2D.Double(
                 space.getLocation().getX(), 
                 space.getLocation().getY(), 
@@ -98,9 +289,9 @@ public class ParkingVisualization extends JPanel {
             // Gradient for parking space
             GradientPaint gradient = new GradientPaint(
                 (float)rect.getX(), (float)rect.getY(), 
-                space.isOccupied() ? PARKING_SPACE_COLOR : AVAILABLE_SPACE_COLOR,
+                occupied ? PARKING_SPACE_COLOR : AVAILABLE_SPACE_COLOR,
                 (float)(rect.getX() + rect.getWidth()), (float)(rect.getY() + rect.getHeight()),
-                space.isOccupied() ? PARKING_SPACE_COLOR.darker() : AVAILABLE_SPACE_COLOR.darker()
+                occupied ? PARKING_SPACE_COLOR.darker() : AVAILABLE_SPACE_COLOR.darker()
             );
             
             g2d.setPaint(gradient);
@@ -117,8 +308,9 @@ public class ParkingVisualization extends JPanel {
         g2d.setColor(new Color(255, 255, 255, 150));
         g2d.setStroke(new BasicStroke(1.2f, BasicStroke.CAP_ROUND, BasicStroke.JOIN_ROUND));
         
-        for (ParkingSpace space : parkingSpaces) {
-            if (!space.isOccupied()) {
+        for (int j = 0; j < parkingSpaces.size(); j++) {
+            ParkingSpace space = parkingSpaces.get(j);
+            if (!snapshot.isOccupied(j)) {
                 double centerX = space.getLocation().getX() + space.getLength() * 4;
                 double centerY = space.getLocation().getY() + space.getWidth() * 4;
                 
@@ -135,15 +327,16 @@ public class ParkingVisualization extends JPanel {
         }
     }
     
-    private void drawParkedCars(Graphics2D g2d) {
+    private void drawParkedCars(Graphics2D g2d, SplittableRandom random) {
         if (parkingSpaces == null) return;
         
-        for (ParkingSpace space : parkingSpaces) {
-            if (space.isOccupied()) {
+        for (int j = 0; j < parkingSpaces.size(); j++) {
+            ParkingSpace space = parkingSpaces.get(j);
+            if (snapshot.isOccupied(j)) {
                 Color baseColor = new Color(
-                    RANDOM.nextInt(40) + 30, 
-                    RANDOM.nextInt(40) + 30, 
-                    RANDOM.nextInt(40) + 30);
+                    random.nextInt(40) + 30, 
+                    random.nextInt(40) + 30, 
+                    random.nextInt(40) + 30);
                 
                 double x = space.getLocation().getX() + 5;
                 double y = space.getLocation().getY() + 5;
@@ -203,18 +396,16 @@ public class ParkingVisualization extends JPanel {
     }
     
     private void drawVehicles(Graphics2D g2d) {
-        if (vehicles == null) return;
-        
-        for (Vehicle vehicle : vehicles) {
+        for (int i = 0; i < snapshot.getVehicleCount(); i++) {
             AffineTransform originalTransform = g2d.getTransform();
             AffineTransform transform = new AffineTransform();
-            transform.translate(vehicle.getPosition().getX(), vehicle.getPosition().getY());
-            transform.rotate(Math.toRadians(vehicle.getAngle()));
+            transform.translate(snapshot.getX(i), snapshot.getY(i));
+            transform.rotate(Math.toRadians(snapshot.getAngle(i)));
             g2d.transform(transform);
             
             // Car dimensions
-            double carLength = vehicle.getLength() * 8;
-            double carWidth = vehicle.getWidth() * 8;
+            double carLength = snapshot.getLength(i) * 8;
+            double carWidth = snapshot.getWidth(i) * 8;
             
             // Car shadow
             g2d.setColor(new Color(0, 0, 0, 50));
@@ -223,7 +414,7 @@ public class ParkingVisualization extends JPanel {
                 carLength, carWidth, 10, 10));
             
             // Car body with gradient
-            Color baseColor = vehicle.isUserControlled() ? USER_VEHICLE_COLOR : AI_VEHICLE_COLOR;
+            Color baseColor = snapshot.isUserControlled(i) ? USER_VEHICLE_COLOR : AI_VEHICLE_COLOR;
             GradientPaint carGradient = new GradientPaint(
                 (float)(-carLength/2), (float)(-carWidth/2), baseColor.brighter(),
                 (float)(-carLength/2), (float)(carWidth/2), baseColor.darker()
@@ -279,7 +470,7 @@ public class ParkingVisualization extends JPanel {
             g2d.drawOval((int)(carLength/2 - 10), (int)(carWidth/2 - 10), 6, 6);
             
             // Speed effect (motion blur for fast-moving vehicles)
-            if (vehicle.getSpeed() > 1.0) {
+            if (snapshot.getSpeed(i) > 1.0) {
                 g2d.setColor(new Color(255, 255, 255, 50));
                 g2d.fill(new Rectangle2D.Double(
                     -carLength/2 - 5, -carWidth/2, 
@@ -293,7 +484,7 @@ public class ParkingVisualization extends JPanel {
     private void drawInformationOverlay(Graphics2D g2d) {
         // Semi-transparent background for info
         g2d.setColor(new Color(46, 52, 64, 200));
-        g2d.fillRoundRect(10, 10, 300, 100, 15, 15);
+        g2d.fillRoundRect(10, 10, 300, freeSpaces != null ? 130 : 100, 15, 15);
         
         g2d.setColor(Color.WHITE);
         g2d.setFont(INFO_FONT);
@@ -301,10 +492,10 @@ public class ParkingVisualization extends JPanel {
         g2d.drawString("Real-time Parking Simulation", 20, 30);
         g2d.drawString("Controls: Arrow keys to drive, Space to brake", 20, 55);
         
-        for (Vehicle vehicle : vehicles) {
-            if (vehicle.isUserControlled()) {
+        for (int i = 0; i < snapshot.getVehicleCount(); i++) {
+            if (snapshot.isUserControlled(i)) {
                 // Speed indicator with color coding
-                double speed = Math.abs(vehicle.getSpeed());
+                double speed = Math.abs(snapshot.getSpeed(i));
                 if (speed > 3) g2d.setColor(Color.RED);
                 else if (speed > 1.5) g2d.setColor(Color.ORANGE);
                 else g2d.setColor(Color.GREEN);
@@ -313,18 +504,14 @@ public class ParkingVisualization extends JPanel {
                 
                 // Gear indicator
                 g2d.setColor(Color.WHITE);
-                String gear = vehicle.getSpeed() >= 0 ? "D" : "R";
+                String gear = snapshot.getSpeed(i) >= 0 ? "D" : "R";
                 g2d.drawString("Gear: " + gear, 20, 105);
             }
         }
+        
+        if (freeSpaces != null) {
+            g2d.setColor(Color.WHITE);
+            g2d.drawString("Free spaces: " + freeSpaces.poll() + " / " + freeSpaces.getParkableCount(), 20, 130);
+        }
     }
-
-    public void updateSimulation(List<Vehicle> vehicles, List<ParkingSpace> parkingSpaces) {
-        if (vehicles == null || parkingSpaces == null) {
-        throw new IllegalArgumentException("Arguments cannot be null");
-    }
-    this.vehicles = vehicles;
-    this.parkingSpaces = parkingSpaces;
-    repaint();
-    }
-}
\ No newline at end of file
+}